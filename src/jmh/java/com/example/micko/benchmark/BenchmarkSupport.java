@@ -0,0 +1,83 @@
+package com.example.micko.benchmark;
+
+import com.example.micko.MickoApplication;
+import com.example.micko.data.ColumnDefinition;
+import com.example.micko.data.DatabaseManager;
+import com.example.micko.data.TableDefinition;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Shared setup for the benchmarks: an application context without the web layer and helpers that
+ * build tables in the same shape the YAML files declare them.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Start the Application Without a Web Server and with Quiet Logging
+     */
+    static ConfigurableApplicationContext startContext(Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.main.web-application-type", "none");
+        defaults.put("spring.profiles.active", "local");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.com.example.micko", "WARN");
+        defaults.putAll(properties);
+
+        SpringApplication application = new SpringApplication(MickoApplication.class);
+        application.setDefaultProperties(defaults);
+        return application.run();
+    }
+
+    /**
+     * Table Definition as Bound from a YAML File
+     */
+    static TableDefinition table(String name, Map<String, String> columns, List<Map<String, Object>> data) {
+        List<ColumnDefinition> columnList = new ArrayList<>();
+        columns.forEach((column, type) -> {
+            ColumnDefinition definition = new ColumnDefinition();
+            definition.setName(column);
+            definition.setType(type);
+            columnList.add(definition);
+        });
+        TableDefinition table = new TableDefinition();
+        table.setName(name);
+        table.setColumns(columnList);
+        table.setData(data);
+        table.setRules(List.of());
+        return table;
+    }
+
+    /**
+     * Generate Rows with a Row Factory
+     */
+    static List<Map<String, Object>> rows(int count, IntFunction<Map<String, Object>> factory) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(factory.apply(i));
+        }
+        return rows;
+    }
+
+    /**
+     * Replace a Table and Load Its Rows Through the Regular Load Path
+     */
+    static void loadTable(DataSource dataSource, TableDefinition table) throws Exception {
+        DatabaseManager dbManager = new DatabaseManager();
+        try (Connection connection = dataSource.getConnection()) {
+            dbManager.dropTableIfExists(connection, table.getName());
+            dbManager.createAndLoadTables(connection, List.of(table));
+        }
+    }
+}
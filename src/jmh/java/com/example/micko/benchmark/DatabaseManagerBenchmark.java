@@ -0,0 +1,65 @@
+package com.example.micko.benchmark;
+
+import com.example.micko.data.DatabaseManager;
+import com.example.micko.data.TableDefinition;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table creation plus {@code insertData} for a fixed row count at different JDBC batch sizes,
+ * on a standalone in-memory H2 database configured like the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseManagerBenchmark {
+
+    private static final String TABLE = "bench_load";
+
+    @Param({"1", "100", "1000", "5000"})
+    public int batchSize;
+
+    @Param({"10000"})
+    public int rowCount;
+
+    private DatabaseManager dbManager;
+    private Connection connection;
+    private TableDefinition table;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbManager = new DatabaseManager(batchSize);
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench_load;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("id", "integer");
+        columns.put("name", "string");
+        columns.put("amount", "double");
+        table = BenchmarkSupport.table(TABLE, columns, BenchmarkSupport.rows(rowCount,
+                i -> Map.of("id", i, "name", "row" + i, "amount", i * 1.5)));
+    }
+
+    @Setup(Level.Invocation)
+    public void dropTable() throws Exception {
+        dbManager.dropTableIfExists(connection, TABLE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public void createAndLoad() throws Exception {
+        dbManager.createAndLoadTables(connection, List.of(table));
+    }
+}
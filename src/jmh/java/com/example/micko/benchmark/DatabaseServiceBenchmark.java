@@ -0,0 +1,64 @@
+package com.example.micko.benchmark;
+
+import com.example.micko.data.ColumnarResult;
+import com.example.micko.data.DatabaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DatabaseService#executeSelectQuery} across result sizes. The row-map result goes through
+ * {@code mapTupleResults}; the columnar variant is measured alongside for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseServiceBenchmark {
+
+    private static final String QUERY = "SELECT id, name, amount, active FROM bench_rows WHERE id < :limit";
+
+    @Param({"1", "100", "10000"})
+    public int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private DatabaseService dbService;
+    private Map<String, Object> params;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.startContext(Map.of());
+        dbService = context.getBean(DatabaseService.class);
+
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("id", "integer");
+        columns.put("name", "string");
+        columns.put("amount", "double");
+        columns.put("active", "boolean");
+        BenchmarkSupport.loadTable(context.getBean(DataSource.class), BenchmarkSupport.table("bench_rows", columns,
+                BenchmarkSupport.rows(rowCount, i -> Map.of("id", i, "name", "row" + i, "amount", i * 1.5, "active", i % 2 == 0))));
+        params = Map.of("limit", rowCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> selectRows() {
+        return dbService.executeSelectQuery(QUERY, params);
+    }
+
+    @Benchmark
+    public ColumnarResult selectColumnar() {
+        return dbService.executeSelectQueryColumnar(QUERY, params);
+    }
+}
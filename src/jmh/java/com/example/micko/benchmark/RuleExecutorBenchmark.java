@@ -0,0 +1,119 @@
+package com.example.micko.benchmark;
+
+import com.example.micko.rule.CompiledRule;
+import com.example.micko.rule.Rule;
+import com.example.micko.rule.RuleCompiler;
+import com.example.micko.rule.RuleExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RuleExecutor#execute} for rules guarded by each validation type, with and without the
+ * query validation cache, on the JDBC and JPA engines. Every rule ends in the same single-row SELECT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleExecutorBenchmark {
+
+    private static final String TABLE = "bench_user";
+    private static final String LOOKUP = "SELECT userid, email, age FROM bench_user WHERE userid = :userid";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"0", "10000"})
+    public int validationCacheSize;
+
+    @Param({"jdbc", "jpa"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+    private RuleExecutor ruleExecutor;
+
+    private CompiledRule queryRule;
+    private CompiledRule regexRule;
+    private CompiledRule lengthRule;
+    private CompiledRule rangeRule;
+    private Map<String, Object> inputs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.startContext(Map.of(
+                "micko.validation-cache.max-entries", validationCacheSize,
+                "micko.rule.engine", engine));
+        ruleExecutor = context.getBean(RuleExecutor.class);
+
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("userid", "string");
+        columns.put("email", "string");
+        columns.put("age", "integer");
+        BenchmarkSupport.loadTable(context.getBean(DataSource.class), BenchmarkSupport.table(TABLE, columns,
+                BenchmarkSupport.rows(10_000, i -> Map.of("userid", "user" + i, "email", "user" + i + "@example.com", "age", 18 + i % 60))));
+
+        RuleCompiler compiler = new RuleCompiler();
+        queryRule = compiler.compile(TABLE, rule("queryValidation", Map.of(
+                "type", "query",
+                "query", "SELECT COUNT(*) FROM bench_user WHERE userid = :userid",
+                "expectedResult", "1")));
+        regexRule = compiler.compile(TABLE, rule("regexValidation", Map.of(
+                "type", "regex",
+                "field", "email",
+                "pattern", "^[\\w.+-]+@[\\w-]+\\.[\\w.]+$")));
+        lengthRule = compiler.compile(TABLE, rule("lengthValidation", Map.of(
+                "type", "length",
+                "field", "userid",
+                "minLength", 3,
+                "maxLength", 32)));
+        rangeRule = compiler.compile(TABLE, rule("rangeValidation", Map.of(
+                "type", "range",
+                "field", "age",
+                "minValue", 18,
+                "maxValue", 120)));
+
+        inputs = Map.of("userid", "user4242", "email", "user4242@example.com", "age", 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> queryValidation() {
+        return ruleExecutor.execute(queryRule, inputs);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> regexValidation() {
+        return ruleExecutor.execute(regexRule, inputs);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> lengthValidation() {
+        return ruleExecutor.execute(lengthRule, inputs);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> rangeValidation() {
+        return ruleExecutor.execute(rangeRule, inputs);
+    }
+
+    private static Rule rule(String action, Map<String, Object> validation) {
+        Map<String, Object> withError = new LinkedHashMap<>(validation);
+        withError.put("error", Map.of("statusCode", 400, "message", "Invalid input."));
+        return MAPPER.convertValue(Map.of(
+                "action", action,
+                "validations", List.of(withError),
+                "executionQuery", Map.of("query", LOOKUP)), Rule.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.micko.benchmark;
+
+import com.example.micko.data.TableDefinition;
+import com.example.micko.parser.YamlParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link YamlParser#parseYaml} against the chunked {@link YamlParser#streamTableData} path on
+ * generated rule files of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlParserBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    private final YamlParser yamlParser = new YamlParser();
+    private Path yamlFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("userid", "string");
+        columns.put("deviceid", "string");
+        columns.put("firsttimelogin", "boolean");
+        TableDefinition table = BenchmarkSupport.table("bench_user", columns, BenchmarkSupport.rows(rowCount,
+                i -> Map.of("userid", "user" + i, "deviceid", "device-" + i, "firsttimelogin", i % 2 == 0)));
+
+        yamlFile = Files.createTempFile("micko-bench-", ".yaml");
+        Files.writeString(yamlFile, yamlParser.writeYaml(Map.of("tables", List.of(table))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(yamlFile);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseYaml() throws Exception {
+        try (InputStream input = Files.newInputStream(yamlFile)) {
+            return yamlParser.parseYaml(input);
+        }
+    }
+
+    @Benchmark
+    public void streamTableData(Blackhole blackhole) throws Exception {
+        try (InputStream input = Files.newInputStream(yamlFile)) {
+            yamlParser.streamTableData(input, 1000, (tableIndex, rows) -> blackhole.consume(rows));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.micko.bulkhead;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit with a bounded wait queue. Up to {@code maxConcurrent} callers run at once and up to
+ * {@code maxQueued} more wait, each for at most {@code queueTimeoutMillis}. A caller arriving to a full queue
+ * is turned away at once with 429; one that waits too long gets 503.
+ */
+public final class Bulkhead {
+
+    public record Settings(int maxConcurrent, int maxQueued, long queueTimeoutMillis) {
+    }
+
+    /**
+     * Admission to the Bulkhead, Released by {@link #close()}
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+
+        /**
+         * Hold the Permit Until a Streamed Body Has Been Written, Since the Work Happens While Streaming
+         */
+        default ResponseEntity<StreamingResponseBody> holdUntilWritten(ResponseEntity<StreamingResponseBody> response) {
+            StreamingResponseBody body = response.getBody();
+            if (body == null) {
+                close();
+                return response;
+            }
+            StreamingResponseBody guarded = outputStream -> {
+                try {
+                    body.writeTo(outputStream);
+                } finally {
+                    close();
+                }
+            };
+            return new ResponseEntity<>(guarded, response.getHeaders(), response.getStatusCode());
+        }
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder queueFullRejections;
+    private final LongAdder timeoutRejections;
+
+    public Bulkhead(String name, Settings settings) {
+        this(name, settings, new LongAdder(), new LongAdder());
+    }
+
+    private Bulkhead(String name, Settings settings, LongAdder queueFullRejections, LongAdder timeoutRejections) {
+        this.name = name;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxConcurrent(), true);
+        this.queueFullRejections = queueFullRejections;
+        this.timeoutRejections = timeoutRejections;
+    }
+
+    /**
+     * Bulkhead with No Limit, Used When Bulkheads Are Disabled
+     */
+    public static Bulkhead unlimited(String name) {
+        return new Bulkhead(name, new Settings(Integer.MAX_VALUE, 0, 0));
+    }
+
+    /**
+     * New Bulkhead with Different Limits That Keeps Counting Rejections Where This One Left Off
+     * Permits held on this bulkhead are still released to it; they are not carried over.
+     */
+    public Bulkhead withSettings(Settings newSettings) {
+        return new Bulkhead(name, newSettings, queueFullRejections, timeoutRejections);
+    }
+
+    /**
+     * Take a Permit, Waiting in the Queue if Every Permit Is in Use
+     */
+    public Permit acquire() {
+        try {
+            // The timed form honours fairness; the untimed tryAcquire() would barge past callers already waiting
+            if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                if (queued.incrementAndGet() > settings.maxQueued()) {
+                    queued.decrementAndGet();
+                    queueFullRejections.increment();
+                    throw new BulkheadRejectedException(name, 429, "Too many concurrent requests for " + name + ". Retry later.");
+                }
+                try {
+                    if (!permits.tryAcquire(settings.queueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                        timeoutRejections.increment();
+                        throw new BulkheadRejectedException(name, 503, "Timed out waiting for capacity on " + name + ". Retry later.");
+                    }
+                } finally {
+                    queued.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timeoutRejections.increment();
+            throw new BulkheadRejectedException(name, 503, "Interrupted while waiting for capacity on " + name + ".");
+        }
+
+        AtomicInteger released = new AtomicInteger();
+        return () -> {
+            if (released.getAndIncrement() == 0) {
+                permits.release();
+            }
+        };
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    /** Callers currently holding a permit */
+    public int active() {
+        return settings.maxConcurrent() - permits.availablePermits();
+    }
+
+    /** Callers currently waiting for a permit */
+    public int queued() {
+        return queued.get();
+    }
+
+    public long queueFullRejections() {
+        return queueFullRejections.sum();
+    }
+
+    public long timeoutRejections() {
+        return timeoutRejections.sum();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.micko.bulkhead;
+
+import com.example.micko.rule.BulkheadDefinition;
+import com.example.micko.rule.CompiledRule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bulkheads for Rule Executions and Ad-Hoc Queries
+ * Every table/action pair gets its own bulkhead, so a slow report can only exhaust its own slots, and
+ * {@code /api/query} gets one shared bulkhead. Rule limits start from {@code micko.bulkhead.defaults.*},
+ * are overridden by the rule's {@code bulkhead} block in YAML, and can be overridden without touching the
+ * rule file through {@code micko.bulkhead.rules.<table>.<action>.*}, with the table name in lower case whatever
+ * its case in YAML. Meters, tagged by bulkhead, table and action:
+ * <ul>
+ *   <li>{@code micko.bulkhead.active} - executions holding a slot</li>
+ *   <li>{@code micko.bulkhead.queued} - executions waiting for a slot</li>
+ *   <li>{@code micko.bulkhead.rejections} - requests turned away, tagged by reason ({@code queue_full} or {@code timeout})</li>
+ * </ul>
+ */
+@Component
+public class BulkheadRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    private final MeterRegistry registry;
+    private final Environment environment;
+    private final boolean enabled;
+    private final Bulkhead.Settings defaults;
+    private final Bulkhead queryBulkhead;
+    private final Map<String, RuleBulkhead> ruleBulkheads = new ConcurrentHashMap<>();
+
+    /** The bulkhead currently guarding a rule, and the compiled rule its limits were resolved from */
+    private record RuleBulkhead(CompiledRule rule, Bulkhead bulkhead) {
+    }
+
+    public BulkheadRegistry(MeterRegistry registry, Environment environment,
+                            @Value("${micko.bulkhead.enabled:true}") boolean enabled,
+                            @Value("${micko.bulkhead.defaults.max-concurrent:8}") int maxConcurrent,
+                            @Value("${micko.bulkhead.defaults.max-queued:32}") int maxQueued,
+                            @Value("${micko.bulkhead.defaults.queue-timeout-ms:1000}") long queueTimeoutMillis,
+                            @Value("${micko.bulkhead.query.max-concurrent:2}") int queryMaxConcurrent,
+                            @Value("${micko.bulkhead.query.max-queued:4}") int queryMaxQueued,
+                            @Value("${micko.bulkhead.query.queue-timeout-ms:2000}") long queryQueueTimeoutMillis) {
+        this.registry = registry;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.defaults = new Bulkhead.Settings(maxConcurrent, maxQueued, queueTimeoutMillis);
+        this.queryBulkhead = enabled
+                ? new Bulkhead("query", new Bulkhead.Settings(queryMaxConcurrent, queryMaxQueued, queryQueueTimeoutMillis))
+                : Bulkhead.unlimited("query");
+        // Prometheus needs the same tag keys on every meter of a name, hence the empty table and action
+        registerMeters(Tags.of("bulkhead", "query", "table", "", "action", ""), BulkheadRegistry::forQuery);
+    }
+
+    /**
+     * Bulkhead Guarding {@code /api/query}
+     */
+    public Bulkhead forQuery() {
+        return queryBulkhead;
+    }
+
+    /**
+     * Bulkhead Guarding a Rule, Re-Resolving Its Limits When the Rule Has Been Reloaded
+     */
+    public Bulkhead forRule(CompiledRule rule) {
+        String key = rule.tableName().toLowerCase() + "." + rule.action();
+        RuleBulkhead current = ruleBulkheads.get(key);
+        if (current != null && current.rule() == rule) {
+            return current.bulkhead();
+        }
+        if (current == null) {
+            ruleBulkheads.computeIfAbsent(key, k -> new RuleBulkhead(rule,
+                    enabled ? new Bulkhead(k, resolve(rule)) : Bulkhead.unlimited(k)));
+            registerMeters(Tags.of("bulkhead", "rule", "table", rule.tableName(), "action", rule.action()),
+                    owner -> owner.ruleBulkheads.get(key).bulkhead());
+        }
+        return ruleBulkheads.compute(key, (k, existing) -> {
+            if (existing.rule() == rule) {
+                return existing;
+            }
+            if (!enabled) {
+                return new RuleBulkhead(rule, existing.bulkhead());
+            }
+            Bulkhead.Settings settings = resolve(rule);
+            if (settings.equals(existing.bulkhead().settings())) {
+                return new RuleBulkhead(rule, existing.bulkhead());
+            }
+            logger.info("Bulkhead {} limits changed to {}", k, settings);
+            return new RuleBulkhead(rule, existing.bulkhead().withSettings(settings));
+        }).bulkhead();
+    }
+
+    /**
+     * Layer Defaults, the Rule's YAML Block and Property Overrides
+     */
+    private Bulkhead.Settings resolve(CompiledRule rule) {
+        int maxConcurrent = defaults.maxConcurrent();
+        int maxQueued = defaults.maxQueued();
+        long queueTimeoutMillis = defaults.queueTimeoutMillis();
+
+        BulkheadDefinition definition = rule.definition().getBulkhead();
+        if (definition != null) {
+            maxConcurrent = Objects.requireNonNullElse(definition.getMaxConcurrent(), maxConcurrent);
+            maxQueued = Objects.requireNonNullElse(definition.getMaxQueued(), maxQueued);
+            if (definition.getQueueTimeoutMs() != null) {
+                queueTimeoutMillis = definition.getQueueTimeoutMs();
+            }
+        }
+
+        String prefix = "micko.bulkhead.rules." + rule.tableName().toLowerCase() + "." + rule.action() + ".";
+        maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent);
+        maxQueued = environment.getProperty(prefix + "max-queued", Integer.class, maxQueued);
+        queueTimeoutMillis = environment.getProperty(prefix + "queue-timeout-ms", Long.class, queueTimeoutMillis);
+
+        return new Bulkhead.Settings(Math.max(1, maxConcurrent), Math.max(0, maxQueued), Math.max(0, queueTimeoutMillis));
+    }
+
+    /**
+     * Publish Meters That Look the Bulkhead Up on Every Read, So One Replaced on Reload Keeps Its Meters
+     * Registering the same meters twice is harmless; the registry returns the existing ones.
+     */
+    private void registerMeters(Tags tags, Function<BulkheadRegistry, Bulkhead> bulkhead) {
+        Gauge.builder("micko.bulkhead.active", this, owner -> bulkhead.apply(owner).active())
+                .description("Executions holding a bulkhead slot")
+                .tags(tags).register(registry);
+        Gauge.builder("micko.bulkhead.queued", this, owner -> bulkhead.apply(owner).queued())
+                .description("Executions waiting for a bulkhead slot")
+                .tags(tags).register(registry);
+        FunctionCounter.builder("micko.bulkhead.rejections", this, owner -> bulkhead.apply(owner).queueFullRejections())
+                .description("Requests rejected by a bulkhead")
+                .tags(tags.and("reason", "queue_full")).register(registry);
+        FunctionCounter.builder("micko.bulkhead.rejections", this, owner -> bulkhead.apply(owner).timeoutRejections())
+                .description("Requests rejected by a bulkhead")
+                .tags(tags.and("reason", "timeout")).register(registry);
+    }
+}
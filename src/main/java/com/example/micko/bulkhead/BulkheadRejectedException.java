@@ -0,0 +1,35 @@
+package com.example.micko.bulkhead;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Thrown When a Bulkhead Turns a Request Away
+ * {@code status} is 429 when the wait queue was full and 503 when the wait timed out.
+ */
+public class BulkheadRejectedException extends RuntimeException {
+
+    private final String bulkhead;
+    private final int status;
+
+    public BulkheadRejectedException(String bulkhead, int status, String message) {
+        super(message);
+        this.bulkhead = bulkhead;
+        this.status = status;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Response Builder with the Rejection Status and a Retry-After Hint
+     */
+    public ResponseEntity.BodyBuilder response() {
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1");
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.micko.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.function.Function;
+
+/**
+ * Publishes {@link CacheStats} counters as Micrometer meters tagged with the cache name.
+ * Meters read through a function on a long-lived owner, so a cache that is replaced behind the owner
+ * keeps reporting under the same meters.
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    /**
+     * Register Hit, Miss, Eviction, Size and Hit Ratio Meters for a Cache
+     */
+    public static <T> void register(MeterRegistry registry, String cacheName, Tags tags, T owner,
+                                    Function<T, CacheStats> stats) {
+        Tags cacheTags = tags.and("cache", cacheName);
+        FunctionCounter.builder("micko.cache.hits", owner, o -> stats.apply(o).hits())
+                .tags(cacheTags).register(registry);
+        FunctionCounter.builder("micko.cache.misses", owner, o -> stats.apply(o).misses())
+                .tags(cacheTags).register(registry);
+        FunctionCounter.builder("micko.cache.evictions", owner, o -> stats.apply(o).evictions())
+                .tags(cacheTags).register(registry);
+        Gauge.builder("micko.cache.size", owner, o -> stats.apply(o).size())
+                .tags(cacheTags).register(registry);
+        Gauge.builder("micko.cache.hit.ratio", owner, o -> stats.apply(o).hitRatio())
+                .tags(cacheTags).register(registry);
+    }
+}
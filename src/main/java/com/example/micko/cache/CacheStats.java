@@ -0,0 +1,12 @@
+package com.example.micko.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheStats(long hits, long misses, long evictions, int size, int maxEntries) {
+
+    @JsonProperty("hitRatio")
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.micko.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe LRU cache with hit/miss/eviction counters.
+ */
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final Map<K, V> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a Cached Value, Recording a Hit or Miss
+     */
+    public V get(K key) {
+        V value;
+        lock.lock();
+        try {
+            value = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Get a Cached Value or Compute It Outside the Lock
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V computed = loader.apply(key);
+        if (computed == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            V existing = entries.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            entries.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        lock.lock();
+        try {
+            return entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot of Cache Counters
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), maxEntries);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.micko.cache;
+
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableVersions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of query results keyed by SQL text and bound parameter values.
+ * Each entry remembers the {@link TableVersions} stamp of the tables its query reads, taken before
+ * the query ran; an entry whose tables have been written since is treated as a miss. An optional TTL
+ * bounds staleness further. Queries whose tables cannot all be determined are never cached, since a
+ * write to a table the scan missed would not invalidate them. Nor is a value loaded by a thread that was
+ * interrupted meanwhile: a cancelled load may have been cut short and cannot be told apart from a real result.
+ */
+public class QueryResultCache<V> {
+
+    private record Key(String sql, List<Object> params) {
+    }
+
+    private record Entry<V>(V value, long stamp, long expiresAtNanos) {
+    }
+
+    private final LruCache<Key, Entry<V>> entries;
+    private final TableVersions tableVersions;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param ttlNanos Maximum entry age, or 0 to rely on table versions alone
+     */
+    public QueryResultCache(int maxEntries, TableVersions tableVersions, long ttlNanos) {
+        this.entries = new LruCache<>(maxEntries);
+        this.tableVersions = tableVersions;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * Get a Cached Result or Load and Cache It
+     */
+    public V get(SqlStatement statement, Map<String, Object> params, Supplier<V> loader) {
+        return get(statement, params, loader, value -> true);
+    }
+
+    /**
+     * Get a Cached Result or Load It, Caching Only Loaded Values the Predicate Accepts
+     */
+    public V get(SqlStatement statement, Map<String, Object> params, Supplier<V> loader, Predicate<? super V> cacheable) {
+        if (statement.tables().isEmpty() || !statement.tablesComplete()) {
+            return loader.get();
+        }
+        Key key = new Key(statement.sql(), statement.parameterNames().stream().map(params::get).toList());
+        long stamp = tableVersions.stamp(statement.tables());
+
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry != null && entry.stamp() == stamp && (ttlNanos == 0 || now - entry.expiresAtNanos() < 0)) {
+            hits.increment();
+            return entry.value();
+        }
+
+        misses.increment();
+        V value = loader.get();
+        if (value != null && cacheable.test(value) && !Thread.currentThread().isInterrupted()) {
+            entries.put(key, new Entry<>(value, stamp, now + ttlNanos));
+        }
+        return value;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Snapshot of Cache Counters
+     * Hits and misses count fresh and stale lookups; evictions and size come from the underlying LRU.
+     */
+    public CacheStats stats() {
+        CacheStats lru = entries.stats();
+        return new CacheStats(hits.sum(), misses.sum(), lru.evictions(), lru.size(), lru.maxEntries());
+    }
+}
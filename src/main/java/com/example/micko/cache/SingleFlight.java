@@ -0,0 +1,70 @@
+package com.example.micko.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one execution. The first caller runs the loader;
+ * callers arriving while it runs wait for and share its result or exception. Nothing is kept once the
+ * execution finishes, so a later call always runs the loader again.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Run the Loader, or Join the Execution Already Running for the Key
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /** Loader runs, one per group of coalesced calls */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /** Calls answered by another caller's execution */
+    public long shared() {
+        return shared.sum();
+    }
+
+    /** Executions running right now */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -1,11 +1,25 @@
 package com.example.micko.controller;
 
+import com.example.micko.bulkhead.Bulkhead;
+import com.example.micko.bulkhead.BulkheadRegistry;
+import com.example.micko.bulkhead.BulkheadRejectedException;
+import com.example.micko.cache.CacheStats;
 import com.example.micko.data.DatabaseService;
+import com.example.micko.data.ResultFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/query")
@@ -14,9 +28,13 @@ public class QueryExecutionApiController {
 
     private static final Logger logger = LoggerFactory.getLogger(QueryExecutionApiController.class);
     private final DatabaseService dbService;
+    private final ObjectMapper objectMapper;
+    private final BulkheadRegistry bulkheads;
 
-    public QueryExecutionApiController(DatabaseService dbService) {
+    public QueryExecutionApiController(DatabaseService dbService, ObjectMapper objectMapper, BulkheadRegistry bulkheads) {
         this.dbService = dbService;
+        this.objectMapper = objectMapper;
+        this.bulkheads = bulkheads;
     }
 
     /**
@@ -24,10 +42,69 @@ public class QueryExecutionApiController {
      */
     @Operation(summary = "Execute Custom Query", description = "Executes a custom SQL query and returns the result.")
     @PostMapping("/execute")
-    public Object executeQuery(@RequestBody String query) {
+    public ResponseEntity<Object> executeQuery(
+            @RequestBody String query,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept) {
         logger.info("Received query execution request: {}", query);
-        Object result = dbService.executeCustomQuery(query);
+        Object result;
+        try (Bulkhead.Permit permit = bulkheads.forQuery().acquire()) {
+            result = dbService.executeCustomQuery(query, ResultFormat.resolve(format, accept));
+        } catch (BulkheadRejectedException e) {
+            logger.warn("Rejected query execution request: {}", e.getMessage());
+            return e.response().body(e.getMessage());
+        }
         logger.info("Query execution result: {}", result);
-        return result;
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Execute Custom Query and Stream the Result
+     */
+    @Operation(summary = "Execute Custom Query (Streaming)", description = "Executes a custom SQL query and streams SELECT rows to the response as they are read.")
+    @PostMapping("/execute/stream")
+    public ResponseEntity<StreamingResponseBody> executeQueryStreaming(
+            @RequestBody String query,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept) {
+        ResultFormat resultFormat = ResultFormat.resolve(format, accept);
+        logger.info("Received streaming query execution request: {}", query);
+        boolean dml = dbService.getStatement(query).dml();
+        Bulkhead.Permit permit;
+        try {
+            permit = bulkheads.forQuery().acquire();
+        } catch (BulkheadRejectedException e) {
+            logger.warn("Rejected streaming query execution request: {}", e.getMessage());
+            return e.response().body(outputStream -> outputStream.write(e.getMessage().getBytes()));
+        }
+        if (dml) {
+            Object result;
+            try (permit) {
+                result = dbService.executeCustomQuery(query);
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, result));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                dbService.streamSelectQuery(query, Map.of(), resultFormat, generator);
+            } catch (SQLException e) {
+                logger.error("Streaming query failed: {}", e.getMessage(), e);
+                throw new IOException("Query execution failed.", e);
+            }
+        };
+        return permit.holdUntilWritten(
+                ResponseEntity.ok().contentType(MediaType.parseMediaType(resultFormat.contentType())).body(body));
+    }
+
+    /**
+     * Statement Cache Statistics
+     */
+    @Operation(summary = "Statement Cache Stats", description = "Returns hit, miss and eviction counters of the SQL statement cache.")
+    @GetMapping("/statement-cache")
+    public CacheStats statementCacheStats() {
+        return dbService.getStatementCacheStats();
     }
 }
@@ -1,6 +1,15 @@
 package com.example.micko.controller;
 
+import com.example.micko.bulkhead.Bulkhead;
+import com.example.micko.bulkhead.BulkheadRegistry;
+import com.example.micko.bulkhead.BulkheadRejectedException;
+import com.example.micko.cache.CacheStats;
+import com.example.micko.data.ResultFormat;
+import com.example.micko.rule.CompiledRule;
+import com.example.micko.rule.LoadReport;
+import com.example.micko.rule.Rule;
 import com.example.micko.rule.RuleCacheManager;
+import com.example.micko.rule.RuleCoalescer;
 import com.example.micko.rule.RuleExecutor;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,7 +19,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,10 +32,15 @@ public class RulesApiController {
     private static final Logger logger = LoggerFactory.getLogger(RulesApiController.class);
     private final RuleCacheManager cacheManager;
     private final RuleExecutor ruleExecutor;
+    private final BulkheadRegistry bulkheads;
+    private final RuleCoalescer coalescer;
 
-    public RulesApiController(RuleCacheManager cacheManager, RuleExecutor ruleExecutor) {
+    public RulesApiController(RuleCacheManager cacheManager, RuleExecutor ruleExecutor, BulkheadRegistry bulkheads,
+                              RuleCoalescer coalescer) {
         this.cacheManager = cacheManager;
         this.ruleExecutor = ruleExecutor;
+        this.bulkheads = bulkheads;
+        this.coalescer = coalescer;
     }
 
     /**
@@ -32,19 +48,47 @@ public class RulesApiController {
      */
     @Operation(summary = "List Rules", description = "Retrieve all cached YAML rules")
     @GetMapping("/list")
-    public Map<String, Map<String, Map<String, Object>>> listAllRules() {
+    public Map<String, Map<String, Rule>> listAllRules() {
         logger.info("Listing all cached rules.");
         return cacheManager.getAllRules();
     }
 
+    /**
+     * Per-File Report of the Last Rule Load
+     */
+    @Operation(summary = "Last Load Report", description = "Per-file outcome and timing of the most recent rule load")
+    @GetMapping("/load-report")
+    public ResponseEntity<LoadReport> lastLoadReport() {
+        LoadReport report = cacheManager.getLastLoadReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    /**
+     * Validation Result Cache Statistics
+     */
+    @Operation(summary = "Validation Cache Stats", description = "Returns hit, miss and eviction counters of the query validation cache")
+    @GetMapping("/validation-cache")
+    public CacheStats validationCacheStats() {
+        return ruleExecutor.getValidationCacheStats();
+    }
+
+    /**
+     * Response Cache Statistics per Rule
+     */
+    @Operation(summary = "Response Cache Stats", description = "Returns hit ratio, size and eviction counters of each cached read-only rule")
+    @GetMapping("/response-cache")
+    public Map<String, CacheStats> responseCacheStats() {
+        return ruleExecutor.getResponseCacheStats();
+    }
+
     /**
      * List Rules for a Specific Table
      */
     @Operation(summary = "List Table Rules", description = "Retrieve rules for a specific table")
     @GetMapping("/list/{tableName}")
-    public Map<String, Map<String, Object>> listRulesByTable(@PathVariable String tableName) {
+    public Map<String, Rule> listRulesByTable(@PathVariable String tableName) {
         logger.info("Listing rules for table: {}", tableName);
-        Map<String, Map<String, Object>> rules = cacheManager.getAllRules(tableName);
+        Map<String, Rule> rules = cacheManager.getAllRules(tableName);
         if (rules.isEmpty()) {
             logger.warn("Table not found or no rules defined for: {}", tableName);
             throw new RuntimeException("Table not found or no rules defined.");
@@ -60,18 +104,93 @@ public class RulesApiController {
     public ResponseEntity<Object> executeRule(
             @PathVariable String tableName,
             @PathVariable String action,
-            @RequestBody Map<String, Object> inputs) {
+            @RequestBody Map<String, Object> inputs,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept) {
 
         logger.info("Executing rule for table: {}, action: {}, inputs: {}", tableName, action, inputs);
-        Map<String, Object> rule = cacheManager.getRule(tableName, action);
+        CompiledRule rule = cacheManager.getCompiledRule(tableName, action);
 
         if (rule == null) {
             logger.error("Rule not found for table: {}, action: {}", tableName, action);
             return ResponseEntity.status(404).body("Rule not found");
         }
 
-        ResponseEntity<Object> response = ruleExecutor.execute(rule, inputs);
+        // Coalescing sits outside the bulkhead, so callers sharing an execution take a single slot
+        ResultFormat resultFormat = ResultFormat.resolve(format, accept);
+        ResponseEntity<Object> response = coalescer.execute(rule, inputs, resultFormat, () -> {
+            try (Bulkhead.Permit permit = bulkheads.forRule(rule).acquire()) {
+                return ruleExecutor.execute(rule, inputs, resultFormat);
+            } catch (BulkheadRejectedException e) {
+                logger.warn("Rejected rule for table: {}, action: {}: {}", tableName, action, e.getMessage());
+                return e.response().body(e.getMessage());
+            }
+        });
         logger.info("Execution completed for table: {}, action: {}", tableName, action);
         return response;
     }
+
+    /**
+     * Execute a Rule for a Batch of Inputs
+     */
+    @Operation(summary = "Execute Rule (Batch)", description = "Execute a rule for an array of inputs in one transaction, returning per-item results")
+    @PostMapping("/{tableName}/{action}/batch")
+    public ResponseEntity<Object> executeRuleBatch(
+            @PathVariable String tableName,
+            @PathVariable String action,
+            @RequestBody List<Map<String, Object>> inputs) {
+
+        logger.info("Executing rule batch for table: {}, action: {}, items: {}", tableName, action, inputs.size());
+        CompiledRule rule = cacheManager.getCompiledRule(tableName, action);
+
+        if (rule == null) {
+            logger.error("Rule not found for table: {}, action: {}", tableName, action);
+            return ResponseEntity.status(404).body("Rule not found");
+        }
+
+        ResponseEntity<Object> response;
+        try (Bulkhead.Permit permit = bulkheads.forRule(rule).acquire()) {
+            response = ruleExecutor.executeBatch(rule, inputs);
+        } catch (BulkheadRejectedException e) {
+            logger.warn("Rejected rule batch for table: {}, action: {}: {}", tableName, action, e.getMessage());
+            return e.response().body(e.getMessage());
+        }
+        logger.info("Batch execution completed for table: {}, action: {}", tableName, action);
+        return response;
+    }
+
+    /**
+     * Execute a Rule and Stream Its Rows
+     */
+    @Operation(summary = "Execute Rule (Streaming)", description = "Execute a rule and stream SELECT rows to the response as they are read")
+    @PostMapping("/{tableName}/{action}/stream")
+    public ResponseEntity<StreamingResponseBody> executeRuleStreaming(
+            @PathVariable String tableName,
+            @PathVariable String action,
+            @RequestBody Map<String, Object> inputs,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept) {
+
+        logger.info("Executing streaming rule for table: {}, action: {}, inputs: {}", tableName, action, inputs);
+        CompiledRule rule = cacheManager.getCompiledRule(tableName, action);
+
+        if (rule == null) {
+            logger.error("Rule not found for table: {}, action: {}", tableName, action);
+            return ResponseEntity.status(404).body(outputStream -> outputStream.write("Rule not found".getBytes()));
+        }
+
+        Bulkhead.Permit permit;
+        try {
+            permit = bulkheads.forRule(rule).acquire();
+        } catch (BulkheadRejectedException e) {
+            logger.warn("Rejected streaming rule for table: {}, action: {}: {}", tableName, action, e.getMessage());
+            return e.response().body(outputStream -> outputStream.write(e.getMessage().getBytes()));
+        }
+        try {
+            return permit.holdUntilWritten(ruleExecutor.executeStreaming(rule, inputs, ResultFormat.resolve(format, accept)));
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
 }
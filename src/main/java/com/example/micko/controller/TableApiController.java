@@ -1,6 +1,7 @@
 package com.example.micko.controller;
 
 import com.example.micko.data.DatabaseService;
+import com.example.micko.rule.IndexAdvisor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -17,9 +18,11 @@ public class TableApiController {
 
     private static final Logger logger = LoggerFactory.getLogger(TableApiController.class);
     private final DatabaseService dbService;
+    private final IndexAdvisor indexAdvisor;
 
-    public TableApiController(DatabaseService dbService) {
+    public TableApiController(DatabaseService dbService, IndexAdvisor indexAdvisor) {
         this.dbService = dbService;
+        this.indexAdvisor = indexAdvisor;
     }
 
     /**
@@ -49,4 +52,13 @@ public class TableApiController {
         }
         return columns;
     }
+
+    /**
+     * Indexes Chosen or Recommended from Rule Queries
+     */
+    @Operation(summary = "Index Advice", description = "Lists the indexes the advisor created or recommends for rule queries, with the H2 plan before and after.")
+    @GetMapping("/index-advice")
+    public List<IndexAdvisor.Advice> indexAdvice() {
+        return indexAdvisor.getLastAdvice();
+    }
 }
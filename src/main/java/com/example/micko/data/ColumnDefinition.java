@@ -7,5 +7,8 @@ public class ColumnDefinition {
     private String name;
     private String type;
     private boolean secure;
+    private boolean primaryKey;
+    private boolean unique;
+    private boolean index;
 
 }
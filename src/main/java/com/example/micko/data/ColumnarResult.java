@@ -0,0 +1,17 @@
+package com.example.micko.data;
+
+import java.util.List;
+
+/**
+ * Compact SELECT result: column labels once, then one value array per row in column order.
+ */
+public record ColumnarResult(List<String> columns, List<Object[]> rows) {
+
+    public static ColumnarResult empty() {
+        return new ColumnarResult(List.of(), List.of());
+    }
+
+    public int size() {
+        return rows.size();
+    }
+}
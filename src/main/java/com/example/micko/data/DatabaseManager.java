@@ -2,28 +2,43 @@ package com.example.micko.data;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@SuppressWarnings({"unchecked"})
 public class DatabaseManager {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String SHADOW_SUFFIX = "__shadow";
+    private static final String RETIRED_SUFFIX = "__retired";
+
+    private final int batchSize;
+
+    public DatabaseManager() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public DatabaseManager(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     /**
      * Create Tables and Load Data into the Database
      */
-    public void createAndLoadTables(Connection connection, List<Map<String, Object>> tables) throws Exception {
-        for (Map<String, Object> table : tables) {
+    public void createAndLoadTables(Connection connection, List<TableDefinition> tables) throws Exception {
+        for (TableDefinition table : tables) {
             try {
-                logger.info("Processing table: {}", table.get("name"));
+                logger.info("Processing table: {}", table.getName());
                 createTable(connection, table);
                 insertData(connection, table);
             } catch (Exception e) {
-                logger.error("Error creating or loading table {}: {}", table.get("name"), e.getMessage(), e);
+                logger.error("Error creating or loading table {}: {}", table.getName(), e.getMessage(), e);
                 throw e;
             }
         }
@@ -32,28 +47,73 @@ public class DatabaseManager {
     /**
      * Create Table If Not Exists with All Data Types
      */
-    private void createTable(Connection connection, Map<String, Object> table) throws Exception {
-        String tableName = table.get("name").toString();
-        List<Map<String, String>> columns = (List<Map<String, String>>) table.get("columns");
+    public void createTable(Connection connection, TableDefinition table) throws Exception {
+        createTable(connection, table, table.getName());
+    }
+
+    /**
+     * Create a Table from a Definition Under the Given Physical Name
+     * Column {@code primaryKey} flags form a (possibly composite) primary key, {@code unique} adds a
+     * unique constraint and {@code index} a single-column index; table-level {@code indexes} add
+     * composite ones. Indexes are left unnamed so shadow and live copies never clash on names.
+     */
+    public void createTable(Connection connection, TableDefinition table, String tableName) throws Exception {
+        boolean existed = tableExists(connection, tableName);
 
         StringBuilder createQuery = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + " (");
+        List<String> primaryKey = new ArrayList<>();
 
-        for (Map<String, String> column : columns) {
-            String columnType = resolveDataType(column.get("type"));
-            createQuery.append(column.get("name")).append(" ").append(columnType).append(",");
+        for (ColumnDefinition column : table.getColumns()) {
+            String columnType = resolveDataType(column.getType());
+            createQuery.append(column.getName()).append(" ").append(columnType);
+            if (column.isUnique()) {
+                createQuery.append(" UNIQUE");
+            }
+            createQuery.append(",");
+            if (column.isPrimaryKey()) {
+                primaryKey.add(column.getName());
+            }
         }
 
+        if (!primaryKey.isEmpty()) {
+            createQuery.append("PRIMARY KEY (").append(String.join(",", primaryKey)).append("),");
+        }
         createQuery.deleteCharAt(createQuery.length() - 1).append(");");
 
         try (Statement statement = connection.createStatement()) {
             statement.execute(createQuery.toString());
             logger.info("Table {} created or already exists.", tableName);
+            if (!existed) {
+                for (String indexQuery : indexStatements(table, tableName)) {
+                    statement.execute(indexQuery);
+                    logger.info("Index created: {}", indexQuery);
+                }
+            }
         } catch (Exception e) {
             logger.error("Error creating table {}: {}", tableName, e.getMessage(), e);
             throw e;
         }
     }
-    
+
+    /**
+     * Build CREATE INDEX Statements for Column and Table Level Index Declarations
+     */
+    private List<String> indexStatements(TableDefinition table, String tableName) {
+        List<String> statements = new ArrayList<>();
+        for (ColumnDefinition column : table.getColumns()) {
+            if (column.isIndex() && !column.isPrimaryKey() && !column.isUnique()) {
+                statements.add("CREATE INDEX ON " + tableName + " (" + column.getName() + ")");
+            }
+        }
+        if (table.getIndexes() != null) {
+            for (IndexDefinition index : table.getIndexes()) {
+                statements.add("CREATE " + (index.isUnique() ? "UNIQUE " : "") + "INDEX ON " + tableName
+                        + " (" + String.join(",", index.getColumns()) + ")");
+            }
+        }
+        return statements;
+    }
+
     /**
      * Drop Table If Exists
      */
@@ -68,23 +128,166 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Name of the Shadow Table a Reload Is Built Under
+     */
+    public String shadowTableName(String tableName) {
+        return tableName + SHADOW_SUFFIX;
+    }
+
+    /**
+     * Check if a Table Is a Shadow or Retired Copy Left by an In-Flight Reload
+     */
+    public static boolean isTransientTable(String tableName) {
+        String name = tableName.toLowerCase();
+        return name.endsWith(SHADOW_SUFFIX) || name.endsWith(RETIRED_SUFFIX);
+    }
+
+    /**
+     * Create an Empty Shadow Table for a Reload, Dropping Any Leftover from an Earlier Failed Reload
+     */
+    public String createShadowTable(Connection connection, TableDefinition table) throws Exception {
+        String shadowName = shadowTableName(table.getName());
+        dropTableIfExists(connection, shadowName);
+        createTable(connection, table, shadowName);
+        return shadowName;
+    }
+
+    /**
+     * Rename the Shadow Table into Place
+     * The live table, if any, is renamed aside first and returned so the caller can drop it
+     * after releasing its table lock.
+     * @return Name of the retired table, or null when there was no live table
+     */
+    public String swapInShadowTable(Connection connection, String tableName) throws Exception {
+        String shadowName = shadowTableName(tableName);
+        String retiredName = tableName + RETIRED_SUFFIX;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + retiredName);
+            boolean hadLiveTable = tableExists(connection, tableName);
+            if (hadLiveTable) {
+                statement.execute("ALTER TABLE " + tableName + " RENAME TO " + retiredName);
+            }
+            statement.execute("ALTER TABLE " + shadowName + " RENAME TO " + tableName);
+            logger.info("Swapped shadow table {} into {}.", shadowName, tableName);
+            return hadLiveTable ? retiredName : null;
+        } catch (Exception e) {
+            logger.error("Error swapping shadow table {} into {}: {}", shadowName, tableName, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Undo {@link #swapInShadowTable}: Move the Swapped-In Table Back to Its Shadow Name and the Retired Table into Place
+     * @param retiredName Name the swap returned, or null when there was no live table before it
+     */
+    public void restoreRetiredTable(Connection connection, String tableName, String retiredName) throws Exception {
+        String shadowName = shadowTableName(tableName);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + shadowName);
+            statement.execute("ALTER TABLE " + tableName + " RENAME TO " + shadowName);
+            if (retiredName != null) {
+                statement.execute("ALTER TABLE " + retiredName + " RENAME TO " + tableName);
+            }
+            logger.info("Restored table {} from {}.", tableName, retiredName);
+        } catch (Exception e) {
+            logger.error("Error restoring table {} from {}: {}", tableName, retiredName, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Check if a Table Exists in the Current Schema
+     */
+    public boolean tableExists(Connection connection, String tableName) throws Exception {
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, tableName.toUpperCase(), new String[] {"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    /**
+     * Check if Two Definitions Produce the Same Table, Keys and Indexes
+     * Columns must match in order, name, resolved SQL type and key, unique and index flags, so {@code int}
+     * and {@code integer} compare equal; table-level indexes must match as declared, a missing list
+     * counting as empty. Anything else needs the DDL of a rebuilt table.
+     */
+    public boolean hasSameStructure(TableDefinition current, TableDefinition next) {
+        List<ColumnDefinition> currentColumns = current.getColumns();
+        List<ColumnDefinition> nextColumns = next.getColumns();
+        if (currentColumns.size() != nextColumns.size()) {
+            return false;
+        }
+        for (int i = 0; i < currentColumns.size(); i++) {
+            ColumnDefinition a = currentColumns.get(i);
+            ColumnDefinition b = nextColumns.get(i);
+            if (!a.getName().equalsIgnoreCase(b.getName())
+                    || !sqlType(a.getType()).equals(sqlType(b.getType()))
+                    || a.isPrimaryKey() != b.isPrimaryKey()
+                    || a.isUnique() != b.isUnique()
+                    || a.isIndex() != b.isIndex()) {
+                return false;
+            }
+        }
+        return indexKeys(current).equals(indexKeys(next));
+    }
+
+    private List<String> indexKeys(TableDefinition table) {
+        List<String> keys = new ArrayList<>();
+        if (table.getIndexes() != null) {
+            for (IndexDefinition index : table.getIndexes()) {
+                keys.add((index.isUnique() ? "UNIQUE " : "") + String.join(",", index.getColumns()).toLowerCase());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Start a Row-Level Diff of a Live Table Against Its Declared Key Column
+     */
+    public TableDiff beginDiff(Connection connection, TableDefinition table) throws Exception {
+        String tableName = table.getName();
+        String keyColumn = table.getKeyColumn();
+        boolean hasKeyColumn = table.getColumns().stream()
+                .anyMatch(column -> column.getName().equals(keyColumn));
+        if (!hasKeyColumn) {
+            throw new IllegalArgumentException("Key column " + keyColumn + " is not a column of table " + tableName);
+        }
+        logger.info("Diffing table {} on key column {}.", tableName, keyColumn);
+        return new TableDiff(connection, tableName, table.getColumns(), keyColumn);
+    }
+
     /**
      * Insert Data into the Table
      */
-    private void insertData(Connection connection, Map<String, Object> table) throws Exception {
-        String tableName = table.get("name").toString();
-        List<Map<String, Object>> data = (List<Map<String, Object>>) table.get("data");
+    private void insertData(Connection connection, TableDefinition table) throws Exception {
+        String tableName = table.getName();
+        List<Map<String, Object>> data = table.getData();
 
-        if (data.isEmpty()) {
+        if (data == null || data.isEmpty()) {
             logger.warn("No data provided for table {}.", tableName);
             return;
         }
 
-        Map<String, Object> firstRow = data.get(0);
+        for (int from = 0; from < data.size(); from += batchSize) {
+            insertRows(connection, tableName, data.subList(from, Math.min(from + batchSize, data.size())));
+        }
+    }
+
+    /**
+     * Insert a Chunk of Rows as One JDBC Batch
+     * Columns are taken from the first row of the chunk. The rows join the caller's transaction; the
+     * caller commits once every chunk of the table is in, so a failed load never leaves it half filled.
+     */
+    public int insertRows(Connection connection, String tableName, List<Map<String, Object>> rows) throws Exception {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<String> columnNames = List.copyOf(rows.get(0).keySet());
         StringBuilder columns = new StringBuilder();
         StringBuilder placeholders = new StringBuilder();
 
-        for (String column : firstRow.keySet()) {
+        for (String column : columnNames) {
             columns.append(column).append(",");
             placeholders.append("?,");
         }
@@ -93,19 +296,19 @@ public class DatabaseManager {
         placeholders.deleteCharAt(placeholders.length() - 1);
 
         String insertQuery = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
-        logger.info("Insert query prepared: {}", insertQuery);
+        logger.debug("Insert query prepared: {}", insertQuery);
 
         try (PreparedStatement ps = connection.prepareStatement(insertQuery)) {
-            for (Map<String, Object> row : data) {
+            for (Map<String, Object> row : rows) {
                 int index = 1;
-                for (String column : firstRow.keySet()) {
+                for (String column : columnNames) {
                     ps.setObject(index++, row.get(column));
                 }
                 ps.addBatch();
-                logger.debug("Prepared batch for row: {}", row);
             }
             int[] result = ps.executeBatch();
             logger.info("Inserted {} rows into {}.", result.length, tableName);
+            return result.length;
         } catch (Exception e) {
             logger.error("Error inserting data into table {}: {}", tableName, e.getMessage(), e);
             throw e;
@@ -117,17 +320,7 @@ public class DatabaseManager {
      */
     private String resolveDataType(String type) {
         try {
-            String resolvedType = switch (type.toLowerCase()) {
-                case "string" -> "VARCHAR(255)";
-                case "int", "integer" -> "INT";
-                case "long" -> "BIGINT";
-                case "float" -> "FLOAT";
-                case "double" -> "DOUBLE";
-                case "boolean" -> "BOOLEAN";
-                case "date" -> "DATE";
-                case "timestamp" -> "TIMESTAMP";
-                default -> throw new IllegalArgumentException("Unsupported data type: " + type);
-            };
+            String resolvedType = sqlType(type);
             logger.info("Resolved data type {} to {}", type, resolvedType);
             return resolvedType;
         } catch (Exception e) {
@@ -135,4 +328,18 @@ public class DatabaseManager {
             throw e;
         }
     }
+
+    private static String sqlType(String type) {
+        return switch (type.toLowerCase()) {
+            case "string" -> "VARCHAR(255)";
+            case "int", "integer" -> "INT";
+            case "long" -> "BIGINT";
+            case "float" -> "FLOAT";
+            case "double" -> "DOUBLE";
+            case "boolean" -> "BOOLEAN";
+            case "date" -> "DATE";
+            case "timestamp" -> "TIMESTAMP";
+            default -> throw new IllegalArgumentException("Unsupported data type: " + type);
+        };
+    }
 }
@@ -1,5 +1,11 @@
 package com.example.micko.data;
 
+import com.example.micko.cache.CacheMetrics;
+import com.example.micko.cache.CacheStats;
+import com.example.micko.cache.LruCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
@@ -7,13 +13,22 @@ import jakarta.persistence.Tuple;
 import jakarta.persistence.TupleElement;
 import jakarta.transaction.Transactional;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -27,9 +42,41 @@ public class DatabaseService {
     private EntityManager entityManager;
     
     private final DataSource dataSource;
+    private final TableVersions tableVersions;
+    private final MeterRegistry meterRegistry;
+    private final LruCache<String, SqlStatement> statementCache;
+    private final int fetchSize;
+    private final int batchChunkSize;
 
-    public DatabaseService(DataSource dataSource) {
+    public DatabaseService(DataSource dataSource,
+                           TableVersions tableVersions,
+                           MeterRegistry meterRegistry,
+                           @Value("${micko.statement-cache.max-entries:256}") int statementCacheSize,
+                           @Value("${micko.query.fetch-size:1000}") int fetchSize,
+                           @Value("${micko.rule.batch.chunk-size:1000}") int batchChunkSize) {
         this.dataSource = dataSource;
+        this.tableVersions = tableVersions;
+        this.statementCache = new LruCache<>(statementCacheSize);
+        this.fetchSize = fetchSize;
+        this.batchChunkSize = batchChunkSize;
+        this.meterRegistry = meterRegistry;
+        CacheMetrics.register(meterRegistry, "statement", Tags.empty(), this, DatabaseService::getStatementCacheStats);
+    }
+
+    /**
+     * Get the Parsed Form of a SQL Statement
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public SqlStatement getStatement(String sql) {
+        return lookupStatement(sql);
+    }
+
+    /**
+     * Statement Cache Hit, Miss and Eviction Counters
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public CacheStats getStatementCacheStats() {
+        return statementCache.stats();
     }
 
 
@@ -49,13 +96,43 @@ public class DatabaseService {
         return executeSelectQuery(query, Map.of("tableName", tableName.toUpperCase()));
     }
 
+    /**
+     * List Primary Key and Unique Constraint Columns of a Table
+     */
+    public List<Map<String, Object>> listTableConstraints(String tableName) {
+        String query = "SELECT tc.CONSTRAINT_NAME, tc.CONSTRAINT_TYPE, kcu.COLUMN_NAME "
+                + "FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc "
+                + "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu "
+                + "ON tc.CONSTRAINT_SCHEMA = kcu.CONSTRAINT_SCHEMA AND tc.CONSTRAINT_NAME = kcu.CONSTRAINT_NAME "
+                + "WHERE tc.TABLE_NAME = :tableName AND tc.CONSTRAINT_TYPE IN ('PRIMARY KEY', 'UNIQUE') "
+                + "ORDER BY tc.CONSTRAINT_NAME, kcu.ORDINAL_POSITION";
+        return executeSelectQuery(query, Map.of("tableName", tableName.toUpperCase()));
+    }
+
+    /**
+     * List Secondary Index Columns of a Table, Excluding Indexes Backing Constraints
+     */
+    public List<Map<String, Object>> listTableIndexes(String tableName) {
+        String query = "SELECT i.INDEX_NAME, i.INDEX_TYPE_NAME, ic.COLUMN_NAME "
+                + "FROM INFORMATION_SCHEMA.INDEXES i "
+                + "JOIN INFORMATION_SCHEMA.INDEX_COLUMNS ic "
+                + "ON i.INDEX_SCHEMA = ic.INDEX_SCHEMA AND i.INDEX_NAME = ic.INDEX_NAME "
+                + "WHERE i.TABLE_NAME = :tableName AND i.INDEX_TYPE_NAME IN ('INDEX', 'UNIQUE INDEX') "
+                + "AND i.INDEX_NAME NOT IN (SELECT INDEX_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                + "WHERE TABLE_NAME = :tableName AND INDEX_NAME IS NOT NULL) "
+                + "ORDER BY i.INDEX_NAME, ic.ORDINAL_POSITION";
+        return executeSelectQuery(query, Map.of("tableName", tableName.toUpperCase()));
+    }
+
     /**
      * Execute DML Queries (INSERT, UPDATE, DELETE)
      */
     public Map<String, Object> executeDmlQuery(String query, Map<String, Object> params) {
         try {
+            SqlStatement statement = lookupStatement(query);
             Query nativeQuery = entityManager.createNativeQuery(query);
-            setQueryParameters(nativeQuery, query, params);
+            setQueryParameters(nativeQuery, statement, params);
+            tableVersions.bumpAfterCompletion(statement.tables());
             int rowsAffected = nativeQuery.executeUpdate();
             logger.info("DML Query executed successfully: {} | Rows affected: {}", query, rowsAffected);
             return Map.of("rowsAffected", rowsAffected);
@@ -68,51 +145,224 @@ public class DatabaseService {
         }
     }
 
+    /**
+     * Execute One DML Query for Many Parameter Sets as a JDBC Batch
+     * Runs on the connection bound to the surrounding transaction, so the whole batch commits or
+     * rolls back with it. Statements are sent in chunks of the configured batch chunk size.
+     * @return Rows affected per parameter set, in input order
+     */
+    public int[] executeDmlBatch(String query, List<Map<String, Object>> paramSets) throws SQLException {
+        SqlStatement statement = lookupStatement(query);
+        int[] rowsAffected = new int[paramSets.size()];
+        tableVersions.bumpAfterCompletion(statement.tables());
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement(statement.jdbcSql())) {
+            int chunkStart = 0;
+            for (int i = 0; i < paramSets.size(); i++) {
+                statement.bind(ps, paramSets.get(i));
+                ps.addBatch();
+                if ((i + 1) % batchChunkSize == 0 || i == paramSets.size() - 1) {
+                    int[] counts = ps.executeBatch();
+                    System.arraycopy(counts, 0, rowsAffected, chunkStart, counts.length);
+                    chunkStart = i + 1;
+                }
+            }
+            logger.info("DML Batch executed successfully: {} | Parameter sets: {}", query, paramSets.size());
+            return rowsAffected;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
     /**
      * Execute SELECT Queries
+     * @throws QueryExecutionException If the query cannot be bound or executed
      */
     public List<Map<String, Object>> executeSelectQuery(String query, Map<String, Object> params) {
         try {
             Query nativeQuery = entityManager.createNativeQuery(query, Tuple.class);
-            setQueryParameters(nativeQuery, query, params);
+            setQueryParameters(nativeQuery, lookupStatement(query), params);
             List<Tuple> results = nativeQuery.getResultList();
             logger.info("Select Query executed successfully: {} | Rows fetched: {}", query, results.size());
             return mapTupleResults(results);
         } catch (IllegalArgumentException e) {
             logger.error("Parameter Error: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            throw new QueryExecutionException(e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Query Execution Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Execute SELECT Queries Returning a Columnar Result
+     * @throws QueryExecutionException If the query cannot be bound or executed
+     */
+    public ColumnarResult executeSelectQueryColumnar(String query, Map<String, Object> params) {
+        try {
+            Query nativeQuery = entityManager.createNativeQuery(query, Tuple.class);
+            setQueryParameters(nativeQuery, lookupStatement(query), params);
+            List<Tuple> results = nativeQuery.getResultList();
+            logger.info("Select Query executed successfully: {} | Rows fetched: {}", query, results.size());
+            return mapTupleColumnar(results);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parameter Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(e.getMessage(), e);
         } catch (Exception e) {
             logger.error("Query Execution Error: {}", e.getMessage(), e);
-            return Collections.emptyList();
+            throw new QueryExecutionException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Stream SELECT Rows as JSON
+     * Rows are read from the JDBC ResultSet with the configured fetch size and written to the
+     * generator one at a time, so memory stays flat regardless of the number of rows.
+     * ROWS writes an array of objects; COLUMNAR writes {"columns": [...], "rows": [[...], ...]}.
+     * @return Number of rows written
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public long streamSelectQuery(String query, Map<String, Object> params, ResultFormat format,
+                                  JsonGenerator generator) throws SQLException, IOException {
+        return streamSelectQuery(query, params, format, generator, () -> { });
+    }
+
+    /**
+     * Stream SELECT Rows as JSON, Calling {@code onExecuted} Once the Query Has Run and Before Any Row Is Written
+     * H2 computes a query's full result when it executes (lazy execution is off), so callers can release
+     * table locks there instead of holding them while a slow client reads the response.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public long streamSelectQuery(String query, Map<String, Object> params, ResultFormat format,
+                                  JsonGenerator generator, Runnable onExecuted) throws SQLException, IOException {
+        SqlStatement statement = lookupStatement(query);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            try (PreparedStatement ps = connection.prepareStatement(
+                    statement.jdbcSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                statement.bind(ps, params);
+
+                try (ResultSet resultSet = ps.executeQuery()) {
+                    onExecuted.run();
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    String[] labels = new String[metaData.getColumnCount()];
+                    for (int i = 0; i < labels.length; i++) {
+                        labels[i] = metaData.getColumnLabel(i + 1);
+                    }
+
+                    boolean columnar = format == ResultFormat.COLUMNAR;
+                    if (columnar) {
+                        generator.writeStartObject();
+                        generator.writeFieldName("columns");
+                        generator.writeArray(labels, 0, labels.length);
+                        generator.writeFieldName("rows");
+                    }
+
+                    long rows = 0;
+                    generator.writeStartArray();
+                    while (resultSet.next()) {
+                        if (columnar) {
+                            generator.writeStartArray();
+                            for (int i = 0; i < labels.length; i++) {
+                                generator.writeObject(resultSet.getObject(i + 1));
+                            }
+                            generator.writeEndArray();
+                        } else {
+                            generator.writeStartObject();
+                            for (int i = 0; i < labels.length; i++) {
+                                generator.writeFieldName(labels[i]);
+                                generator.writeObject(resultSet.getObject(i + 1));
+                            }
+                            generator.writeEndObject();
+                        }
+                        if (++rows % fetchSize == 0) {
+                            generator.flush();
+                        }
+                    }
+                    generator.writeEndArray();
+                    if (columnar) {
+                        generator.writeEndObject();
+                    }
+                    logger.info("Select Query streamed successfully: {} | Rows streamed: {}", query, rows);
+                    return rows;
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives Rows Read by {@link #forEachRow}
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(Map<String, Object> row) throws IOException;
+    }
+
+    /**
+     * Read SELECT Rows One at a Time on a Read-Only Connection
+     * Each row map is keyed by column label in select order and handed over before the next row is read.
+     * @return Number of rows read
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public long forEachRow(String query, Map<String, Object> params, RowHandler handler) throws SQLException, IOException {
+        return forEachRow(query, params, handler, () -> { });
+    }
+
+    /**
+     * Read SELECT Rows One at a Time, Calling {@code onExecuted} Once the Query Has Run and Before the First Row
+     * As with {@link #streamSelectQuery(String, Map, ResultFormat, JsonGenerator, Runnable)}, the result is
+     * complete at that point, so table locks can be released before the rows are handed over.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public long forEachRow(String query, Map<String, Object> params, RowHandler handler,
+                           Runnable onExecuted) throws SQLException, IOException {
+        SqlStatement statement = lookupStatement(query);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            try (PreparedStatement ps = connection.prepareStatement(
+                    statement.jdbcSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                statement.bind(ps, params);
+                try (ResultSet resultSet = ps.executeQuery()) {
+                    onExecuted.run();
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    String[] labels = new String[metaData.getColumnCount()];
+                    for (int i = 0; i < labels.length; i++) {
+                        labels[i] = metaData.getColumnLabel(i + 1);
+                    }
+                    long rows = 0;
+                    while (resultSet.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 0; i < labels.length; i++) {
+                            row.put(labels[i], resultSet.getObject(i + 1));
+                        }
+                        handler.handle(row);
+                        rows++;
+                    }
+                    return rows;
+                }
+            }
         }
     }
 
     /**
      * Set Query Parameters
      */
-    private void setQueryParameters(Query query, String sql, Map<String, Object> params) {
-        List<String> expectedParams = extractQueryParameters(sql);
-        for (String param : expectedParams) {
+    private void setQueryParameters(Query query, SqlStatement statement, Map<String, Object> params) {
+        for (String param : statement.parameterNames()) {
             if (!params.containsKey(param)) {
                 throw new IllegalArgumentException("Missing required parameter: " + param);
             }
-        }
-        for (Map.Entry<String, Object> param : params.entrySet()) {
-            if (expectedParams.contains(param.getKey())) {
-                query.setParameter(param.getKey(), param.getValue());
-            }
+            query.setParameter(param, params.get(param));
         }
     }
 
     /**
-     * Extract Named Parameters from Query
+     * Look Up the Parsed Statement for SQL Text, Parsing It Once on a Miss
      */
-    private List<String> extractQueryParameters(String query) {
-        return query.lines()
-                .flatMap(line -> java.util.regex.Pattern.compile(":(\\w+)").matcher(line).results())
-                .map(match -> match.group(1))
-                .distinct()
-                .toList();
+    private SqlStatement lookupStatement(String sql) {
+        return statementCache.computeIfAbsent(sql, SqlStatement::parse);
     }
 
     /**
@@ -128,32 +378,51 @@ public class DatabaseService {
         }).collect(Collectors.toList());
     }
 
- 
-    
-    
+    /**
+     * Map Tuple Results to a Shared Header Plus One Value Array per Row
+     */
+    private ColumnarResult mapTupleColumnar(List<Tuple> results) {
+        if (results.isEmpty()) {
+            return ColumnarResult.empty();
+        }
+        List<String> columns = results.get(0).getElements().stream()
+                .map(TupleElement::getAlias)
+                .toList();
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (Tuple tuple : results) {
+            rows.add(tuple.toArray());
+        }
+        return new ColumnarResult(columns, rows);
+    }
+
     /**
      * Execute Custom SQL Query Supporting DML (Insert, Update, Delete) and Select
      * @param query Custom SQL query
      * @return Query result or number of affected rows
      */
     public Object executeCustomQuery(String query) {
-        if (isDmlQuery(query)) {
+        return executeCustomQuery(query, ResultFormat.ROWS);
+    }
+
+    /**
+     * Execute Custom SQL Query with the Requested SELECT Result Format
+     * @param query Custom SQL query
+     * @param format Shape of SELECT results
+     * @return Query result or number of affected rows
+     */
+    public Object executeCustomQuery(String query, ResultFormat format) {
+        SqlStatement statement = lookupStatement(query);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (statement.dml()) {
+            tableVersions.bumpAfterCompletion(statement.tables());
             int rowsAffected = entityManager.createNativeQuery(query).executeUpdate();
+            sample.stop(meterRegistry.timer("micko.query.custom", "kind", "dml"));
             return Map.of("rowsAffected", rowsAffected);
         } else {
             Query nativeQuery = entityManager.createNativeQuery(query, Tuple.class);
             List<Tuple> results = nativeQuery.getResultList();
-            return mapTupleResults(results);
+            sample.stop(meterRegistry.timer("micko.query.custom", "kind", "select"));
+            return format == ResultFormat.COLUMNAR ? mapTupleColumnar(results) : mapTupleResults(results);
         }
     }
-
-    /**
-     * Check if Query is DML (Insert, Update, Delete)
-     * @param query SQL query string
-     * @return true if DML, false otherwise
-     */
-    private boolean isDmlQuery(String query) {
-        String queryType = query.trim().split("\\s+")[0].toUpperCase();
-        return Set.of("INSERT", "UPDATE", "DELETE").contains(queryType);
-    }
 }
@@ -0,0 +1,12 @@
+package com.example.micko.data;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class IndexDefinition {
+    private List<String> columns;
+    private boolean unique;
+
+}
@@ -0,0 +1,151 @@
+package com.example.micko.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC execution of compiled statements, used by rules instead of the JPA path in
+ * {@link DatabaseService}. SELECTs join the surrounding transaction when there is one, so they see its
+ * writes; otherwise they run on a read-only connection in auto-commit mode, so no transaction is opened.
+ * DML runs as a single auto-committed statement. Results have the same shape and
+ * error handling as the JPA methods, so the two paths are interchangeable: a failed SELECT throws
+ * {@link QueryExecutionException}, a failed DML returns an {@code error} entry.
+ */
+@Service
+public class JdbcQueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcQueryExecutor.class);
+
+    private final DataSource dataSource;
+    private final TableVersions tableVersions;
+
+    public JdbcQueryExecutor(DataSource dataSource, TableVersions tableVersions) {
+        this.dataSource = dataSource;
+        this.tableVersions = tableVersions;
+    }
+
+    /**
+     * Execute a SELECT, Returning One Map per Row
+     */
+    public List<Map<String, Object>> executeSelect(SqlStatement statement, Map<String, Object> params) {
+        Connection connection = readConnection();
+        try (PreparedStatement ps = connection.prepareStatement(statement.jdbcSql())) {
+            statement.bind(ps, params);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                String[] labels = labels(resultSet.getMetaData());
+                List<Map<String, Object>> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    Map<String, Object> row = new HashMap<>();
+                    for (int i = 0; i < labels.length; i++) {
+                        row.put(labels[i], resultSet.getObject(i + 1));
+                    }
+                    rows.add(row);
+                }
+                logger.info("Select Query executed successfully: {} | Rows fetched: {}", statement.sql(), rows.size());
+                return rows;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Parameter Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Query Execution Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(String.valueOf(e.getMessage()), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Execute a SELECT, Returning a Columnar Result
+     */
+    public ColumnarResult executeSelectColumnar(SqlStatement statement, Map<String, Object> params) {
+        Connection connection = readConnection();
+        try (PreparedStatement ps = connection.prepareStatement(statement.jdbcSql())) {
+            statement.bind(ps, params);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                String[] labels = labels(resultSet.getMetaData());
+                List<Object[]> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    Object[] row = new Object[labels.length];
+                    for (int i = 0; i < labels.length; i++) {
+                        row[i] = resultSet.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+                logger.info("Select Query executed successfully: {} | Rows fetched: {}", statement.sql(), rows.size());
+                return rows.isEmpty() ? ColumnarResult.empty() : new ColumnarResult(List.of(labels), rows);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Parameter Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Query Execution Error: {}", e.getMessage(), e);
+            throw new QueryExecutionException(String.valueOf(e.getMessage()), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Connection for a SELECT: the surrounding transaction's, so a query sees the transaction's own writes,
+     * or a pooled connection marked read-only outside a transaction
+     */
+    private Connection readConnection() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        if (!DataSourceUtils.isConnectionTransactional(connection, dataSource)) {
+            try {
+                connection.setReadOnly(true);
+            } catch (SQLException e) {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+                throw new QueryExecutionException(String.valueOf(e.getMessage()), e);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Execute a Single DML Statement in Its Own Auto-Committed Transaction
+     */
+    public Map<String, Object> executeDml(SqlStatement statement, Map<String, Object> params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(statement.jdbcSql())) {
+            connection.setAutoCommit(true);
+            statement.bind(ps, params);
+            int rowsAffected;
+            try {
+                rowsAffected = ps.executeUpdate();
+            } finally {
+                tableVersions.bump(statement.tables());
+            }
+            logger.info("DML Query executed successfully: {} | Rows affected: {}", statement.sql(), rowsAffected);
+            return Map.of("rowsAffected", rowsAffected);
+        } catch (IllegalArgumentException e) {
+            logger.error("Parameter Error: {}", e.getMessage(), e);
+            return Map.of("error", e.getMessage());
+        } catch (Exception e) {
+            logger.error("DML Execution Error: {}", e.getMessage(), e);
+            return Map.of("error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private String[] labels(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.micko.data;
+
+/**
+ * Thrown When a SELECT Fails to Bind or Execute
+ * Raised instead of returning an empty result, so a failure can never be mistaken for "no rows" or cached as one.
+ */
+public class QueryExecutionException extends RuntimeException {
+
+    public QueryExecutionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.micko.data;
+
+/**
+ * Shape of SELECT results: one map per row, or a shared column header plus one array per row.
+ */
+public enum ResultFormat {
+    ROWS,
+    COLUMNAR;
+
+    public static final String COLUMNAR_MEDIA_TYPE = "application/vnd.micko.columnar+json";
+
+    /**
+     * Response Content Type for Streamed Results
+     */
+    public String contentType() {
+        return this == COLUMNAR ? COLUMNAR_MEDIA_TYPE : "application/json";
+    }
+
+    /**
+     * Resolve the Format from a Request Flag or Accept Header
+     * An explicit {@code format} flag wins over content negotiation. Media types compare case-insensitively.
+     */
+    public static ResultFormat resolve(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            return "columnar".equalsIgnoreCase(format.trim()) ? COLUMNAR : ROWS;
+        }
+        if (accept != null && accept.toLowerCase().contains(COLUMNAR_MEDIA_TYPE)) {
+            return COLUMNAR;
+        }
+        return ROWS;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.micko.data;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed form of a SQL string: named parameters, statement classification, referenced tables and
+ * the positional JDBC shape ({@code ?} placeholders plus the parameter name bound at each position).
+ * Parsing happens once, so callers on the request path never re-scan the SQL text. A colon inside a
+ * single-quoted literal or a {@code ::} cast is not a parameter.
+ * Table detection is a best-effort scan of FROM/JOIN/INTO/UPDATE clauses; for DML the first table
+ * found is the one written to. Where the scan can miss a table (comma joins, quoted or otherwise
+ * non-plain names) {@code tablesComplete} is false and results must not be cached.
+ */
+public record SqlStatement(
+        String sql,
+        List<String> parameterNames,
+        boolean dml,
+        String jdbcSql,
+        List<String> parameterPositions,
+        Set<String> tables,
+        boolean tablesComplete,
+        String targetTable) {
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final Set<String> DML_KEYWORDS = Set.of("INSERT", "UPDATE", "DELETE", "MERGE");
+    private static final Pattern TABLE_PATTERN =
+            Pattern.compile("(?i)\\b(?:FROM|JOIN|INTO|UPDATE)\\s+([A-Za-z_][\\w.]*)");
+    /** A table reference, with an optional alias, followed by a comma: {@code FROM a x, b y} */
+    private static final Pattern COMMA_JOIN_PATTERN =
+            Pattern.compile("(?i)\\b(?:FROM|JOIN)\\s+[A-Za-z_][\\w.]*(?:\\s+(?:AS\\s+)?[A-Za-z_]\\w*)?\\s*,");
+    /** A table keyword followed by something other than a plain name or a subquery, such as a quoted name */
+    private static final Pattern OPAQUE_TABLE_PATTERN =
+            Pattern.compile("(?i)\\b(?:FROM|JOIN|INTO|UPDATE)\\s+(?![A-Za-z_(])\\S");
+
+    /**
+     * Parse SQL Text into a Statement
+     */
+    public static SqlStatement parse(String sql) {
+        List<String> positions = new ArrayList<>();
+        String jdbcSql = toJdbcSql(sql, positions);
+
+        List<String> names = positions.stream().distinct().toList();
+        boolean dml = isDml(sql);
+        return new SqlStatement(sql, names, dml, jdbcSql, List.copyOf(positions),
+                extractTables(sql), tablesComplete(sql), dml ? extractTargetTable(sql) : null);
+    }
+
+    /**
+     * Replace Each :name Parameter with ?, Collecting the Names in Order
+     * Single-quoted literals (a doubled quote inside one toggles twice) and {@code ::} casts are copied as is.
+     */
+    private static String toJdbcSql(String sql, List<String> positions) {
+        StringBuilder jdbcSql = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (c == ':' && !inLiteral) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                    jdbcSql.append("::");
+                    i += 2;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < sql.length() && isWordChar(sql.charAt(end))) {
+                    end++;
+                }
+                if (end > i + 1) {
+                    positions.add(sql.substring(i + 1, end));
+                    jdbcSql.append('?');
+                    i = end;
+                    continue;
+                }
+            }
+            jdbcSql.append(c);
+            i++;
+        }
+        return jdbcSql.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Bind Named Parameters to the Positional JDBC Shape
+     */
+    public void bind(PreparedStatement ps, Map<String, Object> params) throws SQLException {
+        for (int i = 0; i < parameterPositions.size(); i++) {
+            String param = parameterPositions.get(i);
+            if (!params.containsKey(param)) {
+                throw new IllegalArgumentException("Missing required parameter: " + param);
+            }
+            ps.setObject(i + 1, params.get(param));
+        }
+    }
+
+    /**
+     * Named Parameters That Have No Value in the Given Map, in First-Use Order
+     */
+    public List<String> missingParameters(Map<String, Object> params) {
+        return parameterNames.stream()
+                .filter(param -> !params.containsKey(param))
+                .toList();
+    }
+
+    /**
+     * Check if Statement is a Plain SELECT
+     */
+    public boolean isSelect() {
+        return !dml;
+    }
+
+    /**
+     * Extract Lower-Case Names of Referenced Tables, Without Schema Prefix
+     */
+    private static Set<String> extractTables(String sql) {
+        Set<String> tables = new TreeSet<>();
+        Matcher matcher = TABLE_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            tables.add(name.substring(name.lastIndexOf('.') + 1).toLowerCase());
+        }
+        return Collections.unmodifiableSet(tables);
+    }
+
+    /**
+     * Check That the Table Scan Cannot Have Missed a Table
+     * Errs on the side of false: a statement flagged here only loses caching.
+     */
+    private static boolean tablesComplete(String sql) {
+        return !COMMA_JOIN_PATTERN.matcher(sql).find() && !OPAQUE_TABLE_PATTERN.matcher(sql).find();
+    }
+
+    /**
+     * Extract the Lower-Case Name of the Table a DML Statement Writes To
+     */
+    private static String extractTargetTable(String sql) {
+        Matcher matcher = TABLE_PATTERN.matcher(sql);
+        if (!matcher.find()) {
+            return null;
+        }
+        String name = matcher.group(1);
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    /**
+     * Check if Query is DML (Insert, Update, Delete, Merge)
+     */
+    private static boolean isDml(String sql) {
+        String queryType = WHITESPACE_PATTERN.split(sql.trim(), 2)[0].toUpperCase();
+        return DML_KEYWORDS.contains(queryType);
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.micko.data;
 
+import com.example.micko.rule.Rule;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
 import java.util.Map;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TableDefinition {
     private String name;
     private List<ColumnDefinition> columns;
     private List<Map<String, Object>> data;
+    private List<Rule> rules;
+    private List<IndexDefinition> indexes;
+    private String reloadMode;
+    private String keyColumn;
+    private Long changeLogSequence;
 
     // Getters and Setters
 }
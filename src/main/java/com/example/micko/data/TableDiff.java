@@ -0,0 +1,210 @@
+package com.example.micko.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies a new version of a table's data as a row-level diff against the live table.
+ * A 64-bit fingerprint of every live row is read once, keyed by the declared key column; incoming rows
+ * are compared chunk by chunk and only inserts, updates (batched MERGE) and deletes are written.
+ * Both sides are normalised through the declared column type before hashing, so a JDBC {@code Timestamp}
+ * or {@code Double} and the YAML scalar for the same value produce the same fingerprint.
+ * Runs on the caller's connection and transaction; the caller commits after {@link #finish(int)}.
+ */
+public class TableDiff implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableDiff.class);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Connection connection;
+    private final String tableName;
+    private final List<String> columns;
+    private final List<String> columnTypes;
+    private final String keyColumn;
+    private final String keyType;
+    private final Map<String, LiveRow> liveFingerprints;
+    private final PreparedStatement merge;
+
+    private long inserted;
+    private long updated;
+    private long unchanged;
+
+    /** Fingerprint of a live row and its key as read from JDBC, used as-is to delete the row */
+    private record LiveRow(Object key, long fingerprint) {
+    }
+
+    public record Result(long inserted, long updated, long deleted, long unchanged) {
+
+        public long changedRows() {
+            return inserted + updated + deleted;
+        }
+    }
+
+    TableDiff(Connection connection, String tableName, List<ColumnDefinition> columns, String keyColumn) throws SQLException {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.columns = columns.stream().map(ColumnDefinition::getName).toList();
+        this.columnTypes = columns.stream().map(ColumnDefinition::getType).toList();
+        this.keyColumn = keyColumn;
+        this.keyType = columnTypes.get(this.columns.indexOf(keyColumn));
+        this.liveFingerprints = readLiveFingerprints();
+
+        String columnList = String.join(",", this.columns);
+        String placeholders = String.join(",", this.columns.stream().map(column -> "?").toList());
+        this.merge = connection.prepareStatement(
+                "MERGE INTO " + tableName + " (" + columnList + ") KEY (" + keyColumn + ") VALUES (" + placeholders + ")");
+    }
+
+    /**
+     * Compare a Chunk of Incoming Rows and Merge the New or Changed Ones
+     */
+    public void apply(List<Map<String, Object>> rows) throws SQLException {
+        int batched = 0;
+        for (Map<String, Object> row : rows) {
+            LiveRow live = liveFingerprints.remove(normalize(row.get(keyColumn), keyType));
+            long incoming = fingerprint(columns.stream().map(row::get).toArray());
+            if (live == null) {
+                inserted++;
+            } else if (live.fingerprint() != incoming) {
+                updated++;
+            } else {
+                unchanged++;
+                continue;
+            }
+            int index = 1;
+            for (String column : columns) {
+                merge.setObject(index++, row.get(column));
+            }
+            merge.addBatch();
+            batched++;
+        }
+        if (batched > 0) {
+            merge.executeBatch();
+        }
+    }
+
+    /**
+     * Delete Live Rows Whose Keys Did Not Appear in the New Data
+     */
+    public Result finish(int batchSize) throws SQLException {
+        long deleted = 0;
+        if (!liveFingerprints.isEmpty()) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + tableName + " WHERE " + keyColumn + " = ?")) {
+                int batched = 0;
+                for (LiveRow live : liveFingerprints.values()) {
+                    delete.setObject(1, live.key());
+                    delete.addBatch();
+                    if (++batched % batchSize == 0) {
+                        delete.executeBatch();
+                    }
+                }
+                delete.executeBatch();
+                deleted = liveFingerprints.size();
+            }
+            liveFingerprints.clear();
+        }
+        Result result = new Result(inserted, updated, deleted, unchanged);
+        logger.info("Diff applied to {}: {} inserted, {} updated, {} deleted, {} unchanged.",
+                tableName, result.inserted(), result.updated(), result.deleted(), result.unchanged());
+        return result;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        merge.close();
+    }
+
+    private Map<String, LiveRow> readLiveFingerprints() throws SQLException {
+        Map<String, LiveRow> fingerprints = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM " + tableName)) {
+            Object[] values = new Object[columns.size()];
+            while (resultSet.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = resultSet.getObject(columns.get(i));
+                }
+                Object key = resultSet.getObject(keyColumn);
+                fingerprints.put(normalize(key, keyType), new LiveRow(key, fingerprint(values)));
+            }
+        }
+        logger.debug("Read {} live row fingerprints from {}.", fingerprints.size(), tableName);
+        return fingerprints;
+    }
+
+    /**
+     * FNV-1a Hash over the Normalised Textual Form of Every Declared Column
+     */
+    private long fingerprint(Object[] values) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int column = 0; column < values.length; column++) {
+            String value = Objects.requireNonNullElse(normalize(values[column], columnTypes.get(column)), "\u0000");
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= FNV_PRIME;
+            }
+            hash ^= 0x1f;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Canonical Text of a Value for Its Declared Column Type, Whether It Came from JDBC or YAML
+     * Numbers compare by value ({@code 1}, {@code 1.0}), dates and timestamps by their ISO form
+     * ({@code 2024-01-05 10:00:00.0}, {@code 2024-01-05T10:00}). Values that do not parse are kept as text.
+     */
+    static String normalize(Object value, String type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return switch (type.toLowerCase()) {
+                case "int", "integer", "long", "float", "double" ->
+                        new BigDecimal(value.toString().trim()).stripTrailingZeros().toPlainString();
+                case "boolean" -> value instanceof Boolean ? value.toString() : value.toString().trim().toLowerCase();
+                case "date" -> switch (value) {
+                    case java.sql.Date date -> date.toLocalDate().toString();
+                    case LocalDate date -> date.toString();
+                    default -> LocalDate.parse(value.toString().trim()).toString();
+                };
+                case "timestamp" -> switch (value) {
+                    case Timestamp timestamp -> timestamp.toLocalDateTime().toString();
+                    case LocalDateTime dateTime -> dateTime.toString();
+                    case OffsetDateTime dateTime -> dateTime.toLocalDateTime().toString();
+                    default -> parseTimestamp(value.toString().trim()).toString();
+                };
+                default -> value.toString();
+            };
+        } catch (RuntimeException e) {
+            return value.toString();
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String text) {
+        String iso = text.replace(' ', 'T');
+        try {
+            return LocalDateTime.parse(iso);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(iso).toLocalDateTime();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.micko.data;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-table read/write locks. Rule executions hold the read lock of every table they touch; a reload
+ * holds the write lock only for the few milliseconds it takes to rename a shadow table into place.
+ * A separate per-table commit lock orders writers among themselves: DML holds it from execution until
+ * its change log entry is appended, so entries are logged in the order their writes committed.
+ * A per-table load lock is held by the rule loader for the whole of a table's load, so two files
+ * declaring the same table never build it at once.
+ */
+@Component
+public class TableLocks {
+
+    private final Map<String, ReentrantReadWriteLock> locks = new ConcurrentHashMap<>();
+    private final Map<String, Lock> commitLocks = new ConcurrentHashMap<>();
+    private final Map<String, Lock> loadLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Acquire Read Locks in Name Order, So Concurrent Callers Never Deadlock
+     */
+    public List<Lock> acquireReadLocks(Collection<String> tableNames) {
+        List<Lock> acquired = new ArrayList<>(tableNames.size());
+        for (String tableName : new TreeSet<>(tableNames)) {
+            Lock lock = lockFor(tableName).readLock();
+            lock.lock();
+            acquired.add(lock);
+        }
+        return acquired;
+    }
+
+    /**
+     * Acquire Load Locks in Name Order, So Files Loading in Parallel Never Deadlock
+     * Independent of the read/write locks: a load takes a table's write lock only briefly, while holding this one.
+     */
+    public List<Lock> acquireLoadLocks(Collection<String> tableNames) {
+        List<Lock> acquired = new ArrayList<>(tableNames.size());
+        for (String tableName : new TreeSet<>(tableNames)) {
+            Lock lock = loadLocks.computeIfAbsent(tableName.toLowerCase(), k -> new ReentrantLock());
+            lock.lock();
+            acquired.add(lock);
+        }
+        return acquired;
+    }
+
+    /**
+     * Release Locks in Reverse Acquisition Order
+     */
+    public void release(List<Lock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    /**
+     * Release Callback That Only Releases the First Time It Runs
+     * Must run on the thread that acquired the locks.
+     */
+    public Runnable releaser(List<Lock> acquired) {
+        boolean[] released = new boolean[1];
+        return () -> {
+            if (!released[0]) {
+                released[0] = true;
+                release(acquired);
+            }
+        };
+    }
+
+    public Lock writeLock(String tableName) {
+        return lockFor(tableName).writeLock();
+    }
+
+    /**
+     * Lock Serialising a Table's DML Commits with Their Change Log Appends
+     * Taken after the read locks, and only for the one table a statement writes to. The rule loader holds
+     * it, without any read lock, while it diffs a live table and replays its change log.
+     */
+    public Lock commitLock(String tableName) {
+        return commitLocks.computeIfAbsent(tableName.toLowerCase(), k -> new ReentrantLock(true));
+    }
+
+    private ReentrantReadWriteLock lockFor(String tableName) {
+        return locks.computeIfAbsent(tableName.toLowerCase(), k -> new ReentrantReadWriteLock(true));
+    }
+}
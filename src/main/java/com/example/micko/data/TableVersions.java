@@ -0,0 +1,68 @@
+package com.example.micko.data;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-table change counters used to invalidate cached query results. Every write bumps the
+ * versions of the tables it touches; a write whose tables cannot be determined bumps a global epoch
+ * that is part of every stamp. Versions only ever grow, so a stamp taken before a read no longer
+ * matches once any of its tables has been written.
+ */
+@Component
+public class TableVersions {
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * Current Stamp for a Set of Tables
+     */
+    public long stamp(Collection<String> tableNames) {
+        long stamp = epoch.get();
+        for (String tableName : tableNames) {
+            stamp += versionOf(tableName).get();
+        }
+        return stamp;
+    }
+
+    /**
+     * Bump the Versions of the Given Tables, or the Global Epoch When None Are Known
+     */
+    public void bump(Collection<String> tableNames) {
+        if (tableNames.isEmpty()) {
+            epoch.incrementAndGet();
+            return;
+        }
+        for (String tableName : tableNames) {
+            versionOf(tableName).incrementAndGet();
+        }
+    }
+
+    /**
+     * Bump Once the Surrounding Transaction Completes
+     * Bumping on rollback as well is harmless and covers reads that saw uncommitted rows.
+     */
+    public void bumpAfterCompletion(Collection<String> tableNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(tableNames);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bump(tableNames);
+            }
+        });
+    }
+
+    private AtomicLong versionOf(String tableName) {
+        return versions.computeIfAbsent(tableName.toLowerCase(), k -> new AtomicLong());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.micko.parser;
 
+import com.example.micko.rule.LoadReport;
 import com.example.micko.rule.RuleCacheManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,8 +26,12 @@ public class AutoRefreshService {
     public void autoRefreshFromS3() {
         logger.info("Starting automatic refresh from S3...");
         try {
-            cacheManager.loadRules();
-            logger.info("Auto-refresh completed successfully.");
+            LoadReport report = cacheManager.loadRules();
+            if (report.failureCount() > 0) {
+                logger.warn("Auto-refresh completed with {} failed file(s).", report.failureCount());
+            } else {
+                logger.info("Auto-refresh completed successfully.");
+            }
         } catch (Exception e) {
             logger.error("Auto-refresh failed: {}", e.getMessage(), e);
         }
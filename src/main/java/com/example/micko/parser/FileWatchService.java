@@ -0,0 +1,126 @@
+package com.example.micko.parser;
+
+import com.example.micko.rule.LoadReport;
+import com.example.micko.rule.RuleCacheManager;
+import com.example.micko.storage.LocalStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push Reload for the {@code local} Profile
+ * Watches the local storage folder and reloads only the YAML files that changed, once events have been
+ * quiet for {@code micko.watch.debounce-ms}, so an editor's save burst or an export's temp-file rename
+ * triggers a single reload. Files written by the application's own exports are recorded by digest when
+ * written, so their events only re-hash the file and never reload its tables. Lost events (overflow) fall
+ * back to a full reload; the scheduled poll in {@link AutoRefreshService} keeps running as a safety net.
+ */
+@Service
+@Profile("local")
+public class FileWatchService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileWatchService.class);
+
+    private final RuleCacheManager cacheManager;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    public FileWatchService(RuleCacheManager cacheManager, LocalStorageService storageService,
+                            @Value("${micko.watch.enabled:true}") boolean enabled,
+                            @Value("${micko.watch.debounce-ms:200}") long debounceMillis) {
+        this.cacheManager = cacheManager;
+        this.debounceMillis = debounceMillis;
+        if (!enabled) {
+            this.watchService = null;
+            this.watcher = null;
+            return;
+        }
+        Path folder = storageService.getFolderPath();
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch folder: " + folder, e);
+        }
+        this.watcher = Thread.ofPlatform().name("micko-file-watcher").daemon().start(this::watchLoop);
+        logger.info("Watching {} for rule file changes.", folder);
+    }
+
+    /**
+     * Collect Changed File Names Until Events Go Quiet, Then Reload Them
+     */
+    private void watchLoop() {
+        Set<String> pending = new LinkedHashSet<>();
+        boolean overflow = false;
+        long quietAt = 0;
+        try {
+            while (true) {
+                long waitMillis = pending.isEmpty() && !overflow
+                        ? Long.MAX_VALUE
+                        : Math.max(0, quietAt - System.currentTimeMillis());
+                WatchKey key = waitMillis == Long.MAX_VALUE
+                        ? watchService.take()
+                        : watchService.poll(waitMillis, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else if (event.context() instanceof Path path && path.toString().endsWith(".yaml")) {
+                            pending.add(path.getFileName().toString());
+                        }
+                    }
+                    if (!key.reset()) {
+                        logger.warn("Watched folder is no longer accessible; relying on scheduled refresh.");
+                        return;
+                    }
+                    quietAt = System.currentTimeMillis() + debounceMillis;
+                    continue;
+                }
+
+                reload(pending, overflow);
+                pending.clear();
+                overflow = false;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("File watcher stopped.");
+        }
+    }
+
+    private void reload(Set<String> fileKeys, boolean overflow) {
+        try {
+            LoadReport report = overflow ? cacheManager.loadRules() : cacheManager.reloadFiles(fileKeys);
+            if (report.failureCount() > 0) {
+                logger.warn("Watch reload of {} completed with {} failed file(s).", overflow ? "all files" : fileKeys, report.failureCount());
+            } else {
+                logger.info("Watch reload of {} completed in {} ms.", overflow ? "all files" : fileKeys, report.durationMillis());
+            }
+        } catch (Exception e) {
+            logger.error("Watch reload failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (watchService != null) {
+            watchService.close();
+            watcher.join();
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.micko.parser;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 public class YamlParser {
@@ -14,6 +21,14 @@ public class YamlParser {
     public YamlParser() {
         this.yamlMapper = new YAMLMapper(new YAMLFactory());
     }
+
+    /**
+     * Receives Rows of a Table's Data Section in Bounded Chunks
+     */
+    @FunctionalInterface
+    public interface DataChunkHandler {
+        void handle(int tableIndex, List<Map<String, Object>> rows) throws Exception;
+    }
  
     
     /**
@@ -29,6 +44,50 @@ public class YamlParser {
         }
     }
     
+    /**
+     * Writes One Row of a Table's Data Section
+     */
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(Map<String, Object> row) throws IOException;
+    }
+
+    /**
+     * Produces a Table's Rows into a {@link RowWriter}
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void writeRows(RowWriter writer) throws Exception;
+    }
+
+    /**
+     * Stream a Single-Table YAML Document
+     * Entries of the table map are written in order; the value under {@code data} is ignored and
+     * replaced by the rows of the source, written one at a time.
+     */
+    public void writeTableYaml(OutputStream outputStream, Map<String, Object> table, RowSource rows) throws Exception {
+        try (JsonGenerator generator = yamlMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("tables");
+            generator.writeStartArray();
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> entry : table.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                if ("data".equals(entry.getKey())) {
+                    generator.writeStartArray();
+                    rows.writeRows(generator::writeObject);
+                    generator.writeEndArray();
+                } else {
+                    generator.writeObject(entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
     /**
      * Convert Map to YAML String
      */
@@ -53,4 +112,97 @@ public class YamlParser {
         }
     }
 
+    /**
+     * Parse a YAML File into a Tree Without Materializing Table Data
+     * Every {@code tables[].data} array is skipped token by token and replaced with an empty array,
+     * so memory depends on the size of the definitions, not on the number of rows. The tree can be
+     * validated against the schema and bound to typed definitions without further conversion.
+     */
+    public ObjectNode parseYamlSkeleton(java.io.InputStream yamlFile) {
+        try (JsonParser parser = yamlMapper.getFactory().createParser(yamlFile)) {
+            ObjectNode root = yamlMapper.createObjectNode();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return root;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("tables".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    ArrayNode tables = root.putArray(field);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        tables.add(readTableSkeleton(parser));
+                    }
+                } else {
+                    root.set(field, yamlMapper.readTree(parser));
+                }
+            }
+            return root;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse YAML file", e);
+        }
+    }
+
+    /**
+     * Stream the Data Section of Every Table in Chunks
+     * Rows are read one at a time from the YAML token stream and handed over in chunks of at most
+     * {@code chunkSize}, identified by the index of their table in the {@code tables} array.
+     */
+    @SuppressWarnings("unchecked")
+    public void streamTableData(java.io.InputStream yamlFile, int chunkSize, DataChunkHandler handler) throws Exception {
+        try (JsonParser parser = yamlMapper.getFactory().createParser(yamlFile)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"tables".equals(field) || parser.currentToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int tableIndex = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String tableField = parser.currentName();
+                        parser.nextToken();
+                        if (!"data".equals(tableField) || parser.currentToken() != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        List<Map<String, Object>> chunk = new ArrayList<>(chunkSize);
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            chunk.add(yamlMapper.readValue(parser, Map.class));
+                            if (chunk.size() >= chunkSize) {
+                                handler.handle(tableIndex, chunk);
+                                chunk = new ArrayList<>(chunkSize);
+                            }
+                        }
+                        if (!chunk.isEmpty()) {
+                            handler.handle(tableIndex, chunk);
+                        }
+                    }
+                    tableIndex++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read One Table Entry, Skipping Its Data Rows
+     */
+    private ObjectNode readTableSkeleton(JsonParser parser) throws IOException {
+        ObjectNode table = yamlMapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("data".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                table.putArray(field);
+            } else {
+                table.set(field, yamlMapper.readTree(parser));
+            }
+        }
+        return table;
+    }
+
 }
@@ -0,0 +1,12 @@
+package com.example.micko.rule;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkheadDefinition {
+    private Integer maxConcurrent;    // Executions of the rule allowed to run at once
+    private Integer maxQueued;        // Executions allowed to wait for a free slot
+    private Integer queueTimeoutMs;   // Longest a queued execution waits before a 503
+}
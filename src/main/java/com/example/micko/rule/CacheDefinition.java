@@ -0,0 +1,11 @@
+package com.example.micko.rule;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CacheDefinition {
+    private Integer ttlSeconds;       // Seconds a cached response stays valid
+    private Integer maxEntries;       // Cached responses kept per rule and format
+}
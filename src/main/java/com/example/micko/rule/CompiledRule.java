@@ -0,0 +1,44 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.SqlStatement;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable execution plan for a YAML rule, built once by {@link RuleCompiler}.
+ * The original definition is kept for listing and persistence; {@code tables} lists every
+ * table the rule's queries touch. {@code cache} is null unless the rule opts into response caching.
+ * {@code concurrentValidations} is set when at least one independent query validation can overlap
+ * another query validation. {@code coalesce} is only ever set on SELECT rules.
+ */
+public record CompiledRule(
+        String tableName,
+        String action,
+        Rule definition,
+        List<CompiledValidation> validations,
+        SqlStatement executionQuery,
+        String successMessage,
+        String errorMessage,
+        Set<String> tables,
+        CacheSettings cache,
+        boolean concurrentValidations,
+        boolean coalesce) {
+
+    public record CacheSettings(long ttlSeconds, int maxEntries) {
+    }
+
+    /**
+     * Check if the Rule Only Reads Data
+     */
+    public boolean isSelect() {
+        return executionQuery != null && executionQuery.isSelect();
+    }
+
+    /**
+     * Check if Any Validation Queries the Database, So Its Outcome Can Depend on Earlier Writes
+     */
+    public boolean hasQueryValidations() {
+        return validations.stream().anyMatch(validation -> !validation.isInMemory());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.SqlStatement;
+
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, pre-resolved form of a {@link Validation}, built once at load time.
+ * {@code independent} is only ever true for query validations.
+ */
+public record CompiledValidation(
+        Validation definition,
+        Type type,
+        SqlStatement query,
+        String field,
+        Pattern pattern,
+        String expectedResult,
+        Integer minLength,
+        Integer maxLength,
+        Object minValue,
+        Object maxValue,
+        int errorStatus,
+        String errorMessage,
+        boolean independent) {
+
+    /**
+     * Check if the Validation Runs Without a Database Round Trip
+     */
+    public boolean isInMemory() {
+        return type != Type.QUERY;
+    }
+
+    public enum Type {
+        QUERY, REGEX, LENGTH, RANGE, UNSUPPORTED;
+
+        static Type of(String type) {
+            if (type == null) {
+                return UNSUPPORTED;
+            }
+            return switch (type.toLowerCase()) {
+                case "query" -> QUERY;
+                case "regex" -> REGEX;
+                case "length" -> LENGTH;
+                case "range" -> RANGE;
+                default -> UNSUPPORTED;
+            };
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.micko.rule;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionQuery {
+    private String query;             // SQL executed by the rule
+    private String successMessage;    // Message returned on success
+    private String errorMessage;      // Message returned on failure
+}
@@ -0,0 +1,331 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.ColumnDefinition;
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableDefinition;
+import com.example.micko.data.TableLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives secondary indexes from the predicates of rule queries. Every validation and execution query
+ * is scanned for equality ({@code =}, {@code IN}) and range ({@code <}, {@code >}, {@code BETWEEN})
+ * comparisons against parameters or literals in its WHERE clause; per table, equality columns followed
+ * by at most one range column form a candidate index. A WHERE clause containing OR is skipped, since
+ * its predicates need not all hold and a composite index over them would not be used. Candidates
+ * already covered by the leading columns of an existing index or key are skipped. Depending on
+ * {@code micko.index-advisor.mode} the rest are only reported ({@code suggest}, the default), created
+ * on the live tables ({@code create}), or the advisor is off.
+ */
+@Service
+public class IndexAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private static final Pattern SOURCE_PATTERN = Pattern.compile(
+            "(?i)\\b(?:FROM|JOIN|UPDATE)\\s+([A-Za-z_][\\w.]*)(?:\\s+(?:AS\\s+)?"
+                    + "(?!(?:WHERE|JOIN|ON|INNER|LEFT|RIGHT|OUTER|CROSS|GROUP|ORDER|LIMIT|SET|UNION)\\b)([A-Za-z_]\\w*))?");
+    private static final Pattern OR_PATTERN = Pattern.compile("(?i)\\bOR\\b");
+    private static final Pattern WHERE_PATTERN = Pattern.compile(
+            "(?is)\\bWHERE\\b(.*?)(?:\\bGROUP\\s+BY\\b|\\bORDER\\s+BY\\b|\\bLIMIT\\b|\\bUNION\\b|$)");
+    private static final Pattern PREDICATE_PATTERN = Pattern.compile(
+            "(?i)(?:([A-Za-z_]\\w*)\\.)?([A-Za-z_]\\w*)\\s*(<=|>=|=|<|>|\\bIN\\b|\\bBETWEEN\\b)\\s*\\(?\\s*(:\\w+|'[^']*'|-?\\d)");
+
+    /** Name prefix of indexes created by the advisor, which exports leave out of the YAML */
+    public static final String INDEX_PREFIX = "ADVISED_";
+
+    public enum Status { CREATED, SUGGESTED, EXISTING, FAILED }
+
+    public record Advice(String table, List<String> columns, List<String> rules, Status status,
+                         String planBefore, String planAfter, String error) {
+    }
+
+    record Predicate(String table, String column, boolean equality, String parameter) {
+    }
+
+    record Candidate(String table, List<String> columns, int equalityColumns) {
+    }
+
+    private final DataSource dataSource;
+    private final TableLocks tableLocks;
+    private final String mode;
+    private volatile List<Advice> lastAdvice = List.of();
+
+    public IndexAdvisor(DataSource dataSource, TableLocks tableLocks,
+                        @Value("${micko.index-advisor.mode:suggest}") String mode) {
+        this.dataSource = dataSource;
+        this.tableLocks = tableLocks;
+        this.mode = mode.toLowerCase();
+    }
+
+    /**
+     * Indexes Chosen or Recommended by the Last Run
+     */
+    public List<Advice> getLastAdvice() {
+        return lastAdvice;
+    }
+
+    /**
+     * Analyze All Rule Queries and Create or Suggest Missing Indexes
+     * @param compiledRules Rules by table and action
+     * @param tables Table definitions by name, used to resolve columns and their types
+     */
+    public List<Advice> advise(Map<String, Map<String, CompiledRule>> compiledRules, Map<String, TableDefinition> tables) {
+        if ("off".equals(mode)) {
+            return lastAdvice;
+        }
+
+        Map<String, Map<String, String>> columnTypes = columnTypes(tables);
+        Map<Candidate, List<String>> candidateRules = new LinkedHashMap<>();
+        Map<Candidate, SqlStatement> candidateQueries = new HashMap<>();
+        Map<Candidate, Map<String, Predicate>> candidateParameters = new HashMap<>();
+
+        compiledRules.values().stream().flatMap(rules -> rules.values().stream()).forEach(rule -> {
+            List<SqlStatement> queries = new ArrayList<>();
+            rule.validations().stream()
+                    .filter(validation -> validation.query() != null)
+                    .forEach(validation -> queries.add(validation.query()));
+            if (rule.executionQuery() != null) {
+                queries.add(rule.executionQuery());
+            }
+            for (SqlStatement query : queries) {
+                List<Predicate> predicates = extractPredicates(query.sql(), columnTypes);
+                for (Candidate candidate : toCandidates(predicates)) {
+                    List<String> sources = candidateRules.computeIfAbsent(candidate, k -> new ArrayList<>());
+                    String source = rule.tableName() + "." + rule.action();
+                    if (!sources.contains(source)) {
+                        sources.add(source);
+                    }
+                    candidateQueries.putIfAbsent(candidate, query);
+                    Map<String, Predicate> parameters = new HashMap<>();
+                    predicates.stream()
+                            .filter(predicate -> predicate.parameter() != null)
+                            .forEach(predicate -> parameters.putIfAbsent(predicate.parameter(), predicate));
+                    candidateParameters.putIfAbsent(candidate, parameters);
+                }
+            }
+        });
+
+        // Longer candidates first, so an index they create also covers their prefixes
+        List<Candidate> ordered = new ArrayList<>(candidateRules.keySet());
+        ordered.sort(Comparator.comparingInt((Candidate candidate) -> candidate.columns().size()).reversed());
+
+        List<Advice> advice = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (Candidate candidate : ordered) {
+                advice.add(apply(connection, candidate, candidateRules.get(candidate), candidateQueries.get(candidate),
+                        candidateParameters.get(candidate), columnTypes));
+            }
+        } catch (Exception e) {
+            logger.error("Index advisor failed: {}", e.getMessage(), e);
+        }
+
+        lastAdvice = List.copyOf(advice);
+        advice.stream()
+                .filter(item -> item.status() != Status.EXISTING)
+                .forEach(item -> logger.info("Index advice {} on {} {} for rules {}",
+                        item.status(), item.table(), item.columns(), item.rules()));
+        return lastAdvice;
+    }
+
+    /**
+     * Create or Suggest One Candidate Index, Capturing the Query Plan Before and After
+     */
+    private Advice apply(Connection connection, Candidate candidate, List<String> rules, SqlStatement query,
+                         Map<String, Predicate> parameters, Map<String, Map<String, String>> columnTypes) {
+        try {
+            if (isCovered(connection, candidate)) {
+                return new Advice(candidate.table(), candidate.columns(), rules, Status.EXISTING, null, null, null);
+            }
+            String planBefore = explain(connection, query, parameters, columnTypes);
+            if (!"create".equals(mode)) {
+                return new Advice(candidate.table(), candidate.columns(), rules, Status.SUGGESTED, planBefore, null, null);
+            }
+
+            Lock writeLock = tableLocks.writeLock(candidate.table());
+            writeLock.lock();
+            try (Statement statement = connection.createStatement()) {
+                String indexName = (INDEX_PREFIX + candidate.table() + "_" + String.join("_", candidate.columns())).toUpperCase();
+                statement.execute("CREATE INDEX IF NOT EXISTS " + indexName + " ON " + candidate.table()
+                        + " (" + String.join(",", candidate.columns()) + ")");
+            } finally {
+                writeLock.unlock();
+            }
+            String planAfter = explain(connection, query, parameters, columnTypes);
+            return new Advice(candidate.table(), candidate.columns(), rules, Status.CREATED, planBefore, planAfter, null);
+        } catch (Exception e) {
+            logger.warn("Could not apply index on {} {}: {}", candidate.table(), candidate.columns(), e.getMessage());
+            return new Advice(candidate.table(), candidate.columns(), rules, Status.FAILED, null, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Find Indexable Predicates in the WHERE Clause, Resolved to Known Table Columns
+     */
+    static List<Predicate> extractPredicates(String sql, Map<String, Map<String, String>> columnTypes) {
+        Map<String, String> aliases = new HashMap<>();
+        Matcher source = SOURCE_PATTERN.matcher(sql);
+        while (source.find()) {
+            String name = source.group(1);
+            String table = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+            if (columnTypes.containsKey(table)) {
+                aliases.put(table, table);
+                if (source.group(2) != null) {
+                    aliases.put(source.group(2).toLowerCase(), table);
+                }
+            }
+        }
+        Set<String> sourceTables = new HashSet<>(aliases.values());
+
+        List<Predicate> predicates = new ArrayList<>();
+        Matcher where = WHERE_PATTERN.matcher(sql);
+        while (where.find()) {
+            if (OR_PATTERN.matcher(where.group(1)).find()) {
+                continue;
+            }
+            Matcher predicate = PREDICATE_PATTERN.matcher(where.group(1));
+            while (predicate.find()) {
+                String column = predicate.group(2).toLowerCase();
+                String table = predicate.group(1) != null
+                        ? aliases.get(predicate.group(1).toLowerCase())
+                        : sourceTables.stream().filter(t -> columnTypes.get(t).containsKey(column)).findFirst().orElse(null);
+                if (table == null || !columnTypes.get(table).containsKey(column)) {
+                    continue;
+                }
+                String operator = predicate.group(3).toUpperCase();
+                String value = predicate.group(4);
+                boolean equality = operator.equals("=") || operator.equals("IN");
+                predicates.add(new Predicate(table, column, equality, value.startsWith(":") ? value.substring(1) : null));
+            }
+        }
+        return predicates;
+    }
+
+    /**
+     * Group Predicates per Table into Equality Columns Followed by One Range Column
+     */
+    static List<Candidate> toCandidates(List<Predicate> predicates) {
+        Map<String, List<Predicate>> byTable = new LinkedHashMap<>();
+        predicates.forEach(predicate -> byTable.computeIfAbsent(predicate.table(), k -> new ArrayList<>()).add(predicate));
+
+        List<Candidate> candidates = new ArrayList<>();
+        byTable.forEach((table, tablePredicates) -> {
+            List<String> columns = new ArrayList<>();
+            tablePredicates.stream()
+                    .filter(Predicate::equality)
+                    .map(Predicate::column)
+                    .distinct()
+                    .forEach(columns::add);
+            int equalityColumns = columns.size();
+            tablePredicates.stream()
+                    .filter(predicate -> !predicate.equality() && !columns.contains(predicate.column()))
+                    .findFirst()
+                    .ifPresent(predicate -> columns.add(predicate.column()));
+            if (!columns.isEmpty()) {
+                List<String> sorted = new ArrayList<>(columns.subList(0, equalityColumns));
+                Collections.sort(sorted);
+                sorted.addAll(columns.subList(equalityColumns, columns.size()));
+                candidates.add(new Candidate(table, List.copyOf(sorted), equalityColumns));
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * Check Whether the Leading Columns of an Existing Index Already Serve the Candidate
+     */
+    private boolean isCovered(Connection connection, Candidate candidate) throws Exception {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                        + "WHERE TABLE_NAME = ? ORDER BY INDEX_NAME, ORDINAL_POSITION")) {
+            ps.setString(1, candidate.table().toUpperCase());
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    indexes.computeIfAbsent(resultSet.getString(1), k -> new ArrayList<>())
+                            .add(resultSet.getString(2).toLowerCase());
+                }
+            }
+        }
+
+        Set<String> equality = new HashSet<>(candidate.columns().subList(0, candidate.equalityColumns()));
+        String range = candidate.columns().size() > candidate.equalityColumns()
+                ? candidate.columns().get(candidate.equalityColumns())
+                : null;
+        for (List<String> columns : indexes.values()) {
+            if (columns.size() < candidate.columns().size()) {
+                continue;
+            }
+            if (new HashSet<>(columns.subList(0, equality.size())).equals(equality)
+                    && (range == null || columns.get(equality.size()).equals(range))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * H2 Plan for a Query, Binding Each Parameter to a Neutral Value of Its Column's Type
+     */
+    private String explain(Connection connection, SqlStatement query, Map<String, Predicate> parameters,
+                           Map<String, Map<String, String>> columnTypes) {
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + query.jdbcSql())) {
+            for (int i = 0; i < query.parameterPositions().size(); i++) {
+                Predicate predicate = parameters.get(query.parameterPositions().get(i));
+                String type = predicate != null ? columnTypes.get(predicate.table()).get(predicate.column()) : null;
+                ps.setObject(i + 1, sampleValue(type));
+            }
+            try (ResultSet resultSet = ps.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        } catch (Exception e) {
+            logger.debug("Could not explain {}: {}", query.sql(), e.getMessage());
+            return null;
+        }
+    }
+
+    private Object sampleValue(String type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type.toLowerCase()) {
+            case "string" -> "";
+            case "int", "integer" -> 0;
+            case "long" -> 0L;
+            case "float", "double" -> 0.0;
+            case "boolean" -> false;
+            case "date" -> new Date(0);
+            case "timestamp" -> new Timestamp(0);
+            default -> null;
+        };
+    }
+
+    /**
+     * Lower-Case Column Name to Declared Type, per Lower-Case Table Name
+     */
+    private Map<String, Map<String, String>> columnTypes(Map<String, TableDefinition> tables) {
+        Map<String, Map<String, String>> columnTypes = new HashMap<>();
+        tables.forEach((name, table) -> {
+            Map<String, String> columns = new HashMap<>();
+            for (ColumnDefinition column : table.getColumns()) {
+                columns.put(column.getName().toLowerCase(), column.getType());
+            }
+            columnTypes.put(name.toLowerCase(), columns);
+        });
+        return columnTypes;
+    }
+}
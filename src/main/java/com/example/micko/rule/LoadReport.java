@@ -0,0 +1,39 @@
+package com.example.micko.rule;
+
+import java.util.List;
+
+/**
+ * Outcome and timing of one {@link RuleCacheManager#loadRules()} or {@link RuleCacheManager#reloadFiles} run, one entry per file.
+ */
+public record LoadReport(List<FileResult> files, long durationMillis) {
+
+    public record FileResult(
+            String fileKey,
+            List<String> tables,
+            long rowsLoaded,
+            long durationMillis,
+            boolean success,
+            boolean changed,
+            String error) {
+
+        static FileResult success(String fileKey, List<String> tables, long rowsLoaded, long durationMillis) {
+            return new FileResult(fileKey, tables, rowsLoaded, durationMillis, true, true, null);
+        }
+
+        static FileResult unchanged(String fileKey, List<String> tables, long durationMillis) {
+            return new FileResult(fileKey, tables, 0, durationMillis, true, false, null);
+        }
+
+        static FileResult failure(String fileKey, List<String> tables, long durationMillis, String error) {
+            return new FileResult(fileKey, tables, 0, durationMillis, false, true, error);
+        }
+    }
+
+    public long changedCount() {
+        return files.stream().filter(file -> file.success() && file.changed()).count();
+    }
+
+    public long failureCount() {
+        return files.stream().filter(file -> !file.success()).count();
+    }
+}
@@ -1,14 +1,17 @@
-//package com.example.micko.rule;
-//
-//import java.util.List;
-//import java.util.Map;
-//
-//public class Rule {
-//    private String action;
-//    private List<Validation> validations;
-//    private String executionQuery;
-//    private Map<String, String> transformations;
-//    private Map<String, String> triggers;
-//
-//    // Getters and Setters
-//}
+package com.example.micko.rule;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Rule {
+    private String action;
+    private List<Validation> validations;
+    private ExecutionQuery executionQuery;
+    private CacheDefinition cache;
+    private BulkheadDefinition bulkhead;
+    private Boolean coalesce;
+}
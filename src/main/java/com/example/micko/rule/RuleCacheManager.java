@@ -1,138 +1,717 @@
 package com.example.micko.rule;
 
+import com.example.micko.cache.LruCache;
 import com.example.micko.data.DatabaseManager;
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableDefinition;
+import com.example.micko.data.TableDiff;
+import com.example.micko.data.TableLocks;
+import com.example.micko.data.TableVersions;
 import com.example.micko.parser.YamlParser;
+import com.example.micko.storage.ChangeLog;
+import com.example.micko.storage.FileMetadata;
 import com.example.micko.storage.StorageService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.ValidationMessage;
 import com.networknt.schema.SpecVersion.VersionFlag;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
-@SuppressWarnings({"unchecked"})
 public class RuleCacheManager {
 
     private static final Logger logger = LoggerFactory.getLogger(RuleCacheManager.class);
+    private static final long UNCHANGED = -1L;
+    private static final int VALIDATED_DIGESTS = 1024;
 
     private final StorageService storageService;
     private final YamlParser yamlParser;
     private final DatabaseManager dbManager;
+    private final RuleCompiler ruleCompiler;
     private final DataSource dataSource;
+    private final TableLocks tableLocks;
+    private final TableVersions tableVersions;
+    private final MeterRegistry meterRegistry;
+    private final IndexAdvisor indexAdvisor;
+    private final RuleExecutor ruleExecutor;
+    private final ChangeLog changeLog;
+    private final ObjectMapper objectMapper;
     private final JsonSchema schema;
+    private final JsonSchema rowSchema;
+    private final ObjectReader tableReader;
+    private final LruCache<String, Boolean> validatedDigests = new LruCache<>(VALIDATED_DIGESTS);
+    private final int batchSize;
+    private final int parallelism;
+    private final String storageFolder;
+    private volatile LoadReport lastLoadReport;
 
-    private final Map<String, Map<String, Object>> tableCache = new ConcurrentHashMap<>();
-    private final Map<String, Map<String, Map<String, Object>>> ruleCache = new ConcurrentHashMap<>();
+    private final Map<String, TableDefinition> tableCache = new ConcurrentHashMap<>();
+    private volatile RuleSnapshot ruleSnapshot = RuleSnapshot.EMPTY;
+    private final Map<String, FileState> fileStates = new ConcurrentHashMap<>();
+    private final Lock loadLock = new ReentrantLock();
 
-    public RuleCacheManager(StorageService storageService, DataSource dataSource) {
+    public RuleCacheManager(StorageService storageService, DataSource dataSource, TableLocks tableLocks,
+                            TableVersions tableVersions, MeterRegistry meterRegistry, IndexAdvisor indexAdvisor,
+                            RuleExecutor ruleExecutor, ChangeLog changeLog, ObjectMapper objectMapper,
+                            @Value("${micko.load.batch-size:1000}") int batchSize,
+                            @Value("${micko.load.parallelism:4}") int parallelism,
+                            @Value("${micko.storage.folder:local-storage}") String storageFolder) {
         this.storageService = storageService;
         this.yamlParser = new YamlParser();
-        this.dbManager = new DatabaseManager();
+        this.dbManager = new DatabaseManager(batchSize);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.storageFolder = storageFolder;
+        this.ruleCompiler = new RuleCompiler();
         this.dataSource = dataSource;
-        this.schema = loadSchema();
+        this.tableLocks = tableLocks;
+        this.tableVersions = tableVersions;
+        this.meterRegistry = meterRegistry;
+        this.indexAdvisor = indexAdvisor;
+        this.ruleExecutor = ruleExecutor;
+        this.changeLog = changeLog;
+        this.objectMapper = objectMapper;
+        JsonNode schemaNode = loadSchemaNode();
+        JsonSchemaFactory factory = JsonSchemaFactory.getInstance(VersionFlag.V7);
+        this.schema = factory.getSchema(schemaNode);
+        this.rowSchema = factory.getSchema(((ObjectNode) schemaNode.deepCopy()).put("$ref", "#/definitions/Datum"));
+        this.tableReader = objectMapper.readerFor(TableDefinition.class);
     }
 
-    private JsonSchema loadSchema() {
+    private JsonNode loadSchemaNode() {
         try (InputStream schemaStream = new ClassPathResource("schema.json").getInputStream()) {
-            JsonSchemaFactory factory = JsonSchemaFactory.getInstance(VersionFlag.V7);
-            return factory.getSchema(schemaStream);
+            return objectMapper.readTree(schemaStream);
         } catch (Exception e) {
             throw new RuntimeException("Failed to load JSON Schema.", e);
         }
     }
 
-    private void validateSchema(JsonNode yamlData) {
+    /**
+     * Validate a Parsed File Against the Schema, Once per Distinct Content Digest
+     */
+    private void validateSchema(JsonNode yamlData, String contentDigest) {
+        if (validatedDigests.get(contentDigest) != null) {
+            return;
+        }
         Set<ValidationMessage> errors = schema.validate(yamlData);
         if (!errors.isEmpty()) {
             throw new RuntimeException("Schema validation failed: " + errors);
         }
+        validatedDigests.put(contentDigest, Boolean.TRUE);
+    }
+
+    /**
+     * Validate Streamed Data Rows Against the Schema's Row Definition
+     * The skeleton validated by {@link #validateSchema} carries no rows, so rows are checked chunk by chunk as they arrive.
+     */
+    private void validateRows(String tableName, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            Set<ValidationMessage> errors = rowSchema.validate(objectMapper.valueToTree(row));
+            if (!errors.isEmpty()) {
+                throw new RuntimeException("Schema validation failed for a row of table " + tableName + ": " + errors);
+            }
+        }
+    }
+
+    /**
+     * Load All Rule Files Concurrently
+     * Files are processed on virtual threads, at most {@code micko.load.parallelism} at a time, each on a
+     * single pooled connection, so a load never holds more than that many connections. Each table is built
+     * under a shadow name and swapped in once loaded; a failing table is rolled back and reported without
+     * discarding the file's other tables, and a failing file without blocking the others.
+     * When anything changed, the {@link IndexAdvisor} then re-checks every rule query for missing indexes.
+     */
+    public LoadReport loadRules() {
+        return loadFiles(storageService.listYamlFileMetadata(storageFolder));
+    }
+
+    /**
+     * Reload Only the Given Files, Without Listing the Rest
+     * Used when a file watcher reports changes; files that no longer exist are skipped.
+     */
+    public LoadReport reloadFiles(Collection<String> fileKeys) {
+        List<FileMetadata> files = new ArrayList<>();
+        for (String fileKey : fileKeys) {
+            FileMetadata file = storageService.readYamlFileMetadata(fileKey);
+            if (file != null) {
+                files.add(file);
+            }
+        }
+        return loadFiles(files);
+    }
+
+    /**
+     * Load a Set of Files; Loads Run One at a Time, So a Full Reload and a Watcher Reload Never Race on a File
+     */
+    private LoadReport loadFiles(List<FileMetadata> files) {
+        loadLock.lock();
+        try {
+            return loadFilesLocked(files);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private LoadReport loadFilesLocked(List<FileMetadata> files) {
+        long started = System.nanoTime();
+        Semaphore permits = new Semaphore(parallelism);
+
+        List<Future<LoadReport.FileResult>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (FileMetadata file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return loadFile(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<LoadReport.FileResult> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (Exception e) {
+                results.add(LoadReport.FileResult.failure(files.get(i).key(), List.of(), 0, e.getMessage()));
+            }
+        }
+
+        LoadReport report = new LoadReport(List.copyOf(results), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        logLoadReport(report);
+        recordLoadMetrics(report);
+        if (report.changedCount() > 0) {
+            indexAdvisor.advise(ruleSnapshot.compiledRules(), Map.copyOf(tableCache));
+            ruleExecutor.retainResponseCaches(ruleSnapshot.compiledRules());
+        }
+        lastLoadReport = report;
+        return report;
+    }
+
+    /**
+     * Load a Single Rule File, Capturing Its Outcome and Timing
+     * A file whose ETag or content digest matches the last successful load is skipped.
+     */
+    private LoadReport.FileResult loadFile(FileMetadata file) {
+        long started = System.nanoTime();
+        String fileKey = file.key();
+        List<String> tableNames = new ArrayList<>();
+        try {
+            FileState previous = fileStates.get(fileKey);
+            if (previous != null && file.eTag() != null && file.eTag().equals(previous.eTag())) {
+                logger.debug("File {} is unchanged (ETag {}).", fileKey, file.eTag());
+                return LoadReport.FileResult.unchanged(fileKey, previous.tables(), elapsedMillis(started));
+            }
+            long rows = loadFileTables(file, previous, tableNames);
+            if (rows == UNCHANGED) {
+                return LoadReport.FileResult.unchanged(fileKey, tableNames, elapsedMillis(started));
+            }
+            return LoadReport.FileResult.success(fileKey, tableNames, rows, elapsedMillis(started));
+        } catch (Exception e) {
+            logger.error("Failed to load file {}: {}", fileKey, e.getMessage(), e);
+            return LoadReport.FileResult.failure(fileKey, tableNames, elapsedMillis(started), e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch a File Once, Then Create and Load Its Tables If Its Content Changed
+     * The file is spooled to a local temporary file while its digest is computed, and both the definitions
+     * and the data rows are read from that copy, so the digest always describes the rows that were loaded
+     * even if the file changes in storage mid-load.
+     * @return Number of rows loaded, or {@link #UNCHANGED} when the content digest has not changed
+     */
+    private long loadFileTables(FileMetadata file, FileState previous, List<String> tableNames) throws Exception {
+        String fileKey = file.key();
+        Path spooled = null;
+        try {
+            String contentDigest;
+            try (InputStream yamlFile = storageService.readYamlFileIfChanged(fileKey, previous != null ? previous.eTag() : null)) {
+                if (yamlFile == null) {
+                    logger.debug("File {} is unchanged (not modified).", fileKey);
+                    fileStates.put(fileKey, previous.withETag(file.eTag()));
+                    tableNames.addAll(previous.tables());
+                    return UNCHANGED;
+                }
+                logger.info("Loading file: {} with ETag: {}", fileKey, file.eTag());
+                spooled = Files.createTempFile("micko-load-", ".yaml");
+                contentDigest = spool(yamlFile, spooled);
+            }
+
+            if (previous != null && contentDigest.equals(previous.digest())) {
+                logger.info("File {} content is unchanged (digest {}).", fileKey, contentDigest);
+                fileStates.put(fileKey, previous.withETag(file.eTag()));
+                tableNames.addAll(previous.tables());
+                return UNCHANGED;
+            }
+            return loadSpooledFile(file, spooled, contentDigest, tableNames);
+        } finally {
+            deleteQuietly(spooled);
+        }
     }
 
-    public void loadRules() {
+    /**
+     * Copy a Fetched File to Local Disk
+     * @return Hex SHA-256 digest of the copied bytes
+     */
+    private String spool(InputStream yamlFile, Path spooled) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (OutputStream outputStream = Files.newOutputStream(spooled)) {
+            new DigestInputStream(yamlFile, digest).transferTo(outputStream);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Create and Load the Tables of a Changed File from Its Spooled Copy
+     * The definitions are parsed once into a tree, validated against the schema and bound to
+     * {@link TableDefinition}s; the data rows are streamed separately.
+     * @return Number of rows loaded
+     */
+    private long loadSpooledFile(FileMetadata file, Path spooled, String contentDigest,
+                                 List<String> tableNames) throws Exception {
+        String fileKey = file.key();
+        JsonNode fileData;
+        try (InputStream yamlFile = Files.newInputStream(spooled)) {
+            fileData = yamlParser.parseYamlSkeleton(yamlFile);
+        }
+
+        validateSchema(fileData, contentDigest);
+
+        if (!fileData.has("tables")) {
+            fileStates.put(fileKey, new FileState(file.eTag(), contentDigest, List.of()));
+            return 0;
+        }
+
+        List<TableLoad> loads = new ArrayList<>();
+        Set<String> declared = new HashSet<>();
+        for (JsonNode tableNode : fileData.get("tables")) {
+            TableDefinition table = tableReader.readValue(tableNode);
+            if (!declared.add(table.getName().toLowerCase())) {
+                throw new IllegalArgumentException(
+                        "Table " + table.getName() + " is declared more than once in " + fileKey + ".");
+            }
+            tableNames.add(table.getName());
+            loads.add(new TableLoad(table));
+        }
+
+        // Tables are built under a fixed shadow name, so files declaring the same table load it in turn
+        List<Lock> loadLocks = tableLocks.acquireLoadLocks(declared);
         try (Connection connection = dataSource.getConnection()) {
-            List<String> fileKeys = storageService.listYamlFiles("local-storage");
-
-            for (String fileKey : fileKeys) {
-            	 String resourcePath = "local-storage/" + fileKey;
-                 InputStream yamlFile = getClass().getClassLoader().getResourceAsStream(resourcePath);
-
-                 if (yamlFile == null) {
-                     logger.error("File not found in resources: {}", resourcePath);
-                     continue;  // Skip the missing file
-                 }
-                 long fileTimestamp = System.currentTimeMillis();  // Use current time if no last modified time
-                 logger.info("Loading file: {} with timestamp: {}", fileKey, fileTimestamp);
-
-                List<Map<String, Object>> parsedData = yamlParser.parseYamlFiles(List.of(yamlFile));
-
-                for (Map<String, Object> fileData : parsedData) {
-                    ObjectMapper mapper = new ObjectMapper();
-                    JsonNode jsonData = mapper.valueToTree(fileData);
-                    validateSchema(jsonData);
-
-                    if (fileData.containsKey("tables")) {
-                        List<Map<String, Object>> tables = (List<Map<String, Object>>) fileData.get("tables");
-                        for (Map<String, Object> table : tables) {
-                            String tableName = (String) table.get("name");
-                            Map<String, Object> cachedTable = tableCache.get(tableName);
-
-                            if (cachedTable == null) {
-                                logger.info("Creating new table: {}", tableName);
-                                dbManager.createAndLoadTables(connection, List.of(table));
-                                table.put("timestamp", fileTimestamp);
-                                tableCache.put(tableName, table);
-                            } else {
-                                long cachedTimestamp = (long) cachedTable.getOrDefault("timestamp", 0L);
-                                if (fileTimestamp > cachedTimestamp) {
-                                    logger.info("Table {} has changed. Dropping and recreating.", tableName);
-                                    dbManager.dropTableIfExists(connection, tableName);
-                                    dbManager.createAndLoadTables(connection, List.of(table));
-                                    table.put("timestamp", fileTimestamp);
-                                    tableCache.put(tableName, table);
-                                } else {
-                                    logger.info("Table {} is up-to-date.", tableName);
-                                }
-                            }
-
-                            if (table.containsKey("rules")) {
-                                List<Map<String, Object>> rules = (List<Map<String, Object>>) table.get("rules");
-                                rules.forEach(rule -> {
-                                    String action = (String) rule.get("action");
-                                    ruleCache.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>()).put(action, rule);
-                                });
-                            }
+            try {
+                for (TableLoad load : loads) {
+                    prepareTable(connection, load);
+                }
+                loadTableData(spooled, connection, loads);
+                for (TableLoad load : loads) {
+                    if (load.failure == null) {
+                        try {
+                            swapInTable(connection, load.table.getName(), load.table, load.diff == null);
+                        } catch (Exception e) {
+                            logger.error("Failed to swap in table {}: {}", load.table.getName(), e.getMessage(), e);
+                            load.failure = e;
                         }
                     }
                 }
+            } catch (Exception e) {
+                for (TableLoad load : loads) {
+                    load.failure = Objects.requireNonNullElse(load.failure, e);
+                }
+                throw e;
+            } finally {
+                for (TableLoad load : loads) {
+                    releaseCommitLock(load);
+                    if (load.diff != null) {
+                        load.diff.close();
+                    } else if (load.failure != null) {
+                        dropShadowQuietly(connection, load.table.getName());
+                    }
+                }
+            }
+        } finally {
+            tableLocks.release(loadLocks);
+        }
+
+        List<String> failed = loads.stream()
+                .filter(load -> load.failure != null)
+                .map(load -> load.table.getName() + ": " + load.failure.getMessage())
+                .toList();
+        if (!failed.isEmpty()) {
+            // The file state is left as it was, so the next load retries the whole file
+            throw new RuntimeException("Failed to load table(s) " + failed);
+        }
+        fileStates.put(fileKey, new FileState(file.eTag(), contentDigest, List.copyOf(tableNames)));
+        return loads.stream().mapToLong(load -> load.rows).sum();
+    }
+
+    /**
+     * Load Progress of One Table of a File
+     * {@code diff} is null when the table is rebuilt in a shadow table; {@code savepoint} marks where
+     * its rows start in the file's transaction, so a failure rolls back this table alone. A diffed table
+     * holds its {@code commitLock} until that transaction ends.
+     */
+    private static final class TableLoad {
+        final TableDefinition table;
+        TableDiff diff;
+        Lock commitLock;
+        Savepoint savepoint;
+        long rows;
+        Exception failure;
+
+        TableLoad(TableDefinition table) {
+            this.table = table;
+        }
+    }
+
+    /**
+     * Start a Row-Level Diff or Create an Empty Shadow Table; a Failure Is Recorded Against the Table Alone
+     * A diff updates the live table in place, so it takes the table's commit lock first: DML on the table
+     * waits until the diff and its change log replay have committed, and never holds a row the diff needs.
+     */
+    private void prepareTable(Connection connection, TableLoad load) {
+        TableDefinition table = load.table;
+        try {
+            if (canDiff(connection, table)) {
+                load.commitLock = tableLocks.commitLock(table.getName());
+                load.commitLock.lock();
+                load.diff = dbManager.beginDiff(connection, table);
+            } else {
+                String shadowName = dbManager.createShadowTable(connection, table);
+                logger.info("Building table {} under shadow name {}.", table.getName(), shadowName);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to prepare table {}: {}", table.getName(), e.getMessage(), e);
+            load.failure = e;
+        }
+    }
+
+    /**
+     * Check if a Table Can Be Reloaded by Row-Level Diff
+     * Only tables that opt in with {@code reloadMode: diff} and a {@code keyColumn} qualify, and only while
+     * the live table exists with the same key column, columns, keys and indexes; a diff never runs DDL, so
+     * anything else is rebuilt in a shadow table.
+     */
+    private boolean canDiff(Connection connection, TableDefinition table) throws Exception {
+        if (!"diff".equalsIgnoreCase(table.getReloadMode()) || table.getKeyColumn() == null) {
+            return false;
+        }
+        String tableName = table.getName();
+        TableDefinition current = tableCache.get(tableName);
+        return current != null
+                && table.getKeyColumn().equalsIgnoreCase(current.getKeyColumn())
+                && dbManager.hasSameStructure(current, table)
+                && dbManager.tableExists(connection, tableName);
+    }
+
+    /**
+     * Swap a Fully Loaded Shadow Table into Place and Publish Its Rules
+     * Both happen under the table's write lock, so a rule execution sees either the old table and
+     * rules or the new ones, never a missing or half-loaded table. Writes logged since the file was
+     * exported are replayed into the swapped-in table before the lock is released, so a reload or
+     * restart never loses them; if the replay fails, the swap is undone and the previous table stays
+     * live. Diffed tables were updated and replayed in place, so only their rules are published.
+     */
+    private void swapInTable(Connection connection, String tableName, TableDefinition table,
+                             boolean swapShadow) throws Exception {
+        Map<String, Rule> rules = new LinkedHashMap<>();
+        Map<String, CompiledRule> compiledRules = new LinkedHashMap<>();
+        if (table.getRules() != null) {
+            for (Rule rule : table.getRules()) {
+                String action = rule.getAction();
+                rules.put(action, rule);
+                compiledRules.put(action, ruleCompiler.compile(tableName, rule));
+            }
+        }
+
+        String retiredTable;
+        Lock writeLock = tableLocks.writeLock(tableName);
+        writeLock.lock();
+        try {
+            retiredTable = swapShadow ? dbManager.swapInShadowTable(connection, tableName) : null;
+            if (swapShadow) {
+                replaySwappedTable(connection, table, retiredTable);
+            }
+            tableCache.put(tableName, table);
+            publishRules(tableName, rules, compiledRules);
+            tableVersions.bump(List.of(tableName));
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (retiredTable != null) {
+            dbManager.dropTableIfExists(connection, retiredTable);
+        }
+    }
+
+    /**
+     * Replay the Change Log into a Table Just Swapped In, in a Transaction of Its Own
+     * On failure the replay is rolled back and the swap undone, leaving the new table under its shadow name.
+     */
+    private void replaySwappedTable(Connection connection, TableDefinition table, String retiredTable) throws Exception {
+        connection.setAutoCommit(false);
+        try {
+            replayChangeLog(connection, table);
+            connection.commit();
+        } catch (Exception e) {
+            connection.rollback();
+            dbManager.restoreRetiredTable(connection, table.getName(), retiredTable);
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Re-Apply Change Log Entries Newer Than the {@code changeLogSequence} of the Loaded File
+     * Runs in the caller's transaction. An entry that no longer applies fails the table's load, since
+     * skipping it would silently drop a write that was acknowledged to its caller.
+     */
+    private void replayChangeLog(Connection connection, TableDefinition table) throws Exception {
+        String tableName = table.getName();
+        long fileSequence = Objects.requireNonNullElse(table.getChangeLogSequence(), 0L);
+        long replayed = changeLog.replay(tableName, fileSequence, entry -> {
+            SqlStatement statement = SqlStatement.parse(entry.sql());
+            try (PreparedStatement ps = connection.prepareStatement(statement.jdbcSql())) {
+                for (Map<String, Object> params : entry.params()) {
+                    statement.bind(ps, params);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            } catch (SQLException | IllegalArgumentException e) {
+                throw new IllegalStateException("Failed to replay change log entry " + entry.sequence()
+                        + " for table " + tableName + ": " + e.getMessage(), e);
+            }
+        });
+        if (replayed > 0) {
+            logger.info("Replayed {} change log entries for table {} after sequence {}.", replayed, tableName, fileSequence);
+        }
+    }
+
+    /**
+     * Replace One Table's Rules in a New Immutable Snapshot
+     */
+    private synchronized void publishRules(String tableName, Map<String, Rule> rules,
+                                           Map<String, CompiledRule> compiledRules) {
+        Map<String, Map<String, Rule>> allRules = new LinkedHashMap<>(ruleSnapshot.rules());
+        allRules.put(tableName, Collections.unmodifiableMap(rules));
+        Map<String, Map<String, CompiledRule>> allCompiled = new LinkedHashMap<>(ruleSnapshot.compiledRules());
+        allCompiled.put(tableName, Collections.unmodifiableMap(compiledRules));
+        ruleSnapshot = new RuleSnapshot(Collections.unmodifiableMap(allRules), Collections.unmodifiableMap(allCompiled));
+    }
+
+    private void dropShadowQuietly(Connection connection, String tableName) {
+        try {
+            dbManager.dropTableIfExists(connection, dbManager.shadowTableName(tableName));
+        } catch (Exception e) {
+            logger.warn("Failed to drop shadow table for {}: {}", tableName, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream the Data Sections of a File into Its Tables
+     * The spooled copy is read a second time and rows are validated and inserted in chunks of the configured
+     * batch size, so load memory stays bounded whatever the file size. All tables share the file's one connection
+     * and transaction, committed only once every row is in. A table whose rows fail is rolled back to its
+     * savepoint and skipped for the rest of the file, leaving the other tables to load; a failure to read
+     * the file itself rolls back everything. Diffed tables replay the change log in the same transaction,
+     * so a diff and its replay commit together, and a diffed table that fails keeps its previous rows.
+     * Their commit locks are released as soon as the transaction ends.
+     */
+    private void loadTableData(Path spooled, Connection connection, List<TableLoad> loads) throws Exception {
+        connection.setAutoCommit(false);
+        try (InputStream yamlFile = Files.newInputStream(spooled)) {
+            yamlParser.streamTableData(yamlFile, batchSize, (tableIndex, rows) -> {
+                TableLoad load = loads.get(tableIndex);
+                if (load.failure != null) {
+                    return;
+                }
+                runInSavepoint(connection, load, () -> {
+                    validateRows(load.table.getName(), rows);
+                    if (load.diff != null) {
+                        load.diff.apply(rows);
+                    } else {
+                        load.rows += dbManager.insertRows(connection, dbManager.shadowTableName(load.table.getName()), rows);
+                    }
+                });
+            });
+            for (TableLoad load : loads) {
+                if (load.diff != null && load.failure == null) {
+                    runInSavepoint(connection, load, () -> {
+                        load.rows = load.diff.finish(batchSize).changedRows();
+                        replayChangeLog(connection, load.table);
+                    });
+                }
             }
+            connection.commit();
         } catch (Exception e) {
-            logger.error("Failed to load YAML files: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to load YAML files.", e);
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+            loads.forEach(RuleCacheManager::releaseCommitLock);
         }
     }
 
-    public Map<String, Map<String, Object>> getAllRules(String tableName) {
-        return ruleCache.getOrDefault(tableName, Map.of());
+    private static void releaseCommitLock(TableLoad load) {
+        if (load.commitLock != null) {
+            load.commitLock.unlock();
+            load.commitLock = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TableWork {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run Work for a Table, Rolling Back to the Table's Savepoint and Recording the Failure If It Throws
+     */
+    private void runInSavepoint(Connection connection, TableLoad load, TableWork work) throws SQLException {
+        if (load.savepoint == null) {
+            load.savepoint = connection.setSavepoint();
+        }
+        try {
+            work.run();
+        } catch (Exception e) {
+            logger.error("Failed to load rows into table {}: {}", load.table.getName(), e.getMessage(), e);
+            connection.rollback(load.savepoint);
+            load.failure = e;
+        }
+    }
+
+    private void logLoadReport(LoadReport report) {
+        report.files().forEach(file -> {
+            if (!file.changed()) {
+                logger.debug("Unchanged file {} | tables: {} | {} ms", file.fileKey(), file.tables(), file.durationMillis());
+            } else if (file.success()) {
+                logger.info("Loaded file {} | tables: {} | rows: {} | {} ms",
+                        file.fileKey(), file.tables(), file.rowsLoaded(), file.durationMillis());
+            } else {
+                logger.error("Failed file {} | tables: {} | {} ms | error: {}",
+                        file.fileKey(), file.tables(), file.durationMillis(), file.error());
+            }
+        });
+        logger.info("Checked {} files ({} reloaded, {} failed) in {} ms.",
+                report.files().size(), report.changedCount(), report.failureCount(), report.durationMillis());
+    }
+
+    /**
+     * Publish Reload Timings: {@code micko.reload} Overall, {@code micko.reload.file} and {@code micko.reload.rows} per File
+     */
+    private void recordLoadMetrics(LoadReport report) {
+        meterRegistry.timer("micko.reload").record(report.durationMillis(), TimeUnit.MILLISECONDS);
+        for (LoadReport.FileResult file : report.files()) {
+            String outcome = !file.changed() ? "unchanged" : file.success() ? "loaded" : "failed";
+            meterRegistry.timer("micko.reload.file", "file", file.fileKey(), "outcome", outcome)
+                    .record(file.durationMillis(), TimeUnit.MILLISECONDS);
+            if (file.rowsLoaded() > 0) {
+                meterRegistry.counter("micko.reload.rows", "file", file.fileKey()).increment(file.rowsLoaded());
+            }
+        }
+    }
+
+    private long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    /**
+     * Immutable View of All Rules, Replaced as a Whole on Every Publish
+     */
+    private record RuleSnapshot(Map<String, Map<String, Rule>> rules,
+                                Map<String, Map<String, CompiledRule>> compiledRules) {
+
+        static final RuleSnapshot EMPTY = new RuleSnapshot(Map.of(), Map.of());
+    }
+
+    /**
+     * Last Successfully Loaded Version of a File
+     */
+    private record FileState(String eTag, String digest, List<String> tables) {
+
+        FileState withETag(String newETag) {
+            return new FileState(newETag, digest, tables);
+        }
+    }
+
+    public Map<String, Rule> getAllRules(String tableName) {
+        return ruleSnapshot.rules().getOrDefault(tableName, Map.of());
+    }
+
+    public Map<String, Map<String, Rule>> getAllRules() {
+        return ruleSnapshot.rules();
+    }
+
+    /**
+     * Definition a Table Was Last Loaded From, or Null When No Loaded File Declares It
+     */
+    public TableDefinition getTableDefinition(String tableName) {
+        return tableCache.get(tableName);
+    }
+
+    public Rule getRule(String tableName, String action) {
+        return ruleSnapshot.rules().getOrDefault(tableName, Map.of()).get(action);
+    }
+
+    /**
+     * Record a File the Application Just Wrote, So the Change It Causes in Storage Does Not Reload It
+     * Only the content digest is known to the writer: the next load sees a new ETag, reads the file, finds
+     * the digest unchanged and leaves its tables alone. A later edit changes the digest and loads as usual.
+     */
+    public void recordExport(String fileKey, String contentDigest, List<String> tables) {
+        fileStates.put(fileKey, new FileState(null, contentDigest, List.copyOf(tables)));
     }
 
-    public Map<String, Map<String, Map<String, Object>>> getAllRules() {
-        return ruleCache;
+    public LoadReport getLastLoadReport() {
+        return lastLoadReport;
     }
 
-    public Map<String, Object> getRule(String tableName, String action) {
-        return ruleCache.getOrDefault(tableName, Map.of()).get(action);
+    public CompiledRule getCompiledRule(String tableName, String action) {
+        return ruleSnapshot.compiledRules().getOrDefault(tableName, Map.of()).get(action);
     }
 }
@@ -0,0 +1,71 @@
+package com.example.micko.rule;
+
+import com.example.micko.cache.SingleFlight;
+import com.example.micko.data.ResultFormat;
+import com.example.micko.data.TableVersions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Single-Flight Execution for Rules with {@code coalesce: true}
+ * Concurrent calls of the same rule with equal inputs and result format share one execution, validations
+ * included, and all receive its response. The key holds the compiled rule itself, compared by identity, so
+ * a call after a reload never joins an execution of the previous definition; it also carries the
+ * {@link TableVersions} stamp of the rule's tables, so a call arriving after a write never joins an
+ * execution that may have read before it.
+ * Nothing outlives the execution; streaming and batch calls are never coalesced. Meters:
+ * {@code micko.rule.coalesce.executions}, {@code micko.rule.coalesce.shared} and {@code micko.rule.coalesce.in.flight}.
+ */
+@Component
+public class RuleCoalescer {
+
+    private record Key(CompiledRule rule, ResultFormat format, Map<String, Object> inputs, long stamp) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && rule == key.rule && format == key.format && stamp == key.stamp
+                    && inputs.equals(key.inputs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(rule), format, inputs, stamp);
+        }
+    }
+
+    private final SingleFlight<Key, ResponseEntity<Object>> flights = new SingleFlight<>();
+    private final TableVersions tableVersions;
+
+    public RuleCoalescer(TableVersions tableVersions, MeterRegistry registry) {
+        this.tableVersions = tableVersions;
+        FunctionCounter.builder("micko.rule.coalesce.executions", flights, SingleFlight::executions)
+                .description("Coalesced rule executions that ran")
+                .register(registry);
+        FunctionCounter.builder("micko.rule.coalesce.shared", flights, SingleFlight::shared)
+                .description("Rule calls answered by a concurrent identical execution")
+                .register(registry);
+        Gauge.builder("micko.rule.coalesce.in.flight", flights, SingleFlight::inFlight)
+                .description("Coalesced rule executions running")
+                .register(registry);
+    }
+
+    /**
+     * Run the Execution, or Share One Already Running for the Same Rule, Inputs and Format
+     */
+    public ResponseEntity<Object> execute(CompiledRule rule, Map<String, Object> inputs, ResultFormat format,
+                                          Supplier<ResponseEntity<Object>> execution) {
+        if (!rule.coalesce()) {
+            return execution.get();
+        }
+        Key key = new Key(rule, format, new HashMap<>(inputs), tableVersions.stamp(rule.tables()));
+        return flights.execute(key, execution);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.SqlStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public class RuleCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleCompiler.class);
+
+    /**
+     * Compile a YAML Rule into an Execution Plan
+     */
+    public CompiledRule compile(String tableName, Rule rule) {
+        String action = rule.getAction();
+
+        List<CompiledValidation> validations = List.of();
+        if (rule.getValidations() != null) {
+            validations = rule.getValidations().stream()
+                    .map(validation -> compileValidation(tableName, action, validation))
+                    .toList();
+        }
+
+        SqlStatement executionQuery = null;
+        String successMessage = "Operation successful.";
+        String errorMessage = "Operation failed.";
+        ExecutionQuery query = rule.getExecutionQuery();
+        if (query != null) {
+            if (query.getQuery() != null) {
+                executionQuery = SqlStatement.parse(query.getQuery());
+            }
+            successMessage = Objects.requireNonNullElse(query.getSuccessMessage(), successMessage);
+            errorMessage = Objects.requireNonNullElse(query.getErrorMessage(), errorMessage);
+        }
+
+        Set<String> tables = new TreeSet<>();
+        tables.add(tableName.toLowerCase());
+        validations.stream()
+                .filter(validation -> validation.query() != null)
+                .forEach(validation -> tables.addAll(validation.query().tables()));
+        if (executionQuery != null) {
+            tables.addAll(executionQuery.tables());
+        }
+
+        CompiledRule.CacheSettings cache = null;
+        if (rule.getCache() != null) {
+            if (executionQuery != null && executionQuery.isSelect()) {
+                CacheDefinition cacheDefinition = rule.getCache();
+                cache = new CompiledRule.CacheSettings(
+                        Objects.requireNonNullElse(cacheDefinition.getTtlSeconds(), 60),
+                        Objects.requireNonNullElse(cacheDefinition.getMaxEntries(), 1000));
+                if (!executionQuery.tablesComplete()) {
+                    logger.warn("Rule {}.{} reads tables that cannot all be determined; its results will not be cached",
+                            tableName, action);
+                }
+            } else {
+                logger.warn("Ignoring cache settings on non-SELECT rule {}.{}", tableName, action);
+            }
+        }
+
+        boolean coalesce = false;
+        if (Boolean.TRUE.equals(rule.getCoalesce())) {
+            if (executionQuery != null && executionQuery.isSelect()) {
+                coalesce = true;
+            } else {
+                logger.warn("Ignoring coalesce on non-SELECT rule {}.{}", tableName, action);
+            }
+        }
+
+        long queryValidations = validations.stream().filter(validation -> !validation.isInMemory()).count();
+        boolean concurrentValidations = queryValidations > 1
+                && validations.stream().anyMatch(CompiledValidation::independent);
+
+        CompiledRule compiled = new CompiledRule(tableName, action, rule, validations,
+                executionQuery, successMessage, errorMessage, Collections.unmodifiableSet(tables), cache,
+                concurrentValidations, coalesce);
+        logger.debug("Compiled rule {}.{}: {}", tableName, action, compiled);
+        return compiled;
+    }
+
+    /**
+     * Compile a Single Validation
+     */
+    private CompiledValidation compileValidation(String tableName, String action, Validation validation) {
+        CompiledValidation.Type type = CompiledValidation.Type.of(validation.getType());
+        if (type == CompiledValidation.Type.UNSUPPORTED) {
+            logger.warn("Unsupported validation type {} in rule {}.{}", validation.getType(), tableName, action);
+        }
+
+        SqlStatement query = validation.getQuery() != null ? SqlStatement.parse(validation.getQuery()) : null;
+
+        Pattern pattern = null;
+        if (validation.getPattern() != null) {
+            try {
+                pattern = Pattern.compile(validation.getPattern());
+            } catch (PatternSyntaxException e) {
+                logger.error("Invalid regex {} in rule {}.{}: {}", validation.getPattern(), tableName, action, e.getMessage());
+            }
+        }
+
+        int errorStatus = 400;
+        String errorMessage = "Validation failed. Check your input.";
+        if (validation.getError() != null) {
+            errorStatus = (int) validation.getError().getOrDefault("statusCode", 400);
+            errorMessage = (String) validation.getError().getOrDefault("message", "Validation failed.");
+        }
+
+        return new CompiledValidation(
+                validation,
+                type,
+                query,
+                validation.getField(),
+                pattern,
+                validation.getExpectedResult(),
+                validation.getMinLength(),
+                validation.getMaxLength(),
+                coerceBound(validation.getMinValue()),
+                coerceBound(validation.getMaxValue()),
+                errorStatus,
+                errorMessage,
+                type == CompiledValidation.Type.QUERY && Boolean.TRUE.equals(validation.getIndependent()));
+    }
+
+    /**
+     * Coerce Numeric Range Bounds to a Common Comparable Type
+     */
+    static Object coerceBound(Object bound) {
+        if (bound instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return bound;
+    }
+}
@@ -1,14 +1,52 @@
 package com.example.micko.rule;
 
+import com.example.micko.cache.CacheStats;
+import com.example.micko.cache.QueryResultCache;
 import com.example.micko.data.DatabaseService;
+import com.example.micko.data.JdbcQueryExecutor;
+import com.example.micko.data.QueryExecutionException;
+import com.example.micko.data.ResultFormat;
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableLocks;
+import com.example.micko.data.TableVersions;
+import com.example.micko.storage.ChangeLog;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Tags;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 @SuppressWarnings({"unchecked"})
 @Service
@@ -17,135 +55,642 @@ public class RuleExecutor {
     private static final Logger logger = LoggerFactory.getLogger(RuleExecutor.class);
 
     private final DatabaseService dbService;
+    private final JdbcQueryExecutor jdbcExecutor;
+    private final boolean jdbcEngine;
+    private final TableLocks tableLocks;
+    private final ObjectMapper objectMapper;
+    private final int batchMaxItems;
+    private final QueryResultCache<List<Map<String, Object>>> validationCache;
+    private final TableVersions tableVersions;
+    private final RuleMetrics ruleMetrics;
+    private final ChangeLog changeLog;
+    private final boolean concurrentValidations;
+    private final Map<ResponseCacheKey, ResponseCache> responseCaches = new ConcurrentHashMap<>();
 
-    public RuleExecutor(DatabaseService dbService) {
+    private record ResponseCacheKey(String tableName, String action, ResultFormat format) {
+    }
+
+    private record ResponseCache(CompiledRule.CacheSettings settings, QueryResultCache<Object> cache) {
+    }
+
+    public RuleExecutor(DatabaseService dbService, JdbcQueryExecutor jdbcExecutor, TableLocks tableLocks, TableVersions tableVersions,
+                        ObjectMapper objectMapper, RuleMetrics ruleMetrics, ChangeLog changeLog,
+                        @Value("${micko.rule.batch.max-items:10000}") int batchMaxItems,
+                        @Value("${micko.validation-cache.max-entries:10000}") int validationCacheSize,
+                        @Value("${micko.rule.engine:jdbc}") String engine,
+                        @Value("${micko.rule.validation.concurrent:true}") boolean concurrentValidations) {
         this.dbService = dbService;
+        this.jdbcExecutor = jdbcExecutor;
+        this.jdbcEngine = !"jpa".equalsIgnoreCase(engine);
+        this.tableLocks = tableLocks;
+        this.objectMapper = objectMapper;
+        this.batchMaxItems = batchMaxItems;
+        this.tableVersions = tableVersions;
+        this.ruleMetrics = ruleMetrics;
+        this.changeLog = changeLog;
+        this.concurrentValidations = concurrentValidations;
+        this.validationCache = validationCacheSize > 0
+                ? new QueryResultCache<>(validationCacheSize, tableVersions, 0)
+                : null;
+        ruleMetrics.registerCache("validation", Tags.empty(), this, RuleExecutor::getValidationCacheStats);
     }
 
     /**
-     * Execute a Rule from YAML
+     * Validation Result Cache Hit, Miss and Eviction Counters
      */
-    public ResponseEntity<Object> execute(Map<String, Object> rule, Map<String, Object> inputs) {
+    public CacheStats getValidationCacheStats() {
+        return validationCache != null ? validationCache.stats() : new CacheStats(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Response Cache Counters per Cached Rule and Result Format
+     */
+    public Map<String, CacheStats> getResponseCacheStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        responseCaches.forEach((key, responseCache) -> stats.put(
+                key.tableName() + "." + key.action() + ":" + key.format().name().toLowerCase(),
+                responseCache.cache().stats()));
+        return stats;
+    }
+
+    /**
+     * Drop Response Caches of Rules That No Longer Exist or No Longer Cache, After a Reload
+     * Their meters stay registered and report zeros until the rule comes back.
+     */
+    public void retainResponseCaches(Map<String, Map<String, CompiledRule>> compiledRules) {
+        responseCaches.keySet().removeIf(key -> {
+            CompiledRule rule = compiledRules.getOrDefault(key.tableName(), Map.of()).get(key.action());
+            return rule == null || rule.cache() == null;
+        });
+    }
+
+    /**
+     * Only Successful Results Are Cached; an Error Entry Must Be Recomputed on the Next Call
+     */
+    private static boolean isCacheableResult(Object result) {
+        return !(result instanceof Map<?, ?> resultMap && resultMap.containsKey("error"));
+    }
+
+    private CacheStats responseCacheStats(ResponseCacheKey key) {
+        ResponseCache responseCache = responseCaches.get(key);
+        return responseCache != null ? responseCache.cache().stats() : new CacheStats(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Execute a Compiled Rule
+     */
+    public ResponseEntity<Object> execute(CompiledRule rule, Map<String, Object> inputs) {
+        return execute(rule, inputs, ResultFormat.ROWS);
+    }
+
+    /**
+     * Execute a Compiled Rule with the Requested SELECT Result Format
+     */
+    public ResponseEntity<Object> execute(CompiledRule rule, Map<String, Object> inputs, ResultFormat format) {
         logger.info("Executing rule with inputs: {}", inputs);
+        long started = System.nanoTime();
+        String outcome = RuleMetrics.ERROR;
 
+        List<Lock> locks = tableLocks.acquireReadLocks(rule.tables());
         try {
             // Step 1: Validate Rule Inputs
-            if (rule.containsKey("validations")) {
-                List<Map<String, Object>> validations = (List<Map<String, Object>>) rule.get("validations");
-                for (Map<String, Object> validationData : validations) {
-                    Validation validation = mapToValidation(validationData);
-                    logger.debug("Performing validation: {}", validation);
-                    if (!performValidation(validation, inputs)) {
-                        logger.warn("Validation failed: {}", validation);
-                        return handleValidationError(validation);
-                    }
-                }
+            ResponseEntity<Object> validationError = validate(rule, inputs);
+            if (validationError != null) {
+                outcome = RuleMetrics.REJECTED;
+                return validationError;
             }
 
             // Step 2: Execute the Rule Action
-            if (rule.containsKey("executionQuery")) {
-                Map<String, Object> executionQuery = (Map<String, Object>) rule.get("executionQuery");
-
-                String query = (String) executionQuery.get("query");
-                String successMessage = (String) executionQuery.getOrDefault("successMessage", "Operation successful.");
-                String errorMessage = (String) executionQuery.getOrDefault("errorMessage", "Operation failed.");
-
-                logger.info("Executing query: {}", query);
-                boolean isDml = isDmlQuery(query);
-                Object result = isDml
-                    ? dbService.executeDmlQuery(query, inputs)
-                    : dbService.executeSelectQuery(query, inputs);
+            SqlStatement query = rule.executionQuery();
+            if (query != null) {
+                logger.info("Executing query: {}", query.sql());
+                long queryStarted = System.nanoTime();
+                Object result;
+                if (query.dml()) {
+                    result = executeLoggedDml(query, inputs);
+                } else if (rule.cache() != null) {
+                    result = responseCache(rule, format).get(query, inputs, () -> executeSelect(query, inputs, format),
+                            RuleExecutor::isCacheableResult);
+                } else {
+                    result = executeSelect(query, inputs, format);
+                }
+                ruleMetrics.recordQuery(rule, queryStarted);
 
                 if (result instanceof Map<?, ?> resultMap && resultMap.containsKey("error")) {
                     logger.error("Query execution failed: {}", resultMap);
-                    return ResponseEntity.status(500).body(Map.of("message", errorMessage, "details", resultMap));
+                    return ResponseEntity.status(500).body(Map.of("message", rule.errorMessage(), "details", resultMap));
                 }
 
                 logger.info("Query executed successfully: {}", result);
-                return ResponseEntity.ok(Map.of("message", successMessage, "data", result));
+                ruleMetrics.recordRows(rule, result);
+                outcome = RuleMetrics.SUCCESS;
+                return ResponseEntity.ok(Map.of("message", rule.successMessage(), "data", result));
             }
 
             logger.warn("Action not implemented for rule.");
+            outcome = RuleMetrics.NOT_IMPLEMENTED;
             return ResponseEntity.status(501).body("Action not implemented.");
 
+        } catch (QueryExecutionException e) {
+            logger.error("Query execution failed: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("message", rule.errorMessage(), "details",
+                    Map.of("error", e.getMessage())));
         } catch (Exception e) {
             logger.error("Execution error: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Internal server error.");
+        } finally {
+            tableLocks.release(locks);
+            ruleMetrics.recordExecution(rule, outcome, started);
+        }
+    }
+
+    /**
+     * Execute a Compiled Rule for Many Inputs in One Transaction
+     * Items are validated and executed in input order inside the transaction, so a query validation sees
+     * the writes of the items before it, exactly as if the items had been sent one at a time. Items that
+     * fail validation keep their configured status and message, items missing a parameter of the execution
+     * query get 400, and both are skipped. When the rule has no query validations, no item's outcome can
+     * depend on another's, and the valid DML items are sent together as a single JDBC batch.
+     * A failing item rolls back the whole transaction. A committed DML batch is written to the
+     * {@link ChangeLog} before the table locks are released, and the target table's commit lock is held
+     * from the first validation until then.
+     */
+    @Transactional
+    public ResponseEntity<Object> executeBatch(CompiledRule rule, List<Map<String, Object>> inputs) {
+        logger.info("Executing rule batch of {} items.", inputs.size());
+        if (inputs.size() > batchMaxItems) {
+            return ResponseEntity.status(413).body("Batch exceeds the limit of " + batchMaxItems + " items.");
+        }
+        SqlStatement query = rule.executionQuery();
+        if (query == null) {
+            logger.warn("Action not implemented for rule.");
+            return ResponseEntity.status(501).body("Action not implemented.");
+        }
+
+        long started = System.nanoTime();
+        String outcome = RuleMetrics.ERROR;
+        List<Lock> locks = tableLocks.acquireReadLocks(rule.tables());
+        List<Lock> commitLocks = query.dml() ? List.of(lockCommits(query)) : List.of();
+        try {
+            List<Map<String, Object>> results = new ArrayList<>(inputs.size());
+            List<Integer> validIndexes = new ArrayList<>();
+            boolean executeEachItem = !query.dml() || rule.hasQueryValidations();
+
+            long queryStarted = System.nanoTime();
+            for (int i = 0; i < inputs.size(); i++) {
+                ResponseEntity<Object> validationError = validate(rule, inputs.get(i));
+                List<String> missing = validationError == null ? query.missingParameters(inputs.get(i)) : List.of();
+                if (validationError != null) {
+                    results.add(batchItem(i, validationError.getStatusCode().value(), validationError.getBody(), null));
+                } else if (!missing.isEmpty()) {
+                    results.add(batchItem(i, 400, "Missing required parameter(s): " + String.join(", ", missing), null));
+                } else {
+                    results.add(null);
+                    validIndexes.add(i);
+                    if (executeEachItem) {
+                        executeBatchItems(rule, query, inputs, List.of(i), results);
+                    }
+                }
+            }
+            if (!executeEachItem) {
+                executeBatchItems(rule, query, inputs, validIndexes, results);
+            }
+            if (query.dml()) {
+                appendAfterCommit(query, validIndexes.stream().map(inputs::get).toList());
+            }
+            ruleMetrics.recordQuery(rule, queryStarted);
+            outcome = RuleMetrics.BATCH;
+
+            logger.info("Rule batch executed: {} succeeded, {} rejected.", validIndexes.size(),
+                    inputs.size() - validIndexes.size());
+            return ResponseEntity.ok(Map.of(
+                    "message", rule.successMessage(),
+                    "succeeded", validIndexes.size(),
+                    "failed", inputs.size() - validIndexes.size(),
+                    "results", results));
+
+        } catch (Exception e) {
+            logger.error("Batch execution error: {}", e.getMessage(), e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(500).body(Map.of("message", rule.errorMessage(), "details",
+                    Map.of("error", String.valueOf(e.getMessage()))));
+        } finally {
+            releaseAfterCompletion(commitLocks);
+            releaseAfterCompletion(locks);
+            ruleMetrics.recordExecution(rule, outcome, started);
         }
     }
 
-    private boolean performValidation(Validation validation, Map<String, Object> inputs) {
+    /**
+     * Run the Execution Query for the Given Batch Items, Recording Each Item's Result
+     * DML items go to the database as one JDBC batch on the transaction's connection; SELECT items
+     * run one by one on the configured query engine.
+     */
+    private void executeBatchItems(CompiledRule rule, SqlStatement query, List<Map<String, Object>> inputs,
+                                   List<Integer> indexes, List<Map<String, Object>> results) throws SQLException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        if (query.dml()) {
+            int[] rowsAffected = dbService.executeDmlBatch(query.sql(), indexes.stream().map(inputs::get).toList());
+            long totalAffected = 0;
+            for (int i = 0; i < rowsAffected.length; i++) {
+                int index = indexes.get(i);
+                results.set(index, batchItem(index, 200, rule.successMessage(), Map.of("rowsAffected", rowsAffected[i])));
+                totalAffected += Math.max(rowsAffected[i], 0);
+            }
+            ruleMetrics.recordRows(rule, "affected", totalAffected);
+        } else {
+            for (int index : indexes) {
+                List<Map<String, Object>> data = selectRows(query, inputs.get(index));
+                results.set(index, batchItem(index, 200, rule.successMessage(), data));
+                ruleMetrics.recordRows(rule, data);
+            }
+        }
+    }
+
+    /**
+     * Log a Batch Once Its Transaction Commits; a Rolled-Back Batch Is Never Logged
+     */
+    private void appendAfterCommit(SqlStatement query, List<Map<String, Object>> paramSets) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeLog.append(query, paramSets);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeLog.append(query, paramSets);
+            }
+        });
+    }
+
+    /**
+     * Hold Table Locks Until the Surrounding Transaction Completes
+     * An export therefore never sees a committed batch whose change log entry is still being written.
+     */
+    private void releaseAfterCompletion(List<Lock> locks) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tableLocks.release(locks);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                tableLocks.release(locks);
+            }
+        });
+    }
+
+    /**
+     * Execute a Compiled Rule, Streaming SELECT Rows Straight to the Response
+     * Validations run up front so failures still get their configured status code. The rows are read later,
+     * when the response body is written; if a write or reload has changed any of the rule's tables since
+     * the validations passed, they run again first, and a stream whose validations no longer pass fails
+     * instead of returning rows. Execution, query and row metrics cover the whole stream.
+     */
+    public ResponseEntity<StreamingResponseBody> executeStreaming(CompiledRule rule, Map<String, Object> inputs,
+                                                                  ResultFormat format) {
+        if (!rule.isSelect()) {
+            return toStreamingResponse(execute(rule, inputs, format));
+        }
+
+        logger.info("Executing streaming rule with inputs: {}", inputs);
+        long started = System.nanoTime();
+        long validatedStamp;
+        List<Lock> locks = tableLocks.acquireReadLocks(rule.tables());
         try {
-            switch (validation.getType()) {
-                case "query" -> {
-                    logger.debug("Validating query: {}", validation.getQuery());
-                    List<Map<String, Object>> results = dbService.executeSelectQuery(validation.getQuery(), inputs);
+            ResponseEntity<Object> validationError = validate(rule, inputs);
+            if (validationError != null) {
+                ruleMetrics.recordExecution(rule, RuleMetrics.REJECTED, started);
+                return toStreamingResponse(validationError);
+            }
+            validatedStamp = tableVersions.stamp(rule.tables());
+        } catch (Exception e) {
+            logger.error("Execution error: {}", e.getMessage(), e);
+            ruleMetrics.recordExecution(rule, RuleMetrics.ERROR, started);
+            return toStreamingResponse(ResponseEntity.status(500).body("Internal server error."));
+        } finally {
+            tableLocks.release(locks);
+        }
+
+        // Table locks cover only the query's execution, never the client-paced writing of its rows: a reload
+        // waiting on a slow reader would otherwise hold up every new reader of the table behind it
+        SqlStatement query = rule.executionQuery();
+        StreamingResponseBody body = outputStream -> {
+            String outcome = RuleMetrics.ERROR;
+            Runnable releaseLocks = tableLocks.releaser(tableLocks.acquireReadLocks(rule.tables()));
+            try {
+                if (tableVersions.stamp(rule.tables()) != validatedStamp && validate(rule, inputs) != null) {
+                    outcome = RuleMetrics.REJECTED;
+                    throw new IOException("Validations of " + rule.action() + " no longer pass after a concurrent write.");
+                }
+                long queryStarted = System.nanoTime();
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                    generator.writeStartObject();
+                    generator.writeStringField("message", rule.successMessage());
+                    generator.writeFieldName("data");
+                    long rows = dbService.streamSelectQuery(query.sql(), inputs, format, generator, releaseLocks);
+                    generator.writeEndObject();
+                    ruleMetrics.recordQuery(rule, queryStarted);
+                    ruleMetrics.recordRows(rule, "fetched", rows);
+                    outcome = RuleMetrics.SUCCESS;
+                }
+            } catch (SQLException e) {
+                logger.error("Streaming query failed: {}", e.getMessage(), e);
+                throw new IOException(rule.errorMessage(), e);
+            } finally {
+                releaseLocks.run();
+                ruleMetrics.recordExecution(rule, outcome, started);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(format.contentType())).body(body);
+    }
+
+    /**
+     * Run a Rule SELECT on the Configured Engine: Plain JDBC by Default, JPA When {@code micko.rule.engine=jpa}
+     */
+    private Object executeSelect(SqlStatement query, Map<String, Object> inputs, ResultFormat format) {
+        if (format == ResultFormat.COLUMNAR) {
+            return jdbcEngine
+                    ? jdbcExecutor.executeSelectColumnar(query, inputs)
+                    : dbService.executeSelectQueryColumnar(query.sql(), inputs);
+        }
+        return selectRows(query, inputs);
+    }
+
+    private List<Map<String, Object>> selectRows(SqlStatement query, Map<String, Object> inputs) {
+        return jdbcEngine
+                ? jdbcExecutor.executeSelect(query, inputs)
+                : dbService.executeSelectQuery(query.sql(), inputs);
+    }
+
+    /**
+     * Execute a Single Auto-Committed DML and Log It Under the Target Table's Commit Lock
+     * Without the lock two writers could commit in one order and be logged in the other, and a replay
+     * would then apply them out of order.
+     */
+    private Map<String, Object> executeLoggedDml(SqlStatement query, Map<String, Object> inputs) {
+        Lock commitLock = lockCommits(query);
+        try {
+            Map<String, Object> dmlResult = executeDml(query, inputs);
+            if (!dmlResult.containsKey("error")) {
+                changeLog.append(query, List.of(inputs));
+            }
+            return dmlResult;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private Lock lockCommits(SqlStatement query) {
+        Lock commitLock = tableLocks.commitLock(Objects.requireNonNullElse(query.targetTable(), ""));
+        commitLock.lock();
+        return commitLock;
+    }
+
+    private Map<String, Object> executeDml(SqlStatement query, Map<String, Object> inputs) {
+        return jdbcEngine
+                ? jdbcExecutor.executeDml(query, inputs)
+                : dbService.executeDmlQuery(query.sql(), inputs);
+    }
+
+    /**
+     * Get the Response Cache for a Rule and Format, Replacing It When the Rule's Settings Changed
+     * Entries are also invalidated by writes to any table the rule reads, including a reload.
+     */
+    private QueryResultCache<Object> responseCache(CompiledRule rule, ResultFormat format) {
+        ResponseCacheKey key = new ResponseCacheKey(rule.tableName(), rule.action(), format);
+        ResponseCache current = responseCaches.get(key);
+        if (current != null && current.settings().equals(rule.cache())) {
+            return current.cache();
+        }
+        if (current == null) {
+            ruleMetrics.registerCache("response", Tags.of("rule", key.tableName() + "." + key.action(),
+                    "format", key.format().name().toLowerCase()), this, executor -> executor.responseCacheStats(key));
+        }
+        return responseCaches.compute(key, (k, existing) ->
+                existing != null && existing.settings().equals(rule.cache())
+                        ? existing
+                        : new ResponseCache(rule.cache(), new QueryResultCache<>(rule.cache().maxEntries(),
+                                tableVersions, TimeUnit.SECONDS.toNanos(rule.cache().ttlSeconds())))).cache();
+    }
+
+    /**
+     * Run Validations, Returning the First Failure in List Order
+     */
+    private ResponseEntity<Object> validate(CompiledRule rule, Map<String, Object> inputs) {
+        long started = System.nanoTime();
+        try {
+            CompiledValidation failed = firstFailedValidation(rule, inputs);
+            if (failed == null) {
+                return null;
+            }
+            logger.warn("Validation failed: {}", failed.definition());
+            ruleMetrics.validationFailed(rule, failed);
+            return handleValidationError(failed);
+        } finally {
+            ruleMetrics.recordValidation(rule, started);
+        }
+    }
+
+    /**
+     * Find the First Failing Validation, Checking In-Memory Validations Before Any Query
+     * A failing in-memory check at position {@code n} means only the queries listed before it can still take
+     * precedence, so the rest never run. Independent queries run concurrently unless a transaction is active,
+     * since forked threads cannot share its connection.
+     */
+    private CompiledValidation firstFailedValidation(CompiledRule rule, Map<String, Object> inputs) {
+        List<CompiledValidation> validations = rule.validations();
+        int bound = validations.size();
+        for (int i = 0; i < bound; i++) {
+            CompiledValidation validation = validations.get(i);
+            if (validation.isInMemory()) {
+                logger.debug("Performing validation: {}", validation.definition());
+                if (!performValidation(validation, inputs)) {
+                    bound = i;
+                }
+            }
+        }
+
+        if (concurrentValidations && rule.concurrentValidations()
+                && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            bound = runQueryValidationsConcurrently(validations, bound, inputs);
+        } else {
+            for (int i = 0; i < bound; i++) {
+                CompiledValidation validation = validations.get(i);
+                if (!validation.isInMemory()) {
+                    logger.debug("Performing validation: {}", validation.definition());
+                    if (!performValidation(validation, inputs)) {
+                        bound = i;
+                    }
+                }
+            }
+        }
+        return bound < validations.size() ? validations.get(bound) : null;
+    }
+
+    /**
+     * Run Query Validations Listed Before {@code bound}, Forking the Independent Ones onto Virtual Threads
+     * The others run here in list order. A failure moves the bound down and cancels every fork past it;
+     * forks before it are still awaited, since they take precedence. Closing the executor waits for cancelled
+     * forks to stop, so no query outlives the caller's table locks. Returns the new bound.
+     */
+    private int runQueryValidationsConcurrently(List<CompiledValidation> validations, int bound,
+                                                Map<String, Object> inputs) {
+        Map<Integer, Future<Boolean>> forks = new HashMap<>();
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < bound; i++) {
+                CompiledValidation validation = validations.get(i);
+                if (validation.independent()) {
+                    int index = i;
+                    forks.put(index, executor.submit(() -> {
+                        try {
+                            return performValidation(validation, inputs);
+                        } finally {
+                            completed.add(index);
+                        }
+                    }));
+                }
+            }
+
+            try {
+                for (int i = 0; i < bound; i++) {
+                    CompiledValidation validation = validations.get(i);
+                    if (!validation.isInMemory() && !forks.containsKey(i) && !performValidation(validation, inputs)) {
+                        bound = i;
+                        cancelForksAfter(forks, bound);
+                    }
+                }
+
+                TreeSet<Integer> pending = new TreeSet<>(forks.keySet());
+                while (!pending.isEmpty() && pending.first() < bound) {
+                    int index = completed.take();
+                    if (pending.remove(index) && index < bound && !forkPassed(forks.get(index))) {
+                        bound = index;
+                        cancelForksAfter(forks, bound);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelForksAfter(forks, -1);
+                throw new RuntimeException("Interrupted while running validations.", e);
+            } catch (QueryExecutionException e) {
+                cancelForksAfter(forks, -1);
+                throw e;
+            }
+        }
+        return bound;
+    }
+
+    private boolean forkPassed(Future<Boolean> fork) throws InterruptedException {
+        try {
+            return fork.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueryExecutionException failure) {
+                throw failure;
+            }
+            logger.error("Validation error: {}", e.getCause().getMessage(), e.getCause());
+            return false;
+        }
+    }
+
+    private void cancelForksAfter(Map<Integer, Future<Boolean>> forks, int bound) {
+        forks.forEach((index, fork) -> {
+            if (index > bound) {
+                fork.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Wrap a Buffered Response as a Streaming Body
+     */
+    private ResponseEntity<StreamingResponseBody> toStreamingResponse(ResponseEntity<Object> response) {
+        Object body = response.getBody();
+        if (body instanceof String text) {
+            return ResponseEntity.status(response.getStatusCode())
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(outputStream -> outputStream.write(text.getBytes(StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, body));
+    }
+
+    private boolean performValidation(CompiledValidation validation, Map<String, Object> inputs) {
+        try {
+            switch (validation.type()) {
+                case QUERY -> {
+                    logger.debug("Validating query: {}", validation.query().sql());
+                    // Inside a transaction a cached result could predate the transaction's own writes
+                    List<Map<String, Object>> results = validationCache != null
+                            && !TransactionSynchronizationManager.isActualTransactionActive()
+                        ? validationCache.get(validation.query(), inputs,
+                            () -> selectRows(validation.query(), inputs))
+                        : selectRows(validation.query(), inputs);
                     if (results.isEmpty()) {
                         logger.warn("Query validation failed: no results found.");
                         return false;
                     }
                     return results.get(0).values().stream()
                         .map(Object::toString)
-                        .anyMatch(value -> value.equalsIgnoreCase(validation.getExpectedResult()));
+                        .anyMatch(value -> value.equalsIgnoreCase(validation.expectedResult()));
                 }
-                case "regex" -> {
-                    String fieldValue = (String) inputs.get(validation.getField());
-                    logger.debug("Validating regex for field: {}, value: {}", validation.getField(), fieldValue);
-                    return fieldValue.matches(validation.getPattern());
+                case REGEX -> {
+                    String fieldValue = (String) inputs.get(validation.field());
+                    logger.debug("Validating regex for field: {}, value: {}", validation.field(), fieldValue);
+                    return validation.pattern() != null && validation.pattern().matcher(fieldValue).matches();
                 }
-                case "length" -> {
-                    String fieldValue = (String) inputs.get(validation.getField());
-                    logger.debug("Validating length for field: {}, value: {}", validation.getField(), fieldValue);
-                    return fieldValue.length() >= validation.getMinLength() &&
-                           fieldValue.length() <= validation.getMaxLength();
+                case LENGTH -> {
+                    String fieldValue = (String) inputs.get(validation.field());
+                    logger.debug("Validating length for field: {}, value: {}", validation.field(), fieldValue);
+                    return fieldValue.length() >= validation.minLength() &&
+                           fieldValue.length() <= validation.maxLength();
                 }
-                case "range" -> {
-                    Comparable<Object> value = (Comparable<Object>) inputs.get(validation.getField());
-                    logger.debug("Validating range for field: {}, value: {}", validation.getField(), value);
-                    return value.compareTo(validation.getMinValue()) >= 0 &&
-                           value.compareTo(validation.getMaxValue()) <= 0;
+                case RANGE -> {
+                    Object input = inputs.get(validation.field());
+                    logger.debug("Validating range for field: {}, value: {}", validation.field(), input);
+                    Comparable<Object> value = (Comparable<Object>) (input instanceof Number number
+                        ? new BigDecimal(number.toString())
+                        : input);
+                    return value.compareTo(validation.minValue()) >= 0 &&
+                           value.compareTo(validation.maxValue()) <= 0;
                 }
                 default -> {
-                    logger.warn("Unsupported validation type: {}", validation.getType());
+                    logger.warn("Unsupported validation type: {}", validation.definition().getType());
                     return false;
                 }
             }
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Neither passed nor failed; a fork's caller discards it, any other caller must not report a failure
+                logger.debug("Validation cancelled: {}", validation.definition());
+                throw new CancellationException("Validation cancelled: " + validation.definition());
+            }
+            if (e instanceof QueryExecutionException failure) {
+                // A validation that could not run has neither passed nor failed; surface it as an error
+                throw failure;
+            }
             logger.error("Validation error: {}", e.getMessage(), e);
             return false;
         }
     }
 
-    private ResponseEntity<Object> handleValidationError(Validation validation) {
-        if (validation.getError() != null) {
-            int statusCode = (int) validation.getError().getOrDefault("statusCode", 400);
-            String message = (String) validation.getError().getOrDefault("message", "Validation failed.");
-            logger.warn("Validation error: {}, status: {}", message, statusCode);
-            return ResponseEntity.status(statusCode).body(message);
+    private Map<String, Object> batchItem(int index, int status, Object message, Object data) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        item.put("status", status);
+        item.put("message", message);
+        if (data != null) {
+            item.put("data", data);
         }
-        logger.warn("Validation failed with no error message defined.");
-        return ResponseEntity.badRequest().body("Validation failed. Check your input.");
-    }
-
-    private boolean isDmlQuery(String query) {
-        String queryType = query.trim().split("\\s+")[0].toUpperCase();
-        logger.debug("Determined query type: {}", queryType);
-        return Set.of("INSERT", "UPDATE", "DELETE").contains(queryType);
+        return item;
     }
 
-    private Validation mapToValidation(Map<String, Object> validationData) {
-        Validation validation = new Validation();
-        validation.setType((String) validationData.get("type"));
-        validation.setQuery((String) validationData.get("query"));
-        validation.setField((String) validationData.get("field"));
-        validation.setPattern((String) validationData.get("pattern"));
-        validation.setExpectedResult((String) validationData.get("expectedResult"));
-        validation.setMinLength((Integer) validationData.get("minLength"));
-        validation.setMaxLength((Integer) validationData.get("maxLength"));
-        validation.setMinValue(validationData.get("minValue"));
-        validation.setMaxValue(validationData.get("maxValue"));
-        validation.setError((Map<String, Object>) validationData.get("error"));
-        logger.debug("Mapped validation: {}", validation);
-        return validation;
+    private ResponseEntity<Object> handleValidationError(CompiledValidation validation) {
+        logger.warn("Validation error: {}, status: {}", validation.errorMessage(), validation.errorStatus());
+        return ResponseEntity.status(validation.errorStatus()).body(validation.errorMessage());
     }
 }
@@ -0,0 +1,118 @@
+package com.example.micko.rule;
+
+import com.example.micko.cache.CacheMetrics;
+import com.example.micko.cache.CacheStats;
+import com.example.micko.data.ColumnarResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micrometer meters for rule executions, all tagged by table and action:
+ * <ul>
+ *   <li>{@code micko.rule.execution} - end-to-end latency, also tagged by outcome</li>
+ *   <li>{@code micko.rule.validation} - time spent in validations</li>
+ *   <li>{@code micko.rule.query} - time spent in the execution query</li>
+ *   <li>{@code micko.rule.validation.failures} - failed validations, also tagged by validation type</li>
+ *   <li>{@code micko.rule.rows} - rows fetched or affected per execution</li>
+ * </ul>
+ */
+@Component
+public class RuleMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+    public static final String NOT_IMPLEMENTED = "not_implemented";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry registry;
+
+    public RuleMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Publish a Cache's Counters Under {@code micko.cache.*}
+     */
+    public <T> void registerCache(String cacheName, Tags tags, T owner, Function<T, CacheStats> stats) {
+        CacheMetrics.register(registry, cacheName, tags, owner, stats);
+    }
+
+    /**
+     * Record End-to-End Execution Time
+     */
+    public void recordExecution(CompiledRule rule, String outcome, long startedNanos) {
+        Timer.builder("micko.rule.execution")
+                .description("Rule execution latency")
+                .tags("table", rule.tableName(), "action", rule.action(), "outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record Time Spent Running a Rule's Validations
+     */
+    public void recordValidation(CompiledRule rule, long startedNanos) {
+        Timer.builder("micko.rule.validation")
+                .description("Rule validation latency")
+                .tags("table", rule.tableName(), "action", rule.action())
+                .register(registry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record Time Spent Running a Rule's Execution Query
+     */
+    public void recordQuery(CompiledRule rule, long startedNanos) {
+        Timer.builder("micko.rule.query")
+                .description("Rule execution query latency")
+                .tags("table", rule.tableName(), "action", rule.action())
+                .register(registry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a Failed Validation
+     */
+    public void validationFailed(CompiledRule rule, CompiledValidation validation) {
+        registry.counter("micko.rule.validation.failures",
+                "table", rule.tableName(),
+                "action", rule.action(),
+                "type", validation.type().name().toLowerCase()).increment();
+    }
+
+    /**
+     * Record Rows Fetched or Affected, Derived from a Query Result
+     */
+    public void recordRows(CompiledRule rule, Object result) {
+        long rows;
+        String kind = "fetched";
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof ColumnarResult columnar) {
+            rows = columnar.size();
+        } else if (result instanceof Map<?, ?> map && map.get("rowsAffected") instanceof Number affected) {
+            rows = affected.longValue();
+            kind = "affected";
+        } else {
+            return;
+        }
+        recordRows(rule, kind, rows);
+    }
+
+    public void recordRows(CompiledRule rule, String kind, long rows) {
+        DistributionSummary.builder("micko.rule.rows")
+                .description("Rows fetched or affected per rule execution")
+                .tags("table", rule.tableName(), "action", rule.action(), "kind", kind)
+                .register(registry)
+                .record(rows);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.micko.rule;
 
 import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Validation {
+    private String name;              // Optional label for the validation
     private String type;              // "query", "regex", "length", "range"
     private String query;             // SQL query for DB validation
     private String field;             // Field to validate
@@ -14,6 +18,7 @@ public class Validation {
     private Object minValue;          // Min value for range validation
     private Object maxValue;          // Max value for range validation
     private Map<String, Object> error; // Custom error message if validation fails
+    private Boolean independent;      // Query validation may run concurrently with other validations
 
     // Getters and Setters
 }
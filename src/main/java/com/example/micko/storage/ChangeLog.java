@@ -0,0 +1,425 @@
+package com.example.micko.storage;
+
+import com.example.micko.data.SqlStatement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-Only Log of DML Rule Executions
+ * Writes made since a table was last exported survive a crash: when a table is loaded, every logged
+ * entry newer than the {@code changeLogSequence} recorded in its file is applied again. This is a redo
+ * log, not a write-ahead log: an entry is appended after its write has committed, and the rule call
+ * only succeeds once the entry is on disk, so a crash in between loses a write its caller never saw
+ * succeed.
+ * Appends are handed to a single writer thread that drains everything pending into one write and
+ * one fsync (group commit), so concurrent requests share the cost of a sync. Each entry is one line,
+ * the CRC-32 of its JSON payload followed by the payload, so a torn tail is detected and ignored.
+ * The log is split into segment files named by their first sequence number; {@link #rotate()} starts
+ * a new segment and {@link #truncate(long)} drops segments every table has been exported past.
+ */
+@Component
+public class ChangeLog implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+    private static final String SEGMENT_PREFIX = "changelog-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * One Logged DML Execution: the Statement and One Parameter Set per Executed Row of a Batch
+     */
+    public record Entry(long sequence, String table, String sql, List<Map<String, Object>> params) {
+    }
+
+    @FunctionalInterface
+    public interface EntryHandler {
+        void apply(Entry entry) throws Exception;
+    }
+
+    private record Pending(String table, String sql, List<Map<String, Object>> params, CompletableFuture<Long> done) {
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int maxGroupSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Map<String, Long> dirtyTables = new ConcurrentHashMap<>();
+    private final Object segmentLock = new Object();
+    private final Timer syncTimer;
+    private final DistributionSummary groupSizes;
+    private final Thread writer;
+    private FileChannel channel;
+    private volatile long lastSequence;
+    private volatile boolean running = true;
+
+    public ChangeLog(MeterRegistry meterRegistry,
+                     @Value("${micko.changelog.enabled:true}") boolean enabled,
+                     @Value("${micko.changelog.directory:changelog}") String directory,
+                     @Value("${micko.changelog.max-group-size:1024}") int maxGroupSize) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.syncTimer = meterRegistry.timer("micko.changelog.sync");
+        this.groupSizes = meterRegistry.summary("micko.changelog.group.size");
+        if (!enabled) {
+            this.writer = null;
+            return;
+        }
+        try {
+            Files.createDirectories(this.directory);
+            this.lastSequence = recover();
+            openSegment(lastSequence + 1);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open change log in " + this.directory, e);
+        }
+        this.writer = Thread.ofPlatform().name("micko-changelog").daemon().start(this::writeLoop);
+        logger.info("Change log opened in {} at sequence {}.", this.directory, lastSequence);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sequence Number of the Last Durable Entry
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Tables with Logged Entries Not Yet Covered by an Export
+     */
+    public Set<String> dirtyTables() {
+        return Set.copyOf(dirtyTables.keySet());
+    }
+
+    /**
+     * Log an Executed DML Statement, Returning Once the Entry Is on Disk
+     * Only the statement's own parameters are logged, one set per executed row.
+     * @return Sequence number of the entry, or 0 when nothing was logged
+     */
+    public long append(SqlStatement statement, List<Map<String, Object>> paramSets) {
+        if (!enabled || paramSets.isEmpty()) {
+            return 0;
+        }
+        if (statement.targetTable() == null) {
+            logger.warn("Not logging statement without a target table: {}", statement.sql());
+            return 0;
+        }
+        if (!running) {
+            throw new IllegalStateException("Change log is closed.");
+        }
+
+        List<Map<String, Object>> params = new ArrayList<>(paramSets.size());
+        for (Map<String, Object> paramSet : paramSets) {
+            Map<String, Object> bound = new LinkedHashMap<>();
+            for (String name : statement.parameterNames()) {
+                bound.put(name, paramSet.get(name));
+            }
+            params.add(bound);
+        }
+
+        Pending pending = new Pending(statement.targetTable(), statement.sql(), params, new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.done().join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to append to change log.", e.getCause());
+        }
+    }
+
+    /**
+     * Apply Every Entry for a Table Newer Than the Given Sequence, in Log Order
+     * @return Number of entries passed to the handler
+     */
+    public long replay(String tableName, long afterSequence, EntryHandler handler) throws Exception {
+        if (!enabled) {
+            return 0;
+        }
+        long replayed = 0;
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean covered = i < segments.size() - 1 && segmentStart(segments.get(i + 1)) - 1 <= afterSequence;
+            if (covered) {
+                continue;
+            }
+            for (Entry entry : readSegment(segments.get(i))) {
+                if (entry.sequence() > afterSequence && entry.table().equalsIgnoreCase(tableName)) {
+                    handler.apply(entry);
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Record That a Table's Export Includes Every Entry up to the Given Sequence
+     */
+    public void markCheckpoint(String tableName, long sequence) {
+        dirtyTables.computeIfPresent(tableName.toLowerCase(), (table, last) -> last <= sequence ? null : last);
+    }
+
+    /**
+     * Start a New Segment
+     * @return Sequence number of the last entry in the closed segments
+     */
+    public long rotate() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (segmentLock) {
+            try {
+                if (channel.size() > 0) {
+                    channel.close();
+                    openSegment(lastSequence + 1);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to rotate change log.", e);
+            }
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Delete Closed Segments Whose Entries All Have Sequence Numbers up to the Given One
+     */
+    public void truncate(long upToSequence) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (segmentLock) {
+            List<Path> segments = listSegments();
+            for (int i = 0; i < segments.size() - 1; i++) {
+                if (segmentStart(segments.get(i + 1)) - 1 > upToSequence) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(segments.get(i));
+                    logger.info("Deleted change log segment {}.", segments.get(i).getFileName());
+                } catch (IOException e) {
+                    logger.warn("Failed to delete change log segment {}: {}", segments.get(i), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush Pending Appends and Close the Active Segment
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join();
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.done().completeExceptionally(new IllegalStateException("Change log is closed."));
+        }
+        synchronized (segmentLock) {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a Group of Entries and Sync Once
+     * A failed write is truncated away, so the segment never holds a torn record before later ones.
+     */
+    private void writeGroup(List<Pending> group) {
+        long[] sequences = new long[group.size()];
+        try {
+            synchronized (segmentLock) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * group.size());
+                long sequence = lastSequence;
+                for (int i = 0; i < group.size(); i++) {
+                    Pending pending = group.get(i);
+                    sequences[i] = ++sequence;
+                    buffer.write(encode(new Entry(sequence, pending.table(), pending.sql(), pending.params())));
+                }
+
+                long position = channel.position();
+                try {
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    long syncStarted = System.nanoTime();
+                    channel.force(false);
+                    syncTimer.record(System.nanoTime() - syncStarted, TimeUnit.NANOSECONDS);
+                } catch (IOException e) {
+                    channel.truncate(position);
+                    channel.position(position);
+                    throw e;
+                }
+                lastSequence = sequence;
+            }
+        } catch (Exception e) {
+            logger.error("Change log write failed: {}", e.getMessage(), e);
+            group.forEach(pending -> pending.done().completeExceptionally(e));
+            return;
+        }
+
+        groupSizes.record(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            Pending pending = group.get(i);
+            dirtyTables.merge(pending.table(), sequences[i], Math::max);
+            pending.done().complete(sequences[i]);
+        }
+    }
+
+    private byte[] encode(Entry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(json.length + 10);
+        line.write(HexFormat.of().toHexDigits((int) crc.getValue()).getBytes(StandardCharsets.US_ASCII));
+        line.write(' ');
+        line.write(json);
+        line.write('\n');
+        return line.toByteArray();
+    }
+
+    /**
+     * Decode One Line
+     * @return The entry, or null when the line is torn or corrupt
+     */
+    private Entry decode(String line) {
+        if (line.length() < 10 || line.charAt(8) != ' ') {
+            return null;
+        }
+        try {
+            byte[] json = line.substring(9).getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            if (HexFormat.fromHexDigits(line, 0, 8) != (int) crc.getValue()) {
+                return null;
+            }
+            return objectMapper.readValue(json, Entry.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the Valid Entries of a Segment, Stopping at the First Torn or Corrupt Record
+     */
+    private List<Entry> readSegment(Path segment) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = decode(line);
+                if (entry == null) {
+                    logger.warn("Change log segment {} ends with a torn or corrupt record; ignoring the rest.",
+                            segment.getFileName());
+                    break;
+                }
+                entries.add(entry);
+            }
+        } catch (NoSuchFileException e) {
+            // Truncated by a concurrent checkpoint; every entry in it was already exported
+        }
+        return entries;
+    }
+
+    /**
+     * Scan Existing Segments for the Last Sequence Number and the Tables They Touch
+     * Segments are named by their first sequence number, so numbering continues even when every
+     * entry has been truncated away.
+     */
+    private long recover() throws IOException {
+        long last = 0;
+        for (Path segment : listSegments()) {
+            last = Math.max(last, segmentStart(segment) - 1);
+            for (Entry entry : readSegment(segment)) {
+                last = Math.max(last, entry.sequence());
+                dirtyTables.merge(entry.table(), entry.sequence(), Math::max);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Open an Empty Segment Starting at the Given Sequence Number
+     * A leftover file of that name can only hold a torn record, since no valid entry has that number yet.
+     */
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list change log segments in " + directory, e);
+        }
+    }
+
+    private long segmentStart(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
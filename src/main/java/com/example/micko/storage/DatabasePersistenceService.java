@@ -1,56 +1,160 @@
 package com.example.micko.storage;
 
+import com.example.micko.data.DatabaseManager;
 import com.example.micko.data.DatabaseService;
+import com.example.micko.data.TableDefinition;
+import com.example.micko.data.TableLocks;
 import com.example.micko.parser.YamlParser;
+import com.example.micko.rule.IndexAdvisor;
+import com.example.micko.rule.Rule;
 import com.example.micko.rule.RuleCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.InterruptedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 @Service
 public class DatabasePersistenceService implements DisposableBean {
 
+    private static final Logger logger = LoggerFactory.getLogger(DatabasePersistenceService.class);
+    private static final long CANCEL_GRACE_SECONDS = 5;
+
     private final DatabaseService dbService;
     private final YamlParser yamlParser;
     private final StorageService storageService;
     private final RuleCacheManager ruleCacheManager;
+    private final TableLocks tableLocks;
+    private final ChangeLog changeLog;
+    private final int parallelism;
+    private final long timeoutSeconds;
 
-    public DatabasePersistenceService(DatabaseService dbService, StorageService storageService, RuleCacheManager ruleCacheManager) {
+    public DatabasePersistenceService(DatabaseService dbService, StorageService storageService, RuleCacheManager ruleCacheManager,
+                                      TableLocks tableLocks, ChangeLog changeLog,
+                                      @Value("${micko.export.parallelism:4}") int parallelism,
+                                      @Value("${micko.export.timeout-seconds:25}") long timeoutSeconds) {
         this.dbService = dbService;
         this.storageService = storageService;
         this.yamlParser = new YamlParser();
         this.ruleCacheManager = ruleCacheManager;
+        this.tableLocks = tableLocks;
+        this.changeLog = changeLog;
+        this.parallelism = parallelism;
+        this.timeoutSeconds = timeoutSeconds;
     }
 
     /**
      * Normalize Columns for Correct YAML Structure
+     * Single-column primary key, unique and index declarations are written back as column flags.
      */
-    private List<Map<String, String>> normalizeColumns(List<Map<String, Object>> columns) {
+    private List<Map<String, Object>> normalizeColumns(List<Map<String, Object>> columns,
+                                                       Map<String, List<String>> constraints,
+                                                       Map<String, IndexColumns> indexes) {
+        List<String> primaryKey = constraints.entrySet().stream()
+            .filter(entry -> entry.getKey().startsWith("PRIMARY KEY"))
+            .flatMap(entry -> entry.getValue().stream())
+            .toList();
         return columns.stream()
-            .map(column -> Map.of(
-                "name", column.get("COLUMN_NAME").toString().toLowerCase(),
-                "type", mapColumnType(column.get("DATA_TYPE").toString())
-            ))
+            .map(column -> {
+                String name = column.get("COLUMN_NAME").toString().toLowerCase();
+                Map<String, Object> normalized = new LinkedHashMap<>();
+                normalized.put("name", name);
+                normalized.put("type", mapColumnType(column.get("DATA_TYPE").toString()));
+                if (primaryKey.contains(name)) {
+                    normalized.put("primaryKey", true);
+                }
+                if (constraints.entrySet().stream().anyMatch(entry ->
+                        entry.getKey().startsWith("UNIQUE") && entry.getValue().equals(List.of(name)))) {
+                    normalized.put("unique", true);
+                }
+                if (indexes.values().stream().anyMatch(index ->
+                        !index.unique() && index.columns().equals(List.of(name)))) {
+                    normalized.put("index", true);
+                }
+                return normalized;
+            })
             .collect(Collectors.toList());
     }
 
     /**
-     * Normalize Data to Lowercase Keys
+     * Composite and Unique Indexes That Do Not Fit a Single Column Flag
+     */
+    private List<Map<String, Object>> normalizeIndexes(Map<String, List<String>> constraints,
+                                                       Map<String, IndexColumns> indexes) {
+        List<Map<String, Object>> normalized = new ArrayList<>();
+        constraints.forEach((key, columns) -> {
+            if (key.startsWith("UNIQUE") && columns.size() > 1) {
+                normalized.add(Map.of("columns", columns, "unique", true));
+            }
+        });
+        indexes.values().forEach(index -> {
+            if (index.unique() || index.columns().size() > 1) {
+                normalized.add(index.unique()
+                    ? Map.of("columns", index.columns(), "unique", true)
+                    : Map.of("columns", index.columns()));
+            }
+        });
+        return normalized;
+    }
+
+    /**
+     * Group Constraint Columns by Type and Name, Keyed as "TYPE NAME"
+     */
+    private Map<String, List<String>> groupConstraints(List<Map<String, Object>> rows) {
+        Map<String, List<String>> constraints = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            String key = row.get("CONSTRAINT_TYPE") + " " + row.get("CONSTRAINT_NAME");
+            constraints.computeIfAbsent(key, k -> new ArrayList<>()).add(row.get("COLUMN_NAME").toString().toLowerCase());
+        }
+        return constraints;
+    }
+
+    private record IndexColumns(boolean unique, List<String> columns) {
+    }
+
+    /**
+     * Group Index Columns by Index Name, Leaving Out Indexes Created by the {@link IndexAdvisor}
+     * Those are derived from the rules on every load, so writing them back would pin them in the YAML.
      */
-    private List<Map<String, Object>> normalizeData(List<Map<String, Object>> data) {
-        return data.stream()
-            .map(row -> row.entrySet().stream()
-                .collect(Collectors.toMap(
-                    entry -> entry.getKey().toLowerCase(),
-                    Map.Entry::getValue,
-                    (oldValue, newValue) -> newValue,
-                    LinkedHashMap::new
-                ))
-            ).collect(Collectors.toList());
+    private Map<String, IndexColumns> groupIndexes(List<Map<String, Object>> rows) {
+        Map<String, IndexColumns> indexes = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (row.get("INDEX_NAME").toString().startsWith(IndexAdvisor.INDEX_PREFIX)) {
+                continue;
+            }
+            boolean unique = "UNIQUE INDEX".equals(row.get("INDEX_TYPE_NAME"));
+            indexes.computeIfAbsent(row.get("INDEX_NAME").toString(), k -> new IndexColumns(unique, new ArrayList<>()))
+                .columns().add(row.get("COLUMN_NAME").toString().toLowerCase());
+        }
+        return indexes;
+    }
+
+    /**
+     * Normalize a Row to Lowercase Keys
+     */
+    private Map<String, Object> normalizeRow(Map<String, Object> row) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        row.forEach((key, value) -> normalized.put(key.toLowerCase(), value));
+        return normalized;
     }
 
     /**
@@ -60,43 +164,170 @@ public class DatabasePersistenceService implements DisposableBean {
         return switch (dbType.toUpperCase()) {
             case "CHARACTER VARYING" -> "string";
             case "BOOLEAN" -> "boolean";
+            case "BIGINT" -> "long";
+            case "REAL" -> "float";
+            case "DOUBLE PRECISION" -> "double";
             default -> dbType.toLowerCase();
         };
     }
 
     /**
      * Persist H2 Database and Rules on Application Exit
+     * Tables are exported in parallel, at most {@code micko.export.parallelism} at a time, each streamed
+     * row by row from the database into storage. Exports still running when {@code micko.export.timeout-seconds}
+     * elapses are interrupted; an interrupted export stops at its next row, or before committing its file,
+     * so a cancelled table keeps its previous file. Shutdown waits a few more seconds for them to stop and
+     * then proceeds regardless. The change log is truncated only when every table was exported.
      */
     @Override
     public void destroy() throws Exception {
         List<Map<String, Object>> tables = dbService.listAllTables();
+        long boundary = changeLog.rotate();
+        boolean complete = true;
+        Semaphore permits = new Semaphore(parallelism);
 
+        Map<String, Future<?>> results = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         for (Map<String, Object> table : tables) {
             String tableName = table.get("TABLE_NAME").toString().toLowerCase();
+            if (DatabaseManager.isTransientTable(tableName)) {
+                continue;
+            }
+            results.put(tableName, executor.submit(() -> {
+                permits.acquire();
+                try {
+                    exportTable(tableName);
+                    return null;
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
 
-            // Fetch Table Metadata and Data
-            List<Map<String, String>> columns = normalizeColumns(dbService.listTableColumns(tableName));
-            List<Map<String, Object>> data = normalizeData(dbService.executeSelectQuery("SELECT * FROM " + tableName, Map.of()));
+        executor.shutdown();
+        boolean timedOut = !executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+        if (timedOut) {
+            logger.warn("Export did not finish within {} s; cancelling the remaining tables.", timeoutSeconds);
+            executor.shutdownNow();
+            if (!executor.awaitTermination(CANCEL_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Cancelled exports still running after {} s; shutting down without them.", CANCEL_GRACE_SECONDS);
+            }
+        }
 
-            // Fetch Associated Rules from RuleCacheManager
-            Map<String, Map<String, Object>> rules = ruleCacheManager.getAllRules(tableName);
+        for (Map.Entry<String, Future<?>> result : results.entrySet()) {
+            String tableName = result.getKey();
+            if (!result.getValue().isDone()) {
+                complete = false;
+                logger.error("Export of table {} ignored cancellation; its file may still be replaced.", tableName);
+                continue;
+            }
+            try {
+                result.getValue().get();
+                logger.info("Persisted Table [{}] and Rules to Storage.", tableName);
+            } catch (ExecutionException e) {
+                complete = false;
+                if (timedOut) {
+                    logger.error("Export of table {} was cancelled after {} s; it keeps its previous file.",
+                            tableName, timeoutSeconds);
+                } else {
+                    logger.error("Export of table {} failed: {}", tableName, e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+        if (complete) {
+            changeLog.truncate(boundary);
+        }
+    }
 
-            // Format Data into Ordered YAML Structure
-            Map<String, Object> tableStructure = new LinkedHashMap<>();
-            tableStructure.put("name", tableName);
-            tableStructure.put("columns", columns);
-            tableStructure.put("data", data);
-            tableStructure.put("rules", rules.values());
+    /**
+     * Periodically Export Tables Changed Since Their Last Export, Then Drop the Log Segments They Cover
+     * Keeps crash recovery short: a restart replays at most one checkpoint interval of writes.
+     */
+    @Scheduled(fixedDelayString = "${micko.changelog.checkpoint-interval-ms:60000}",
+            initialDelayString = "${micko.changelog.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (changeLog.dirtyTables().isEmpty()) {
+            return;
+        }
+        long boundary = changeLog.rotate();
+        boolean complete = true;
+        for (String tableName : changeLog.dirtyTables()) {
+            try {
+                exportTable(tableName);
+                logger.info("Checkpointed Table [{}] to Storage.", tableName);
+            } catch (Exception e) {
+                complete = false;
+                logger.error("Checkpoint of table {} failed: {}", tableName, e.getMessage(), e);
+            }
+        }
+        if (complete) {
+            changeLog.truncate(boundary);
+        }
+    }
+
+    /**
+     * Stream One Table, Its Keys, Indexes, Reload Settings and Rules into Its YAML File
+     * The table's write lock is held only from capturing the {@code changeLogSequence} until the row query
+     * has executed. H2 computes the full result at that point, so the file holds exactly the changes logged
+     * up to that sequence, and writers are not held up while rows are written to storage. The digest of the
+     * written file is handed to the {@link RuleCacheManager}, so the change this write causes in storage is
+     * not mistaken for an edit and reloaded.
+     */
+    private void exportTable(String tableName) throws NoSuchAlgorithmException {
+        // Fetch Table Metadata
+        Map<String, List<String>> constraints = groupConstraints(dbService.listTableConstraints(tableName));
+        Map<String, IndexColumns> indexes = groupIndexes(dbService.listTableIndexes(tableName));
+        List<Map<String, Object>> columns = normalizeColumns(dbService.listTableColumns(tableName), constraints, indexes);
+        List<Map<String, Object>> tableIndexes = normalizeIndexes(constraints, indexes);
 
-            Map<String, Object> yamlStructure = Map.of("tables", List.of(tableStructure));
+        // Fetch Associated Rules and Reload Settings from RuleCacheManager
+        Map<String, Rule> rules = ruleCacheManager.getAllRules(tableName);
+        TableDefinition definition = ruleCacheManager.getTableDefinition(tableName);
 
-            // Convert Data to YAML Format
-            String yamlOutput = yamlParser.writeYaml(yamlStructure);
+        // Format Table into Ordered YAML Structure; Rows Are Streamed in Place of "data"
+        Map<String, Object> tableStructure = new LinkedHashMap<>();
+        tableStructure.put("name", tableName);
+        if (definition != null && definition.getReloadMode() != null) {
+            tableStructure.put("reloadMode", definition.getReloadMode());
+        }
+        if (definition != null && definition.getKeyColumn() != null) {
+            tableStructure.put("keyColumn", definition.getKeyColumn());
+        }
+        tableStructure.put("columns", columns);
+        if (!tableIndexes.isEmpty()) {
+            tableStructure.put("indexes", tableIndexes);
+        }
+        if (changeLog.isEnabled()) {
+            tableStructure.put("changeLogSequence", 0L);
+        }
+        tableStructure.put("data", List.of());
+        tableStructure.put("rules", rules.values());
 
-            // Save YAML File to S3 or Local
-            storageService.saveYamlFile(tableName + ".yaml", yamlOutput);
+        Lock writeLock = tableLocks.writeLock(tableName);
+        writeLock.lock();
+        Runnable releaseLock = tableLocks.releaser(List.of(writeLock));
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        long sequence;
+        String fileKey;
+        try {
+            sequence = changeLog.lastSequence();
+            if (changeLog.isEnabled()) {
+                tableStructure.put("changeLogSequence", sequence);
+            }
 
-            System.out.println("Persisted Table [" + tableName + "] and Rules to Storage.");
+            // Stream YAML to S3 or Local
+            fileKey = storageService.writeYamlFile(tableName + ".yaml", outputStream ->
+                yamlParser.writeTableYaml(new DigestOutputStream(outputStream, digest), tableStructure, rowWriter ->
+                    dbService.forEachRow("SELECT * FROM " + tableName, Map.of(), row -> {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedIOException("Export of table " + tableName + " was cancelled.");
+                        }
+                        rowWriter.write(normalizeRow(row));
+                    }, releaseLock)));
+        } finally {
+            releaseLock.run();
         }
+        ruleCacheManager.recordExport(fileKey, HexFormat.of().formatHex(digest.digest()), List.of(tableName));
+        changeLog.markCheckpoint(tableName, sequence);
     }
 }
@@ -0,0 +1,8 @@
+package com.example.micko.storage;
+
+/**
+ * Storage-level identity of a rule file, used to skip files that have not changed.
+ * @param eTag S3 ETag, or a size/last-modified tag for local files
+ */
+public record FileMetadata(String key, long size, long lastModified, String eTag) {
+}
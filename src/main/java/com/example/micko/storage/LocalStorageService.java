@@ -1,19 +1,27 @@
 package com.example.micko.storage;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Profile("local")
 public class LocalStorageService implements StorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LocalStorageService.class);
+
     private final String folderPath;
 
     public LocalStorageService() {
@@ -21,6 +29,13 @@ public class LocalStorageService implements StorageService {
         createFolderIfNotExists();
     }
 
+    /**
+     * Folder Holding the Rule Files
+     */
+    public Path getFolderPath() {
+        return Paths.get(folderPath);
+    }
+
     /**
      * Create Local Folder If It Doesn't Exist
      */
@@ -28,7 +43,7 @@ public class LocalStorageService implements StorageService {
         File folder = new File(folderPath);
         if (!folder.exists()) {
             folder.mkdirs();
-            System.out.println("Created local storage folder at: " + folderPath);
+            logger.info("Created local storage folder at: {}", folderPath);
         }
     }
 
@@ -43,11 +58,61 @@ public class LocalStorageService implements StorageService {
                 .filter(path -> path.toString().endsWith(".yaml"))
                 .forEach(path -> files.add(path.getFileName().toString()));
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Failed to list YAML files in {}: {}", this.folderPath, e.getMessage(), e);
+        }
+        return files;
+    }
+
+    /**
+     * List YAML Files with Size, Last-Modified Time and ETag
+     */
+    @Override
+    public List<FileMetadata> listYamlFileMetadata(String folderPath) {
+        List<FileMetadata> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(Paths.get(this.folderPath))) {
+            paths.filter(path -> path.toString().endsWith(".yaml"))
+                .forEach(path -> files.add(readMetadata(path)));
+        } catch (IOException e) {
+            logger.error("Failed to list YAML files in {}: {}", this.folderPath, e.getMessage(), e);
         }
         return files;
     }
 
+    /**
+     * Read Metadata of a Single YAML File
+     */
+    @Override
+    public FileMetadata readYamlFileMetadata(String fileKey) {
+        Path path = Paths.get(this.folderPath, fileKey);
+        return Files.isRegularFile(path) ? readMetadata(path) : null;
+    }
+
+    /**
+     * Read YAML File from Local Folder If Its ETag Changed
+     */
+    @Override
+    public InputStream readYamlFileIfChanged(String fileKey, String eTag) {
+        FileMetadata metadata = readMetadata(Paths.get(this.folderPath, fileKey));
+        if (eTag != null && eTag.equals(metadata.eTag())) {
+            return null;
+        }
+        return readYamlFile(fileKey);
+    }
+
+    /**
+     * Build File Metadata; the ETag Combines Size and Last-Modified Time
+     */
+    private FileMetadata readMetadata(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String eTag = Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified);
+            return new FileMetadata(path.getFileName().toString(), attributes.size(), lastModified, eTag);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file metadata: " + path.getFileName(), e);
+        }
+    }
+
     /**
      * Read YAML File from Local Folder
      */
@@ -56,8 +121,46 @@ public class LocalStorageService implements StorageService {
         try {
             return new FileInputStream(new File(this.folderPath, fileKey));
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to read file: " + fileKey);
+            throw new RuntimeException("Failed to read file: " + fileKey, e);
+        }
+    }
+
+    /**
+     * Stream a YAML File to a Temporary File, Then Atomically Rename It into Place
+     * An interrupted writer never renames, so a cancelled export leaves the previous file untouched.
+     */
+    @Override
+    public String writeYamlFile(String fileName, ContentWriter writer) {
+        Path folder = Paths.get(this.folderPath);
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(folder, fileName + ".", ".tmp");
+            try (FileOutputStream fileStream = new FileOutputStream(tempFile.toFile());
+                 BufferedOutputStream outputStream = new BufferedOutputStream(fileStream, 64 * 1024)) {
+                writer.write(outputStream);
+                outputStream.flush();
+                fileStream.getFD().sync();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Write of " + fileName + " was cancelled.");
+            }
+            Files.move(tempFile, folder.resolve(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Saved YAML file: {}", fileName);
+            return fileName;
+        } catch (Exception e) {
+            deleteQuietly(tempFile);
+            throw new RuntimeException("Failed to save file: " + fileName, e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file {}: {}", path, e.getMessage());
         }
     }
 
@@ -70,10 +173,9 @@ public class LocalStorageService implements StorageService {
         try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
                 new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
             writer.write(content);
-            System.out.println("Saved YAML file: " + fileName);
+            logger.info("Saved YAML file: {}", fileName);
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save file: " + fileName);
+            throw new RuntimeException("Failed to save file: " + fileName, e);
         }
     }
 }
@@ -0,0 +1,108 @@
+package com.example.micko.storage;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutputStream that uploads to S3 as a multipart upload, one part per filled buffer, so memory stays
+ * bounded by the part size whatever the object size. {@link #complete()} publishes the object;
+ * {@link #abort()} discards every uploaded part.
+ */
+class MultipartUploadStream extends OutputStream {
+
+    /** S3 requires every part but the last to be at least 5 MiB */
+    static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String key;
+    private final String uploadId;
+    private final byte[] buffer;
+    private final List<CompletedPart> parts = new ArrayList<>();
+    private int position;
+
+    MultipartUploadStream(S3Client s3Client, String bucket, String key, int partSize) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.buffer = new byte[partSize];
+        this.uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build()).uploadId();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == buffer.length) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart();
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Upload the Remaining Bytes as the Last Part and Publish the Object
+     */
+    void complete() {
+        if (position > 0 || parts.isEmpty()) {
+            uploadPart();
+        }
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build());
+    }
+
+    /**
+     * Discard the Upload and Every Part Sent So Far
+     */
+    void abort() {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private void uploadPart() {
+        int partNumber = parts.size() + 1;
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) position)
+                        .build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, position), position)).eTag();
+        parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+        position = 0;
+    }
+}
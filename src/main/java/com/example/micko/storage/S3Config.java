@@ -0,0 +1,63 @@
+package com.example.micko.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+
+/**
+ * S3 Clients for the {@code aws} Profile
+ * Credentials come from the default provider chain. Setting {@code micko.s3.endpoint} points both clients
+ * at a local S3 stand-in such as MinIO or LocalStack, usually together with {@code micko.s3.path-style-access}.
+ */
+@Configuration
+@Profile("aws")
+public class S3Config {
+
+    @Value("${micko.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${micko.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${micko.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    /**
+     * Synchronous Client, Used for Listing and Uploads
+     */
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client() {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyleAccess);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Asynchronous Client, Used for Downloads
+     * {@code micko.s3.max-concurrency} caps the connections open at once, however many files are fetched in parallel.
+     */
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(@Value("${micko.s3.max-concurrency:64}") int maxConcurrency) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyleAccess)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConcurrency));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+}
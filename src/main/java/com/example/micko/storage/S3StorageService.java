@@ -1,7 +1,10 @@
 package com.example.micko.storage;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
@@ -10,21 +13,33 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Rule Files in an S3 Bucket
+ * Listing is fully paginated; downloads go through the {@link S3AsyncClient} and stream while the body
+ * arrives, so the loader's parallel file reads share its bounded connection pool.
+ */
 @Service
 @Profile("aws")
 public class S3StorageService implements StorageService {
 
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final String bucketName;
     private final String folderPath;
 
-    public S3StorageService(S3Client s3Client) {
+    public S3StorageService(S3Client s3Client, S3AsyncClient s3AsyncClient,
+                            @Value("${micko.s3.bucket:your-s3-bucket}") String bucketName,
+                            @Value("${micko.storage.folder:local-storage}") String folderPath) {
         this.s3Client = s3Client;
-        this.bucketName = "your-s3-bucket";
-        this.folderPath = "your-s3-folder";
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucketName = bucketName;
+        this.folderPath = folderPath;
     }
 
     /**
@@ -32,15 +47,89 @@ public class S3StorageService implements StorageService {
      */
     @Override
     public List<String> listYamlFiles(String folderPath) {
+        return listYamlObjects(folderPath)
+                .map(S3Object::key)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * List YAML Files from S3 with Size, Last-Modified Time and ETag
+     */
+    @Override
+    public List<FileMetadata> listYamlFileMetadata(String folderPath) {
+        return listYamlObjects(folderPath)
+                .map(object -> new FileMetadata(
+                        object.key(), object.size(), object.lastModified().toEpochMilli(), object.eTag()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every YAML Object Under a Folder, Following Continuation Tokens Past the 1000-Key Page Limit
+     * A blank folder falls back to the configured {@code micko.storage.folder}.
+     */
+    private Stream<S3Object> listYamlObjects(String folderPath) {
+        String folder = folderPath == null || folderPath.isBlank() ? this.folderPath : folderPath;
         ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
                 .bucket(bucketName)
-                .prefix(this.folderPath)
+                .prefix(folderPrefix(folder))
                 .build();
 
-        ListObjectsV2Response response = s3Client.listObjectsV2(listRequest);
-        return response.contents().stream()
-                .map(S3Object::key)
-                .collect(Collectors.toList());
+        return s3Client.listObjectsV2Paginator(listRequest).contents().stream()
+                .filter(object -> object.key().endsWith(".yaml"));
+    }
+
+    /**
+     * Key Prefix of a Folder, with Exactly One Trailing Slash
+     */
+    private static String folderPrefix(String folder) {
+        return folder.endsWith("/") ? folder : folder + "/";
+    }
+
+    /**
+     * Key a File Name Is Written Under, Matching the Keys the Listing Returns
+     */
+    private String objectKey(String fileName) {
+        return folderPrefix(folderPath) + fileName;
+    }
+
+    /**
+     * Read Metadata of a Single YAML File with a HEAD Request
+     */
+    @Override
+    public FileMetadata readYamlFileMetadata(String fileKey) {
+        HeadObjectRequest headRequest = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileKey)
+                .build();
+
+        try {
+            HeadObjectResponse response = s3Client.headObject(headRequest);
+            return new FileMetadata(fileKey, response.contentLength(), response.lastModified().toEpochMilli(), response.eTag());
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read YAML File from S3 with a Conditional GET
+     * S3 answers 304 Not Modified when the ETag still matches, so an unchanged file costs no transfer.
+     */
+    @Override
+    public InputStream readYamlFileIfChanged(String fileKey, String eTag) {
+        GetObjectRequest getRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileKey)
+                .ifNoneMatch(eTag)
+                .build();
+
+        try {
+            return getObject(getRequest);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 304) {
+                return null;
+            }
+            throw e;
+        }
     }
 
     /**
@@ -53,9 +142,45 @@ public class S3StorageService implements StorageService {
                 .key(fileKey)
                 .build();
 
-        return s3Client.getObject(getRequest);
+        return getObject(getRequest);
+    }
+
+    /**
+     * Start an Asynchronous GET and Return Its Body as a Stream Once the Response Headers Arrive
+     */
+    private InputStream getObject(GetObjectRequest getRequest) {
+        try {
+            return s3AsyncClient.getObject(getRequest, AsyncResponseTransformer.toBlockingInputStream()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to read file: " + getRequest.key(), e.getCause());
+        }
+    }
+
+    /**
+     * Stream a YAML File to S3 as a Multipart Upload
+     * The object is only created when the upload completes; a failing or interrupted writer aborts it.
+     */
+    @Override
+    public String writeYamlFile(String fileName, ContentWriter writer) {
+        String key = objectKey(fileName);
+        MultipartUploadStream upload = new MultipartUploadStream(
+                s3Client, bucketName, key, MultipartUploadStream.DEFAULT_PART_SIZE);
+        try {
+            writer.write(upload);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Write of " + fileName + " was cancelled.");
+            }
+            upload.complete();
+            return key;
+        } catch (Exception e) {
+            upload.abort();
+            throw new RuntimeException("Failed to save file: " + fileName, e);
+        }
     }
-    
+
     /**
      * Save YAML File to S3
      */
@@ -63,7 +188,7 @@ public class S3StorageService implements StorageService {
     public void saveYamlFile(String fileName, String content) {
         PutObjectRequest putRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
-                .key(folderPath + "/" + fileName)
+                .key(objectKey(fileName))
                 .build();
 
         s3Client.putObject(putRequest, software.amazon.awssdk.core.sync.RequestBody.fromInputStream(
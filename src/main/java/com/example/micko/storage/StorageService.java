@@ -1,13 +1,44 @@
 package com.example.micko.storage;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface StorageService {
 
+    /**
+     * Produces File Content into a Stream
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(OutputStream outputStream) throws Exception;
+    }
+
     List<String> listYamlFiles(String folderPath);
 
+    List<FileMetadata> listYamlFileMetadata(String folderPath);
+
     InputStream readYamlFile(String fileKey);
 
+    /**
+     * Metadata of a Single File
+     * @return File metadata, or null when the file does not exist
+     */
+    FileMetadata readYamlFileMetadata(String fileKey);
+
+    /**
+     * Read a File Only If Its ETag Differs from the Given One
+     * @return File content, or null when the file is unchanged
+     */
+    InputStream readYamlFileIfChanged(String fileKey, String eTag);
+
     void saveYamlFile(String fileName, String content);
+
+    /**
+     * Stream a File's Content to Storage
+     * The file becomes visible only once the writer completes; a failing writer leaves any
+     * previous version untouched.
+     * @return Key the file was written under, in the form {@link #listYamlFiles} reports it
+     */
+    String writeYamlFile(String fileName, ContentWriter writer);
 }
@@ -0,0 +1,95 @@
+package com.example.micko.bulkhead;
+
+import com.example.micko.rule.BulkheadDefinition;
+import com.example.micko.rule.CompiledRule;
+import com.example.micko.rule.ExecutionQuery;
+import com.example.micko.rule.Rule;
+import com.example.micko.rule.RuleCompiler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadRegistryTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BulkheadRegistry registry(MockEnvironment environment) {
+        return new BulkheadRegistry(meterRegistry, environment, true, 8, 32, 1000, 2, 4, 2000);
+    }
+
+    private CompiledRule rule(String tableName, BulkheadDefinition bulkhead) {
+        ExecutionQuery query = new ExecutionQuery();
+        query.setQuery("SELECT * FROM " + tableName + " WHERE id = :id");
+        Rule rule = new Rule();
+        rule.setAction("monthlyReport");
+        rule.setExecutionQuery(query);
+        rule.setBulkhead(bulkhead);
+        return compiler.compile(tableName, rule);
+    }
+
+    @Test
+    void layersDefaultsYamlAndProperties() {
+        BulkheadDefinition definition = new BulkheadDefinition();
+        definition.setMaxConcurrent(3);
+        definition.setQueueTimeoutMs(500);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("micko.bulkhead.rules.user_table.monthlyReport.max-queued", "5");
+
+        Bulkhead bulkhead = registry(environment).forRule(rule("user_table", definition));
+
+        assertThat(bulkhead.settings()).isEqualTo(new Bulkhead.Settings(3, 5, 500));
+    }
+
+    @Test
+    void propertyOverridesUseTheLowerCaseTableNameWhateverTheYamlCase() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("micko.bulkhead.rules.user_table.monthlyReport.max-concurrent", "1");
+
+        Bulkhead bulkhead = registry(environment).forRule(rule("USER_TABLE", null));
+
+        assertThat(bulkhead.name()).isEqualTo("user_table.monthlyReport");
+        assertThat(bulkhead.settings().maxConcurrent()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadedRuleWithNewLimitsKeepsTheSameBulkheadName() {
+        BulkheadRegistry registry = registry(new MockEnvironment());
+        Bulkhead before = registry.forRule(rule("orders", null));
+
+        BulkheadDefinition definition = new BulkheadDefinition();
+        definition.setMaxConcurrent(1);
+        definition.setMaxQueued(0);
+        Bulkhead after = registry.forRule(rule("orders", definition));
+
+        assertThat(before.settings().maxConcurrent()).isEqualTo(8);
+        assertThat(after.name()).isEqualTo(before.name());
+        assertThat(after.settings()).isEqualTo(new Bulkhead.Settings(1, 0, 1000));
+        try (Bulkhead.Permit ignored = after.acquire()) {
+            assertThatThrownBy(after::acquire)
+                    .isInstanceOfSatisfying(BulkheadRejectedException.class, e -> assertThat(e.getStatus()).isEqualTo(429));
+        }
+        assertThat(meterRegistry.get("micko.bulkhead.rejections")
+                .tags("table", "orders", "reason", "queue_full").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void queryBulkheadUsesItsOwnLimits() {
+        Bulkhead query = registry(new MockEnvironment()).forQuery();
+
+        assertThat(query.settings()).isEqualTo(new Bulkhead.Settings(2, 4, 2000));
+    }
+
+    @Test
+    void disabledRegistryNeverRejects() {
+        BulkheadRegistry registry = new BulkheadRegistry(meterRegistry, new MockEnvironment(), false, 1, 0, 0, 1, 0, 0);
+        Bulkhead bulkhead = registry.forRule(rule("orders", null));
+
+        try (Bulkhead.Permit first = bulkhead.acquire(); Bulkhead.Permit second = bulkhead.acquire()) {
+            assertThat(bulkhead.active()).isEqualTo(2);
+        }
+    }
+}
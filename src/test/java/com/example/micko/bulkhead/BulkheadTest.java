@@ -0,0 +1,115 @@
+package com.example.micko.bulkhead;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BulkheadTest {
+
+    @Test
+    void rejectsWith429WhenTheQueueIsFull() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(1, 0, 1000));
+        try (Bulkhead.Permit ignored = bulkhead.acquire()) {
+            assertThatThrownBy(bulkhead::acquire)
+                    .isInstanceOfSatisfying(BulkheadRejectedException.class, e -> {
+                        assertThat(e.getStatus()).isEqualTo(429);
+                        assertThat(e.getBulkhead()).isEqualTo("orders.report");
+                    });
+        }
+        assertThat(bulkhead.queueFullRejections()).isEqualTo(1);
+        assertThat(bulkhead.timeoutRejections()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    void rejectsWith503WhenTheQueueWaitTimesOut() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(1, 1, 50));
+        try (Bulkhead.Permit ignored = bulkhead.acquire()) {
+            long started = System.nanoTime();
+            assertThatThrownBy(bulkhead::acquire)
+                    .isInstanceOfSatisfying(BulkheadRejectedException.class, e -> assertThat(e.getStatus()).isEqualTo(503));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(50);
+        }
+        assertThat(bulkhead.timeoutRejections()).isEqualTo(1);
+        assertThat(bulkhead.queueFullRejections()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    void rejectsWith503WhenInterruptedWhileQueued() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(1, 1, 10_000));
+        try (Bulkhead.Permit ignored = bulkhead.acquire()) {
+            Thread.currentThread().interrupt();
+            assertThatThrownBy(bulkhead::acquire)
+                    .isInstanceOfSatisfying(BulkheadRejectedException.class, e -> assertThat(e.getStatus()).isEqualTo(503));
+            assertThat(Thread.interrupted()).isTrue();
+        }
+    }
+
+    @Test
+    void queuedCallerGetsThePermitOnceReleased() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(1, 1, 10_000));
+        Bulkhead.Permit held = bulkhead.acquire();
+        CompletableFuture<Bulkhead.Permit> waiter = CompletableFuture.supplyAsync(bulkhead::acquire);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> bulkhead.queued() == 1);
+
+        // The queue is full, so a newcomer is turned away rather than overtaking the waiter
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadRejectedException.class);
+
+        held.close();
+        Bulkhead.Permit handedOver = waiter.join();
+        assertThat(bulkhead.active()).isEqualTo(1);
+        assertThat(bulkhead.queued()).isZero();
+        handedOver.close();
+        assertThat(bulkhead.active()).isZero();
+    }
+
+    @Test
+    void closingAPermitTwiceReleasesItOnce() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(2, 0, 0));
+        Bulkhead.Permit permit = bulkhead.acquire();
+        permit.close();
+        permit.close();
+
+        assertThat(bulkhead.active()).isZero();
+        try (Bulkhead.Permit first = bulkhead.acquire(); Bulkhead.Permit second = bulkhead.acquire()) {
+            assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadRejectedException.class);
+        }
+    }
+
+    @Test
+    void newSettingsKeepCountingRejections() {
+        Bulkhead bulkhead = new Bulkhead("orders.report", new Bulkhead.Settings(1, 0, 0));
+        try (Bulkhead.Permit ignored = bulkhead.acquire()) {
+            assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadRejectedException.class);
+        }
+
+        Bulkhead resized = bulkhead.withSettings(new Bulkhead.Settings(3, 0, 0));
+        assertThat(resized.settings().maxConcurrent()).isEqualTo(3);
+        assertThat(resized.queueFullRejections()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectionResponseCarriesStatusAndRetryAfter() {
+        ResponseEntity<Object> response = new BulkheadRejectedException("query", 503, "Timed out").response().build();
+
+        assertThat(response.getStatusCode().value()).isEqualTo(503);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void unlimitedBulkheadNeverRejects() {
+        Bulkhead bulkhead = Bulkhead.unlimited("query");
+        for (int i = 0; i < 1000; i++) {
+            bulkhead.acquire();
+        }
+        assertThat(bulkhead.active()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.micko.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LruCacheTest {
+
+    private final LruCache<String, String> cache = new LruCache<>(2);
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertThat(cache.get("a")).isEqualTo("A");
+
+        cache.put("c", "C");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("c")).isEqualTo("C");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void countsHitsMissesAndEvictions() {
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+        cache.put("b", "B");
+        cache.put("c", "C");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats).isEqualTo(new CacheStats(2, 1, 1, 2, 2));
+        assertThat(stats.hitRatio()).isEqualTo(2.0 / 3);
+        assertThat(new LruCache<>(1).stats().hitRatio()).isZero();
+    }
+
+    @Test
+    void computesAMissingValueOnceAndDoesNotCacheNull() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.computeIfAbsent("a", key -> key.toUpperCase() + loads.incrementAndGet())).isEqualTo("A1");
+        assertThat(cache.computeIfAbsent("a", key -> key.toUpperCase() + loads.incrementAndGet())).isEqualTo("A1");
+        assertThat(cache.computeIfAbsent("b", key -> null)).isNull();
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsAValueCachedWhileTheLoaderRan() {
+        String value = cache.computeIfAbsent("a", key -> {
+            cache.put("a", "first");
+            return "second";
+        });
+
+        assertThat(value).isEqualTo("first");
+        assertThat(cache.get("a")).isEqualTo("first");
+    }
+
+    @Test
+    void removesAndClearsEntries() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+
+        assertThat(cache.remove("a")).isEqualTo("A");
+        assertThat(cache.remove("a")).isNull();
+        cache.clear();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.stats().evictions()).isZero();
+    }
+
+    @Test
+    void rejectsANonPositiveCapacity() {
+        assertThatThrownBy(() -> new LruCache<>(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxEntries must be positive: 0");
+    }
+}
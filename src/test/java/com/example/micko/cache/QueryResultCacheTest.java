@@ -0,0 +1,100 @@
+package com.example.micko.cache;
+
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableVersions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTest {
+
+    private static final SqlStatement BY_CUSTOMER =
+            SqlStatement.parse("SELECT * FROM orders o JOIN customers c ON c.id = o.customer_id WHERE c.id = :id");
+
+    private final TableVersions tableVersions = new TableVersions();
+    private final QueryResultCache<String> cache = new QueryResultCache<>(10, tableVersions, 0);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<String> loader() {
+        return () -> "result" + loads.incrementAndGet();
+    }
+
+    @Test
+    void servesRepeatedLookupsForTheSameParametersFromTheCache() {
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result1");
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1, "unused", 9), loader())).isEqualTo("result1");
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 2), loader())).isEqualTo("result2");
+
+        assertThat(cache.stats()).isEqualTo(new CacheStats(1, 2, 0, 2, 10));
+    }
+
+    @Test
+    void aWriteToAnyReadTableInvalidatesTheEntry() {
+        cache.get(BY_CUSTOMER, Map.of("id", 1), loader());
+
+        tableVersions.bump(List.of("Customers"));
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result2");
+
+        tableVersions.bump(List.of("invoices"));
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result2");
+
+        tableVersions.bump(List.of());
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result3");
+    }
+
+    @Test
+    void aStampTakenBeforeTheLoadMissesAWriteDuringIt() {
+        cache.get(BY_CUSTOMER, Map.of("id", 1), () -> {
+            tableVersions.bump(List.of("orders"));
+            return "stale";
+        });
+
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result1");
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        QueryResultCache<String> expiring = new QueryResultCache<>(10, tableVersions, TimeUnit.MILLISECONDS.toNanos(20));
+        expiring.get(BY_CUSTOMER, Map.of("id", 1), loader());
+        assertThat(expiring.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result1");
+
+        Thread.sleep(40);
+
+        assertThat(expiring.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result2");
+    }
+
+    @Test
+    void neverCachesQueriesWithUnknownTablesOrRejectedValues() {
+        SqlStatement commaJoin = SqlStatement.parse("SELECT * FROM orders o, customers c");
+        SqlStatement noTable = SqlStatement.parse("SELECT 1");
+        cache.get(commaJoin, Map.of(), loader());
+        cache.get(commaJoin, Map.of(), loader());
+        cache.get(noTable, Map.of(), loader());
+        cache.get(noTable, Map.of(), loader());
+        cache.get(BY_CUSTOMER, Map.of("id", 1), () -> null);
+        cache.get(BY_CUSTOMER, Map.of("id", 1), loader(), value -> false);
+
+        assertThat(loads).hasValue(5);
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheAValueLoadedByAnInterruptedThread() {
+        try {
+            cache.get(BY_CUSTOMER, Map.of("id", 1), () -> {
+                Thread.currentThread().interrupt();
+                return "partial";
+            });
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(cache.get(BY_CUSTOMER, Map.of("id", 1), loader())).isEqualTo("result1");
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.micko.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.close();
+    }
+
+    private String blockingLoad(String value) {
+        loads.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private CompletableFuture<String> call(String key, String value) {
+        return CompletableFuture.supplyAsync(() -> flights.execute(key, () -> blockingLoad(value)), executor);
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() {
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(call("report", "result-" + i));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> flights.executions() + flights.shared() == 50);
+        release.countDown();
+
+        String first = calls.get(0).join();
+        assertThat(calls).allSatisfy(call -> assertThat(call.join()).isSameAs(first));
+        assertThat(loads).hasValue(1);
+        assertThat(flights.executions()).isEqualTo(1);
+        assertThat(flights.shared()).isEqualTo(49);
+        assertThat(flights.inFlight()).isZero();
+    }
+
+    @Test
+    void differentKeysRunSeparately() {
+        CompletableFuture<String> first = call("report:1", "one");
+        CompletableFuture<String> second = call("report:2", "two");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> loads.get() == 2);
+        assertThat(flights.inFlight()).isEqualTo(2);
+        release.countDown();
+
+        assertThat(first.join()).isEqualTo("one");
+        assertThat(second.join()).isEqualTo("two");
+        assertThat(flights.shared()).isZero();
+    }
+
+    @Test
+    void everyCallerReceivesTheLoadersException() {
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> flights.execute("report", () -> {
+                blockingLoad("unused");
+                throw failure;
+            }), executor));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> flights.executions() + flights.shared() == 10);
+        release.countDown();
+
+        assertThat(calls).allSatisfy(call -> assertThatThrownBy(call::join)
+                .isInstanceOf(CompletionException.class)
+                .cause().isSameAs(failure));
+        assertThat(flights.inFlight()).isZero();
+    }
+
+    @Test
+    void nothingIsKeptOnceAnExecutionFinishes() {
+        release.countDown();
+        assertThat(flights.execute("report", () -> blockingLoad("first"))).isEqualTo("first");
+        assertThat(flights.execute("report", () -> blockingLoad("second"))).isEqualTo("second");
+
+        assertThatThrownBy(() -> flights.execute("report", () -> {
+            throw new IllegalArgumentException("bad input");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(flights.execute("report", () -> blockingLoad("after failure"))).isEqualTo("after failure");
+
+        assertThat(flights.executions()).isEqualTo(4);
+        assertThat(flights.shared()).isZero();
+        assertThat(flights.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.micko.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseManagerTest {
+
+    private final DatabaseManager dbManager = new DatabaseManager(100);
+    private Connection connection;
+
+    @BeforeEach
+    void openDatabase() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL");
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    private static ColumnDefinition column(String name, String type) {
+        ColumnDefinition column = new ColumnDefinition();
+        column.setName(name);
+        column.setType(type);
+        return column;
+    }
+
+    private static IndexDefinition index(boolean unique, String... columns) {
+        IndexDefinition index = new IndexDefinition();
+        index.setColumns(List.of(columns));
+        index.setUnique(unique);
+        return index;
+    }
+
+    private static TableDefinition table(List<ColumnDefinition> columns, List<IndexDefinition> indexes) {
+        TableDefinition table = new TableDefinition();
+        table.setName("orders");
+        table.setColumns(columns);
+        table.setIndexes(indexes);
+        return table;
+    }
+
+    private void insertStatuses(String tableName, String... statuses) throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            rows.add(Map.of("id", i + 1, "customer_id", 1, "status", statuses[i]));
+        }
+        dbManager.insertRows(connection, tableName, rows);
+    }
+
+    private List<String> statuses(String tableName) throws Exception {
+        List<String> statuses = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT status FROM " + tableName + " ORDER BY id")) {
+            while (resultSet.next()) {
+                statuses.add(resultSet.getString(1));
+            }
+        }
+        return statuses;
+    }
+
+    /** Column list of each index on the table, sorted, with columns of a unique index prefixed by U */
+    private List<String> indexes(String tableName) throws Exception {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (ResultSet resultSet = connection.getMetaData().getIndexInfo(null, null, tableName.toUpperCase(), false, false)) {
+            while (resultSet.next()) {
+                String prefix = resultSet.getBoolean("NON_UNIQUE") ? "" : "U ";
+                indexes.computeIfAbsent(resultSet.getString("INDEX_NAME"), name -> new ArrayList<>())
+                        .add(prefix + resultSet.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        return new ArrayList<>(new TreeSet<>(indexes.values().stream().map(String::valueOf).toList()));
+    }
+
+    private static List<ColumnDefinition> columns() {
+        ColumnDefinition id = column("id", "int");
+        id.setPrimaryKey(true);
+        return List.of(id, column("customer_id", "int"), column("status", "string"));
+    }
+
+    @Test
+    void typeAliasesAndNameCaseDoNotChangeTheStructure() {
+        ColumnDefinition id = column("ID", "integer");
+        id.setPrimaryKey(true);
+        TableDefinition exported = table(List.of(id, column("customer_id", "INTEGER"), column("Status", "String")),
+                List.of(index(false, "CUSTOMER_ID", "STATUS")));
+
+        assertThat(dbManager.hasSameStructure(table(columns(), List.of(index(false, "customer_id", "status"))), exported))
+                .isTrue();
+        assertThat(dbManager.hasSameStructure(table(columns(), null), table(columns(), List.of()))).isTrue();
+    }
+
+    @Test
+    void columnTypeOrFlagChangesAreStructural() {
+        List<ColumnDefinition> retyped = List.of(columns().get(0), column("customer_id", "long"), columns().get(2));
+        assertThat(dbManager.hasSameStructure(table(columns(), null), table(retyped, null))).isFalse();
+
+        List<ColumnDefinition> unique = columns();
+        unique.get(2).setUnique(true);
+        assertThat(dbManager.hasSameStructure(table(columns(), null), table(unique, null))).isFalse();
+
+        List<ColumnDefinition> primaryKey = columns();
+        primaryKey.get(0).setPrimaryKey(false);
+        primaryKey.get(1).setPrimaryKey(true);
+        assertThat(dbManager.hasSameStructure(table(columns(), null), table(primaryKey, null))).isFalse();
+
+        assertThat(dbManager.hasSameStructure(table(columns(), null), table(columns().subList(0, 2), null))).isFalse();
+    }
+
+    @Test
+    void tableLevelIndexChangesAreStructural() {
+        TableDefinition current = table(columns(), List.of(index(false, "customer_id", "status")));
+
+        assertThat(dbManager.hasSameStructure(current, table(columns(), null))).isFalse();
+        assertThat(dbManager.hasSameStructure(current, table(columns(), List.of(index(true, "customer_id", "status")))))
+                .isFalse();
+        assertThat(dbManager.hasSameStructure(current, table(columns(), List.of(index(false, "status", "customer_id")))))
+                .isFalse();
+    }
+
+    @Test
+    void shadowAndRetiredCopiesAreTransient() {
+        assertThat(dbManager.shadowTableName("orders")).isEqualTo("orders__shadow");
+        assertThat(DatabaseManager.isTransientTable("ORDERS__SHADOW")).isTrue();
+        assertThat(DatabaseManager.isTransientTable("orders__retired")).isTrue();
+        assertThat(DatabaseManager.isTransientTable("orders")).isFalse();
+    }
+
+    @Test
+    void createsAnEmptyShadowReplacingALeftoverOne() throws Exception {
+        TableDefinition table = table(columns(), null);
+        dbManager.createTable(connection, table, "orders__shadow");
+        insertStatuses("orders__shadow", "LEFTOVER");
+
+        assertThat(dbManager.createShadowTable(connection, table)).isEqualTo("orders__shadow");
+        assertThat(statuses("orders__shadow")).isEmpty();
+        assertThat(dbManager.tableExists(connection, "orders")).isFalse();
+    }
+
+    @Test
+    void swapsTheShadowIntoPlaceAndRetiresTheLiveTable() throws Exception {
+        TableDefinition table = table(columns(), List.of(index(false, "customer_id", "status")));
+        dbManager.createTable(connection, table);
+        insertStatuses("orders", "OLD");
+        dbManager.createShadowTable(connection, table);
+        insertStatuses("orders__shadow", "NEW", "NEWER");
+
+        assertThat(dbManager.swapInShadowTable(connection, "orders")).isEqualTo("orders__retired");
+
+        assertThat(statuses("orders")).containsExactly("NEW", "NEWER");
+        assertThat(statuses("orders__retired")).containsExactly("OLD");
+        assertThat(dbManager.tableExists(connection, "orders__shadow")).isFalse();
+
+        // A later reload replaces the retired copy left behind if it was never dropped
+        dbManager.createShadowTable(connection, table);
+        insertStatuses("orders__shadow", "NEWEST");
+        assertThat(dbManager.swapInShadowTable(connection, "orders")).isEqualTo("orders__retired");
+        assertThat(statuses("orders__retired")).containsExactly("NEW", "NEWER");
+    }
+
+    @Test
+    void swappingInANewTableRetiresNothing() throws Exception {
+        dbManager.createShadowTable(connection, table(columns(), null));
+        insertStatuses("orders__shadow", "NEW");
+
+        assertThat(dbManager.swapInShadowTable(connection, "orders")).isNull();
+        assertThat(statuses("orders")).containsExactly("NEW");
+    }
+
+    @Test
+    void restoringUndoesTheSwap() throws Exception {
+        TableDefinition table = table(columns(), null);
+        dbManager.createTable(connection, table);
+        insertStatuses("orders", "OLD");
+        dbManager.createShadowTable(connection, table);
+        insertStatuses("orders__shadow", "NEW");
+        String retiredName = dbManager.swapInShadowTable(connection, "orders");
+
+        dbManager.restoreRetiredTable(connection, "orders", retiredName);
+
+        assertThat(statuses("orders")).containsExactly("OLD");
+        assertThat(statuses("orders__shadow")).containsExactly("NEW");
+        assertThat(dbManager.tableExists(connection, "orders__retired")).isFalse();
+    }
+
+    @Test
+    void restoringANewTableRemovesIt() throws Exception {
+        dbManager.createShadowTable(connection, table(columns(), null));
+        dbManager.swapInShadowTable(connection, "orders");
+
+        dbManager.restoreRetiredTable(connection, "orders", null);
+
+        assertThat(dbManager.tableExists(connection, "orders")).isFalse();
+        assertThat(dbManager.tableExists(connection, "orders__shadow")).isTrue();
+    }
+
+    @Test
+    void createsPrimaryKeyUniqueAndIndexDeclarations() throws Exception {
+        ColumnDefinition region = column("region", "string");
+        region.setPrimaryKey(true);
+        ColumnDefinition id = column("id", "int");
+        id.setPrimaryKey(true);
+        ColumnDefinition email = column("email", "string");
+        email.setUnique(true);
+        ColumnDefinition status = column("status", "string");
+        status.setIndex(true);
+        TableDefinition table = table(List.of(region, id, email, status, column("customer_id", "int")),
+                List.of(index(false, "customer_id", "status"), index(true, "customer_id", "email")));
+
+        dbManager.createTable(connection, table);
+
+        assertThat(indexes("orders")).containsExactly(
+                "[U customer_id, U email]", "[U email]", "[U region, U id]", "[customer_id, status]", "[status]");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO orders (region, id, email) VALUES ('eu', 1, 'a@x')");
+            statement.execute("INSERT INTO orders (region, id, email) VALUES ('us', 1, 'b@x')");
+            assertThatThrownBy(() -> statement.execute("INSERT INTO orders (region, id, email) VALUES ('eu', 1, 'c@x')"))
+                    .isInstanceOf(SQLException.class);
+            assertThatThrownBy(() -> statement.execute("INSERT INTO orders (region, id, email) VALUES ('eu', 2, 'a@x')"))
+                    .isInstanceOf(SQLException.class);
+        }
+    }
+
+    @Test
+    void aColumnIndexIsSkippedWhenAKeyAlreadyCoversIt() throws Exception {
+        ColumnDefinition id = column("id", "int");
+        id.setPrimaryKey(true);
+        id.setIndex(true);
+        ColumnDefinition email = column("email", "string");
+        email.setUnique(true);
+        email.setIndex(true);
+
+        dbManager.createTable(connection, table(List.of(id, email), null));
+
+        assertThat(indexes("orders")).containsExactly("[U email]", "[U id]");
+    }
+
+    @Test
+    void recreatingAnExistingTableAddsNoDuplicateIndexes() throws Exception {
+        TableDefinition table = table(columns(), List.of(index(false, "customer_id", "status")));
+        dbManager.createTable(connection, table);
+
+        dbManager.createTable(connection, table);
+
+        assertThat(indexes("orders")).containsExactly("[U id]", "[customer_id, status]");
+    }
+
+    @Test
+    void aShadowGetsItsOwnKeysAndIndexesAlongsideTheLiveTable() throws Exception {
+        TableDefinition table = table(columns(), List.of(index(true, "customer_id", "status")));
+        dbManager.createTable(connection, table);
+
+        dbManager.createShadowTable(connection, table);
+        dbManager.swapInShadowTable(connection, "orders");
+
+        assertThat(indexes("orders")).containsExactly("[U customer_id, U status]", "[U id]");
+        assertThat(indexes("orders__retired")).containsExactly("[U customer_id, U status]", "[U id]");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.micko.data;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseServiceStreamingTest {
+
+    private static final String BY_STATUS = "SELECT id, status FROM orders WHERE status <> :excluded ORDER BY id";
+
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+    private final DatabaseService dbService =
+            new DatabaseService(dataSource, new TableVersions(), new SimpleMeterRegistry(), 16, 2, 100);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long streamedRows;
+
+    @BeforeEach
+    void createTable() throws Exception {
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id INT PRIMARY KEY, status VARCHAR(255))");
+            statement.execute("INSERT INTO orders VALUES (1, 'OPEN'), (2, 'HELD'), (3, 'SHIPPED'), (4, 'OPEN')");
+        }
+    }
+
+    private String stream(String query, Map<String, Object> params, ResultFormat format, Runnable onExecuted)
+            throws Exception {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            streamedRows = dbService.streamSelectQuery(query, params, format, generator, onExecuted);
+        }
+        return json.toString();
+    }
+
+    @Test
+    void streamsRowsAsAnArrayOfObjects() throws Exception {
+        assertThat(stream(BY_STATUS, Map.of("excluded", "HELD"), ResultFormat.ROWS, () -> { }))
+                .isEqualTo("[{\"ID\":1,\"STATUS\":\"OPEN\"},{\"ID\":3,\"STATUS\":\"SHIPPED\"},{\"ID\":4,\"STATUS\":\"OPEN\"}]");
+        assertThat(streamedRows).isEqualTo(3);
+    }
+
+    @Test
+    void streamsColumnarResultsWithTheColumnsOnce() throws Exception {
+        assertThat(stream(BY_STATUS, Map.of("excluded", "OPEN"), ResultFormat.COLUMNAR, () -> { }))
+                .isEqualTo("{\"columns\":[\"ID\",\"STATUS\"],\"rows\":[[2,\"HELD\"],[3,\"SHIPPED\"]]}");
+        assertThat(stream("SELECT id FROM orders WHERE id > 9", Map.of(), ResultFormat.COLUMNAR, () -> { }))
+                .isEqualTo("{\"columns\":[\"ID\"],\"rows\":[]}");
+        assertThat(streamedRows).isZero();
+    }
+
+    @Test
+    void runsTheCallbackAfterTheQueryAndBeforeAnyOutput() throws Exception {
+        StringWriter json = new StringWriter();
+        List<String> outputAtCallback = new ArrayList<>();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            dbService.streamSelectQuery(BY_STATUS, Map.of("excluded", "HELD"), ResultFormat.ROWS, generator,
+                    () -> outputAtCallback.add(json.toString()));
+        }
+
+        assertThat(outputAtCallback).containsExactly("");
+        assertThatThrownBy(() -> stream(BY_STATUS, Map.of(), ResultFormat.ROWS,
+                () -> outputAtCallback.add("unexpected")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing required parameter: excluded");
+        assertThat(outputAtCallback).containsExactly("");
+    }
+
+    @Test
+    void handsRowsOverOneAtATimeInSelectOrder() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Integer> rowsAtCallback = new ArrayList<>();
+
+        long count = dbService.forEachRow(BY_STATUS, Map.of("excluded", "SHIPPED"), rows::add,
+                () -> rowsAtCallback.add(rows.size()));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(rowsAtCallback).containsExactly(0);
+        assertThat(rows).extracting(row -> row.get("ID")).containsExactly(1, 2, 4);
+        assertThat(rows.get(0).keySet()).containsExactly("ID", "STATUS");
+    }
+}
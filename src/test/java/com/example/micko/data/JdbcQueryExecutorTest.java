@@ -0,0 +1,104 @@
+package com.example.micko.data;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcQueryExecutorTest {
+
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+    private final TableVersions tableVersions = new TableVersions();
+    private final JdbcQueryExecutor executor = new JdbcQueryExecutor(dataSource, tableVersions);
+
+    @BeforeEach
+    void createTable() throws Exception {
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id INT PRIMARY KEY, status VARCHAR(255))");
+            statement.execute("INSERT INTO orders VALUES (1, 'OPEN'), (2, 'OPEN'), (3, 'SHIPPED')");
+        }
+    }
+
+    @Test
+    void selectsOneMapPerRowKeyedByColumnLabel() {
+        List<Map<String, Object>> rows = executor.executeSelect(
+                SqlStatement.parse("SELECT id AS \"orderId\", status FROM orders WHERE status = :status ORDER BY id"),
+                Map.of("status", "OPEN"));
+
+        assertThat(rows).containsExactly(Map.of("orderId", 1, "STATUS", "OPEN"), Map.of("orderId", 2, "STATUS", "OPEN"));
+    }
+
+    @Test
+    void selectsColumnsOnceAndOneArrayPerRow() {
+        ColumnarResult result = executor.executeSelectColumnar(
+                SqlStatement.parse("SELECT id, status FROM orders WHERE id >= :from ORDER BY id"), Map.of("from", 2));
+
+        assertThat(result.columns()).containsExactly("ID", "STATUS");
+        assertThat(result.rows()).containsExactly(new Object[]{2, "OPEN"}, new Object[]{3, "SHIPPED"});
+        assertThat(executor.executeSelectColumnar(SqlStatement.parse("SELECT id FROM orders WHERE id > 9"), Map.of()))
+                .isEqualTo(ColumnarResult.empty());
+    }
+
+    @Test
+    void aFailedSelectThrowsInsteadOfReturningNoRows() {
+        assertThatThrownBy(() -> executor.executeSelect(SqlStatement.parse("SELECT * FROM orders WHERE id = :id"), Map.of()))
+                .isInstanceOf(QueryExecutionException.class)
+                .hasMessage("Missing required parameter: id");
+        assertThatThrownBy(() -> executor.executeSelectColumnar(SqlStatement.parse("SELECT * FROM missing"), Map.of()))
+                .isInstanceOf(QueryExecutionException.class);
+    }
+
+    @Test
+    void dmlReportsRowsAffectedOrAnErrorAndBumpsTheTableEitherWay() {
+        long stamp = tableVersions.stamp(List.of("orders"));
+
+        assertThat(executor.executeDml(SqlStatement.parse("UPDATE orders SET status = :status WHERE status = 'OPEN'"),
+                Map.of("status", "HELD"))).isEqualTo(Map.of("rowsAffected", 2));
+        long afterUpdate = tableVersions.stamp(List.of("orders"));
+        assertThat(afterUpdate).isNotEqualTo(stamp);
+
+        Map<String, Object> duplicate = executor.executeDml(
+                SqlStatement.parse("INSERT INTO orders (id, status) VALUES (:id, :status)"), Map.of("id", 1, "status", "NEW"));
+        assertThat(duplicate).containsOnlyKeys("error");
+        assertThat(tableVersions.stamp(List.of("orders"))).isNotEqualTo(afterUpdate);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", 4);
+        assertThat(executor.executeDml(SqlStatement.parse("INSERT INTO orders (id, status) VALUES (:id, :status)"), params))
+                .isEqualTo(Map.of("error", "Missing required parameter: status"));
+    }
+
+    @Test
+    void aSelectInsideATransactionSeesItsUncommittedWrites() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        List<Map<String, Object>> rows = transaction.execute(status -> {
+            try (Statement statement = DataSourceUtils.getConnection(dataSource).createStatement()) {
+                statement.execute("INSERT INTO orders VALUES (4, 'DRAFT')");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            List<Map<String, Object>> drafts = executor.executeSelect(
+                    SqlStatement.parse("SELECT id FROM orders WHERE status = :status"), Map.of("status", "DRAFT"));
+            status.setRollbackOnly();
+            return drafts;
+        });
+
+        assertThat(rows).containsExactly(Map.of("ID", 4));
+        assertThat(executor.executeSelect(SqlStatement.parse("SELECT id FROM orders WHERE status = 'DRAFT'"), Map.of()))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.micko.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultFormatTest {
+
+    @Test
+    void anExplicitFormatFlagWinsOverTheAcceptHeader() {
+        assertThat(ResultFormat.resolve(" Columnar ", null)).isEqualTo(ResultFormat.COLUMNAR);
+        assertThat(ResultFormat.resolve("rows", ResultFormat.COLUMNAR_MEDIA_TYPE)).isEqualTo(ResultFormat.ROWS);
+        assertThat(ResultFormat.resolve("csv", ResultFormat.COLUMNAR_MEDIA_TYPE)).isEqualTo(ResultFormat.ROWS);
+    }
+
+    @Test
+    void negotiatesTheColumnarMediaTypeFromTheAcceptHeader() {
+        assertThat(ResultFormat.resolve(null, "application/json, application/vnd.micko.columnar+json;q=0.9"))
+                .isEqualTo(ResultFormat.COLUMNAR);
+        assertThat(ResultFormat.resolve(" ", "Application/VND.Micko.Columnar+JSON")).isEqualTo(ResultFormat.COLUMNAR);
+        assertThat(ResultFormat.resolve(null, "application/json")).isEqualTo(ResultFormat.ROWS);
+        assertThat(ResultFormat.resolve(null, null)).isEqualTo(ResultFormat.ROWS);
+    }
+
+    @Test
+    void streamsEachFormatWithItsOwnContentType() {
+        assertThat(ResultFormat.COLUMNAR.contentType()).isEqualTo("application/vnd.micko.columnar+json");
+        assertThat(ResultFormat.ROWS.contentType()).isEqualTo("application/json");
+    }
+}
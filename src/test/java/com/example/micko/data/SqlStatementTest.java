@@ -0,0 +1,108 @@
+package com.example.micko.data;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class SqlStatementTest {
+
+    @Test
+    void replacesEachParameterUseWithAPlaceholderInOrder() {
+        SqlStatement statement = SqlStatement.parse(
+                "SELECT * FROM orders WHERE customer_id = :customer AND (status = :status OR owner = :customer)");
+
+        assertThat(statement.jdbcSql())
+                .isEqualTo("SELECT * FROM orders WHERE customer_id = ? AND (status = ? OR owner = ?)");
+        assertThat(statement.parameterPositions()).containsExactly("customer", "status", "customer");
+        assertThat(statement.parameterNames()).containsExactly("customer", "status");
+    }
+
+    @Test
+    void leavesCastsAndColonsInsideLiteralsAlone() {
+        SqlStatement statement = SqlStatement.parse(
+                "SELECT id::text FROM orders WHERE opened_at > '10:30' AND note <> 'it''s :not_a_param' AND id = :id");
+
+        assertThat(statement.jdbcSql()).isEqualTo(
+                "SELECT id::text FROM orders WHERE opened_at > '10:30' AND note <> 'it''s :not_a_param' AND id = ?");
+        assertThat(statement.parameterPositions()).containsExactly("id");
+    }
+
+    @Test
+    void aLoneColonIsNotAParameter() {
+        SqlStatement statement = SqlStatement.parse("SELECT a : b FROM orders");
+
+        assertThat(statement.jdbcSql()).isEqualTo("SELECT a : b FROM orders");
+        assertThat(statement.parameterNames()).isEmpty();
+    }
+
+    @Test
+    void reportsMissingParametersInFirstUseOrder() {
+        SqlStatement statement = SqlStatement.parse("SELECT * FROM orders WHERE a = :a AND b = :b AND c = :c AND a2 = :a");
+        Map<String, Object> params = new HashMap<>();
+        params.put("b", null);
+
+        assertThat(statement.missingParameters(params)).containsExactly("a", "c");
+    }
+
+    @Test
+    void classifiesDmlAndFindsTheTargetTable() {
+        SqlStatement insert = SqlStatement.parse("  insert INTO public.Orders (id) SELECT id FROM staging");
+        assertThat(insert.dml()).isTrue();
+        assertThat(insert.isSelect()).isFalse();
+        assertThat(insert.targetTable()).isEqualTo("orders");
+        assertThat(insert.tables()).containsExactly("orders", "staging");
+
+        SqlStatement update = SqlStatement.parse("UPDATE orders SET status = :status WHERE id = :id");
+        assertThat(update.dml()).isTrue();
+        assertThat(update.targetTable()).isEqualTo("orders");
+
+        assertThat(SqlStatement.parse("MERGE INTO orders KEY (id) VALUES (:id)").dml()).isTrue();
+        assertThat(SqlStatement.parse("DELETE FROM orders WHERE id = :id").targetTable()).isEqualTo("orders");
+
+        SqlStatement select = SqlStatement.parse("WITH recent AS (SELECT * FROM orders) SELECT * FROM recent");
+        assertThat(select.dml()).isFalse();
+        assertThat(select.targetTable()).isNull();
+    }
+
+    @Test
+    void collectsJoinedTablesWithoutSchemaInLowerCase() {
+        SqlStatement statement = SqlStatement.parse(
+                "SELECT * FROM sales.Orders o JOIN customers c ON o.customer_id = c.id LEFT JOIN (SELECT * FROM notes) n ON true");
+
+        assertThat(statement.tables()).containsExactly("customers", "notes", "orders");
+        assertThat(statement.tablesComplete()).isTrue();
+    }
+
+    @Test
+    void flagsCommaJoinsAndQuotedNamesAsIncomplete() {
+        assertThat(SqlStatement.parse("SELECT * FROM orders o, customers c WHERE o.customer_id = c.id").tablesComplete())
+                .isFalse();
+        assertThat(SqlStatement.parse("SELECT * FROM orders AS o , customers").tablesComplete()).isFalse();
+        assertThat(SqlStatement.parse("SELECT * FROM \"Orders\"").tablesComplete()).isFalse();
+        assertThat(SqlStatement.parse("SELECT a, b FROM orders").tablesComplete()).isTrue();
+    }
+
+    @Test
+    void bindsParametersByPositionAndRejectsAMissingOne() throws Exception {
+        SqlStatement statement = SqlStatement.parse("SELECT :a, :b, :a");
+        PreparedStatement ps = mock(PreparedStatement.class);
+
+        statement.bind(ps, Map.of("a", 1, "b", "x"));
+
+        InOrder inOrder = inOrder(ps);
+        inOrder.verify(ps).setObject(1, 1);
+        inOrder.verify(ps).setObject(2, "x");
+        inOrder.verify(ps).setObject(3, 1);
+        assertThatThrownBy(() -> statement.bind(ps, Map.of("a", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing required parameter: b");
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.micko.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableDiffTest {
+
+    private final DatabaseManager dbManager = new DatabaseManager(100);
+    private Connection connection;
+
+    @BeforeEach
+    void openDatabase() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL");
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    private static ColumnDefinition column(String name, String type) {
+        ColumnDefinition column = new ColumnDefinition();
+        column.setName(name);
+        column.setType(type);
+        return column;
+    }
+
+    private static TableDefinition orders() {
+        TableDefinition table = new TableDefinition();
+        table.setName("orders");
+        table.setColumns(List.of(column("id", "int"), column("status", "string"), column("amount", "double"),
+                column("updated_at", "timestamp"), column("active", "boolean")));
+        table.setKeyColumn("id");
+        return table;
+    }
+
+    private static Map<String, Object> row(Object id, Object status, Object amount, Object updatedAt, Object active) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("status", status);
+        row.put("amount", amount);
+        row.put("updated_at", updatedAt);
+        row.put("active", active);
+        return row;
+    }
+
+    private Map<Integer, String> statusById() throws Exception {
+        Map<Integer, String> rows = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, status FROM orders ORDER BY id")) {
+            while (resultSet.next()) {
+                rows.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void normalizesNumbersByValue() {
+        assertThat(TableDiff.normalize(1, "int")).isEqualTo("1");
+        assertThat(TableDiff.normalize("1", "integer")).isEqualTo("1");
+        assertThat(TableDiff.normalize(new BigDecimal("1.00"), "long")).isEqualTo("1");
+        assertThat(TableDiff.normalize(10.0d, "double")).isEqualTo("10");
+        assertThat(TableDiff.normalize("2.50", "float")).isEqualTo(TableDiff.normalize(2.5d, "double"));
+        assertThat(TableDiff.normalize(" 42 ", "int")).isEqualTo("42");
+    }
+
+    @Test
+    void normalizesTimestampsAndDatesToTheirIsoForm() {
+        String expected = LocalDateTime.of(2024, 1, 5, 10, 0).toString();
+        assertThat(TableDiff.normalize(Timestamp.valueOf("2024-01-05 10:00:00"), "timestamp")).isEqualTo(expected);
+        assertThat(TableDiff.normalize("2024-01-05 10:00:00", "timestamp")).isEqualTo(expected);
+        assertThat(TableDiff.normalize("2024-01-05T10:00", "timestamp")).isEqualTo(expected);
+        assertThat(TableDiff.normalize("2024-01-05T10:00:00+02:00", "timestamp")).isEqualTo(expected);
+        assertThat(TableDiff.normalize(LocalDateTime.of(2024, 1, 5, 10, 0), "timestamp")).isEqualTo(expected);
+
+        assertThat(TableDiff.normalize(java.sql.Date.valueOf("2024-01-05"), "date")).isEqualTo("2024-01-05");
+        assertThat(TableDiff.normalize(LocalDate.of(2024, 1, 5), "date")).isEqualTo("2024-01-05");
+        assertThat(TableDiff.normalize("2024-01-05", "date")).isEqualTo("2024-01-05");
+    }
+
+    @Test
+    void normalizesBooleansCaseInsensitively() {
+        assertThat(TableDiff.normalize(Boolean.TRUE, "boolean")).isEqualTo("true");
+        assertThat(TableDiff.normalize("TRUE", "boolean")).isEqualTo("true");
+        assertThat(TableDiff.normalize(" False ", "boolean")).isEqualTo("false");
+    }
+
+    @Test
+    void keepsUnparseableValuesAsTextAndNullAsNull() {
+        assertThat(TableDiff.normalize("n/a", "int")).isEqualTo("n/a");
+        assertThat(TableDiff.normalize("yesterday", "timestamp")).isEqualTo("yesterday");
+        assertThat(TableDiff.normalize(null, "int")).isNull();
+    }
+
+    @Test
+    void countsInsertsUpdatesDeletesAndUnchangedRows() throws Exception {
+        TableDefinition table = orders();
+        dbManager.createTable(connection, table);
+        dbManager.insertRows(connection, "orders", List.of(
+                row(1, "OPEN", 10.0, Timestamp.valueOf("2024-01-05 10:00:00"), true),
+                row(2, "OPEN", 20.0, Timestamp.valueOf("2024-01-05 11:00:00"), true),
+                row(3, "OPEN", 30.0, Timestamp.valueOf("2024-01-05 12:00:00"), false),
+                row(4, "HELD", 40.5, Timestamp.valueOf("2024-01-05 13:00:00"), false)));
+
+        TableDiff.Result result;
+        try (TableDiff diff = dbManager.beginDiff(connection, table)) {
+            // Row 1 is unchanged, only typed the way YAML scalars arrive
+            diff.apply(List.of(
+                    row(1, "OPEN", 10, "2024-01-05 10:00:00", "TRUE"),
+                    row(2, "SHIPPED", 20, "2024-01-05T11:00", true)));
+            diff.apply(List.of(
+                    row(4, "HELD", "40.50", "2024-01-05 13:00:00", false),
+                    row(5, "OPEN", 50, "2024-01-06 09:30:00", true)));
+            result = diff.finish(1);
+        }
+
+        assertThat(result).isEqualTo(new TableDiff.Result(1, 1, 1, 2));
+        assertThat(result.changedRows()).isEqualTo(3);
+        assertThat(statusById()).containsExactly(
+                Map.entry(1, "OPEN"), Map.entry(2, "SHIPPED"), Map.entry(4, "HELD"), Map.entry(5, "OPEN"));
+    }
+
+    @Test
+    void emptyDataDeletesEveryLiveRowInBatches() throws Exception {
+        TableDefinition table = orders();
+        dbManager.createTable(connection, table);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            rows.add(row(id, "OPEN", id, null, true));
+        }
+        dbManager.insertRows(connection, "orders", rows);
+
+        try (TableDiff diff = dbManager.beginDiff(connection, table)) {
+            assertThat(diff.finish(2)).isEqualTo(new TableDiff.Result(0, 0, 5, 0));
+        }
+        assertThat(statusById()).isEmpty();
+    }
+
+    @Test
+    void rejectsAKeyColumnThatIsNotDeclared() throws Exception {
+        TableDefinition table = orders();
+        dbManager.createTable(connection, table);
+        table.setKeyColumn("order_number");
+
+        assertThatThrownBy(() -> dbManager.beginDiff(connection, table))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("order_number");
+    }
+}
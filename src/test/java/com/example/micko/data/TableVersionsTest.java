@@ -0,0 +1,66 @@
+package com.example.micko.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableVersionsTest {
+
+    private final TableVersions tableVersions = new TableVersions();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void aWriteChangesTheStampOfEverySetContainingItsTable() {
+        long orders = tableVersions.stamp(List.of("orders"));
+        long both = tableVersions.stamp(List.of("orders", "customers"));
+        long customers = tableVersions.stamp(List.of("customers"));
+
+        tableVersions.bump(List.of("ORDERS"));
+
+        assertThat(tableVersions.stamp(List.of("orders"))).isNotEqualTo(orders);
+        assertThat(tableVersions.stamp(List.of("orders", "customers"))).isNotEqualTo(both);
+        assertThat(tableVersions.stamp(List.of("customers"))).isEqualTo(customers);
+    }
+
+    @Test
+    void aWriteToUnknownTablesChangesEveryStamp() {
+        long customers = tableVersions.stamp(List.of("customers"));
+
+        tableVersions.bump(List.of());
+
+        assertThat(tableVersions.stamp(List.of("customers"))).isNotEqualTo(customers);
+    }
+
+    @Test
+    void bumpsAfterTheSurroundingTransactionCompletes() {
+        long stamp = tableVersions.stamp(List.of("orders"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        tableVersions.bumpAfterCompletion(List.of("orders"));
+        assertThat(tableVersions.stamp(List.of("orders"))).isEqualTo(stamp);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(tableVersions.stamp(List.of("orders"))).isNotEqualTo(stamp);
+    }
+
+    @Test
+    void bumpsImmediatelyOutsideATransaction() {
+        long stamp = tableVersions.stamp(List.of("orders"));
+
+        tableVersions.bumpAfterCompletion(List.of("orders"));
+
+        assertThat(tableVersions.stamp(List.of("orders"))).isNotEqualTo(stamp);
+    }
+}
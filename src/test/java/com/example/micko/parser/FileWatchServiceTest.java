@@ -0,0 +1,100 @@
+package com.example.micko.parser;
+
+import com.example.micko.rule.LoadReport;
+import com.example.micko.rule.RuleCacheManager;
+import com.example.micko.storage.LocalStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileWatchServiceTest {
+
+    private static final LoadReport EMPTY_REPORT = new LoadReport(List.of(), 0);
+
+    @TempDir
+    Path folder;
+
+    private final RuleCacheManager cacheManager = mock(RuleCacheManager.class);
+    private final LocalStorageService storageService = mock(LocalStorageService.class);
+    private final List<Set<String>> reloads = new CopyOnWriteArrayList<>();
+    private FileWatchService watchService;
+
+    @BeforeEach
+    void recordReloads() {
+        when(storageService.getFolderPath()).thenReturn(folder);
+        when(cacheManager.reloadFiles(anyCollection())).thenAnswer(invocation -> {
+            reloads.add(Set.copyOf(invocation.<Collection<String>>getArgument(0)));
+            return EMPTY_REPORT;
+        });
+    }
+
+    @AfterEach
+    void stopWatching() throws Exception {
+        if (watchService != null) {
+            watchService.destroy();
+        }
+    }
+
+    @Test
+    void reloadsABurstOfChangedYamlFilesOnceEventsGoQuiet() throws Exception {
+        watchService = new FileWatchService(cacheManager, storageService, true, 300);
+
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(folder.resolve("users.yaml"), "tables: [] # " + i);
+        }
+        Files.writeString(folder.resolve("orders.yaml"), "tables: []");
+        Files.writeString(folder.resolve("notes.txt"), "not a rule file");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> !reloads.isEmpty());
+        Thread.sleep(500);
+        assertThat(reloads).containsExactly(Set.of("users.yaml", "orders.yaml"));
+        verify(cacheManager, never()).loadRules();
+    }
+
+    @Test
+    void keepsWatchingAfterAFailedReload() throws Exception {
+        doThrow(new IllegalStateException("storage unavailable"))
+                .doAnswer(invocation -> {
+                    reloads.add(Set.copyOf(invocation.<Collection<String>>getArgument(0)));
+                    return EMPTY_REPORT;
+                })
+                .when(cacheManager).reloadFiles(anyCollection());
+        watchService = new FileWatchService(cacheManager, storageService, true, 50);
+
+        Files.writeString(folder.resolve("users.yaml"), "tables: []");
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> verify(cacheManager).reloadFiles(anyCollection()));
+        Thread.sleep(200);
+        Files.writeString(folder.resolve("orders.yaml"), "tables: []");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(reloads).containsExactly(Set.of("orders.yaml")));
+    }
+
+    @Test
+    void aDisabledWatcherNeverReloads() throws Exception {
+        watchService = new FileWatchService(cacheManager, storageService, false, 50);
+
+        Files.writeString(folder.resolve("users.yaml"), "tables: []");
+        Thread.sleep(300);
+
+        assertThat(reloads).isEmpty();
+        verify(storageService, never()).getFolderPath();
+    }
+}
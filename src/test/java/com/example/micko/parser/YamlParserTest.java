@@ -0,0 +1,114 @@
+package com.example.micko.parser;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YamlParserTest {
+
+    private static final String YAML = """
+            version: 2
+            tables:
+              - name: users
+                data:
+                  - userid: u1
+                    password: p1
+                  - userid: u2
+                    password: p2
+                  - userid: u3
+                    password: p3
+                columns:
+                  - name: userid
+                    type: string
+              - name: empty
+                data: []
+              - name: orders
+                rules:
+                  - action: findOrder
+                data:
+                  - id: 1
+                    lines: [a, b]
+            """;
+
+    private final YamlParser parser = new YamlParser();
+
+    private static InputStream yaml(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Chunk(int tableIndex, List<Map<String, Object>> rows) {
+    }
+
+    private List<Chunk> stream(String content, int chunkSize) throws Exception {
+        List<Chunk> chunks = new ArrayList<>();
+        parser.streamTableData(yaml(content), chunkSize, (tableIndex, rows) -> chunks.add(new Chunk(tableIndex, rows)));
+        return chunks;
+    }
+
+    @Test
+    void skeletonKeepsEveryDefinitionButEmptiesTheData() {
+        ObjectNode skeleton = parser.parseYamlSkeleton(yaml(YAML));
+
+        assertThat(skeleton.get("version").asInt()).isEqualTo(2);
+        assertThat(skeleton.get("tables")).hasSize(3);
+        assertThat(skeleton.get("tables").get(0).get("name").asText()).isEqualTo("users");
+        assertThat(skeleton.get("tables").get(0).get("data")).isEmpty();
+        assertThat(skeleton.get("tables").get(0).get("columns").get(0).get("type").asText()).isEqualTo("string");
+        assertThat(skeleton.get("tables").get(2).get("rules").get(0).get("action").asText()).isEqualTo("findOrder");
+        assertThat(skeleton.get("tables").get(2).get("data")).isEmpty();
+    }
+
+    @Test
+    void skeletonOfAnEmptyOrNonMappingDocumentIsEmpty() {
+        assertThat(parser.parseYamlSkeleton(yaml(""))).isEmpty();
+        assertThat(parser.parseYamlSkeleton(yaml("- just\n- a list\n"))).isEmpty();
+    }
+
+    @Test
+    void streamsRowsInBoundedChunksTaggedWithTheirTableIndex() throws Exception {
+        List<Chunk> chunks = stream(YAML, 2);
+
+        assertThat(chunks).extracting(Chunk::tableIndex).containsExactly(0, 0, 2);
+        assertThat(chunks.get(0).rows()).containsExactly(
+                Map.of("userid", "u1", "password", "p1"), Map.of("userid", "u2", "password", "p2"));
+        assertThat(chunks.get(1).rows()).containsExactly(Map.of("userid", "u3", "password", "p3"));
+        assertThat(chunks.get(2).rows()).containsExactly(Map.of("id", 1, "lines", List.of("a", "b")));
+    }
+
+    @Test
+    void aFullLastChunkIsNotFollowedByAnEmptyOne() throws Exception {
+        assertThat(stream(YAML, 3)).extracting(chunk -> chunk.rows().size()).containsExactly(3, 1);
+    }
+
+    @Test
+    void streamedExportReadsBackAsTheSameTable() throws Exception {
+        Map<String, Object> table = new LinkedHashMap<>();
+        table.put("name", "users");
+        table.put("reloadMode", "diff");
+        table.put("data", List.of());
+        table.put("columns", List.of(Map.of("name", "userid", "type", "string")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        parser.writeTableYaml(out, table, writer -> {
+            writer.write(Map.of("userid", "u1"));
+            writer.write(Map.of("userid", "u2"));
+        });
+
+        String written = out.toString(StandardCharsets.UTF_8);
+        ObjectNode skeleton = parser.parseYamlSkeleton(yaml(written));
+        assertThat(skeleton.get("tables").get(0).get("reloadMode").asText()).isEqualTo("diff");
+        assertThat(skeleton.get("tables").get(0).get("columns").get(0).get("name").asText()).isEqualTo("userid");
+        assertThat(stream(written, 10)).singleElement().extracting(Chunk::rows)
+                .isEqualTo(List.of(Map.of("userid", "u1"), Map.of("userid", "u2")));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.micko.rule;
+
+import com.example.micko.rule.IndexAdvisor.Candidate;
+import com.example.micko.rule.IndexAdvisor.Predicate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexAdvisorTest {
+
+    private static final Map<String, Map<String, String>> COLUMNS = Map.of(
+            "orders", Map.of("id", "INT", "customer_id", "INT", "status", "VARCHAR", "created_at", "TIMESTAMP"),
+            "customers", Map.of("customer_key", "INT", "region", "VARCHAR"));
+
+    @Test
+    void extractsEqualityAndRangePredicatesWithParameters() {
+        List<Predicate> predicates = IndexAdvisor.extractPredicates(
+                "SELECT * FROM orders WHERE customer_id = :customerId AND created_at >= :since", COLUMNS);
+
+        assertThat(predicates).containsExactly(
+                new Predicate("orders", "customer_id", true, "customerId"),
+                new Predicate("orders", "created_at", false, "since"));
+    }
+
+    @Test
+    void treatsInAsEqualityAndBetweenAsRange() {
+        List<Predicate> predicates = IndexAdvisor.extractPredicates(
+                "SELECT id FROM orders WHERE status IN ('OPEN', 'HELD') AND id BETWEEN 1 AND 100", COLUMNS);
+
+        assertThat(predicates).containsExactly(
+                new Predicate("orders", "status", true, null),
+                new Predicate("orders", "id", false, null));
+    }
+
+    @Test
+    void resolvesAliasedColumnsAcrossJoins() {
+        List<Predicate> predicates = IndexAdvisor.extractPredicates(
+                "SELECT o.id FROM orders o JOIN customers AS c ON c.customer_key = o.customer_id "
+                        + "WHERE c.region = :region AND o.status = 'OPEN'", COLUMNS);
+
+        assertThat(predicates).containsExactly(
+                new Predicate("customers", "region", true, "region"),
+                new Predicate("orders", "status", true, null));
+    }
+
+    @Test
+    void ignoresColumnsAndTablesThatAreNotDefined() {
+        List<Predicate> predicates = IndexAdvisor.extractPredicates(
+                "SELECT * FROM orders WHERE unknown = :value AND status = :status", COLUMNS);
+
+        assertThat(predicates).containsExactly(new Predicate("orders", "status", true, "status"));
+        assertThat(IndexAdvisor.extractPredicates("SELECT * FROM audit WHERE id = :id", COLUMNS)).isEmpty();
+    }
+
+    @Test
+    void skipsWhereClausesContainingOr() {
+        assertThat(IndexAdvisor.extractPredicates(
+                "SELECT * FROM orders WHERE customer_id = :customerId OR status = :status", COLUMNS)).isEmpty();
+        assertThat(IndexAdvisor.extractPredicates(
+                "SELECT * FROM orders WHERE customer_id = :customerId and (status = 'OPEN' or status = 'HELD')", COLUMNS))
+                .isEmpty();
+    }
+
+    @Test
+    void stopsTheWhereClauseAtOrderByWithoutMistakingItForOr() {
+        List<Predicate> predicates = IndexAdvisor.extractPredicates(
+                "SELECT * FROM orders WHERE status = :status ORDER BY created_at", COLUMNS);
+
+        assertThat(predicates).containsExactly(new Predicate("orders", "status", true, "status"));
+    }
+
+    @Test
+    void buildsSortedEqualityColumnsFollowedByOneRangeColumn() {
+        List<Candidate> candidates = IndexAdvisor.toCandidates(List.of(
+                new Predicate("orders", "status", true, "status"),
+                new Predicate("orders", "created_at", false, "since"),
+                new Predicate("orders", "customer_id", true, "customerId"),
+                new Predicate("orders", "id", false, "maxId"),
+                new Predicate("customers", "region", true, "region")));
+
+        assertThat(candidates).containsExactly(
+                new Candidate("orders", List.of("customer_id", "status", "created_at"), 2),
+                new Candidate("customers", List.of("region"), 1));
+    }
+
+    @Test
+    void doesNotRepeatAnEqualityColumnAsTheRangeColumn() {
+        List<Candidate> candidates = IndexAdvisor.toCandidates(List.of(
+                new Predicate("orders", "status", true, "status"),
+                new Predicate("orders", "status", false, null)));
+
+        assertThat(candidates).containsExactly(new Candidate("orders", List.of("status"), 1));
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.ColumnDefinition;
+import com.example.micko.data.IndexDefinition;
+import com.example.micko.data.TableDefinition;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RuleCacheManagerTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+
+    @BeforeEach
+    void createFixture() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private LoadReport.FileResult load(String yaml) {
+        fixture.storage.put("users.yaml", yaml);
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+        assertThat(report.files()).hasSize(1);
+        LoadReport.FileResult file = report.files().get(0);
+        assertThat(file.error()).isNull();
+        return file;
+    }
+
+    private List<Map<String, Object>> passwords() {
+        return fixture.query("SELECT userid, password FROM user_table ORDER BY userid");
+    }
+
+    @Test
+    void dataOnlyChangeOnADiffTableWritesOnlyTheChangedRows() {
+        load(UserTableYaml.table("user_table").diffOn("userid").users(3).build());
+
+        LoadReport.FileResult reload = load(UserTableYaml.table("user_table").diffOn("userid")
+                .user("user1", "secret1").user("user2", "rotated").user("user4", "secret4").build());
+
+        // user2 updated, user3 deleted, user4 inserted; user1 untouched
+        assertThat(reload.rowsLoaded()).isEqualTo(3);
+        assertThat(passwords()).extracting(row -> row.get("PASSWORD"))
+                .containsExactly("secret1", "rotated", "secret4");
+    }
+
+    @Test
+    void indexChangeOnADiffTableRebuildsTheTable() {
+        load(UserTableYaml.table("user_table").diffOn("userid").users(3).build());
+
+        LoadReport.FileResult reload = load(UserTableYaml.table("user_table").diffOn("userid").users(3)
+                .index("deviceid").build());
+
+        assertThat(reload.rowsLoaded()).isEqualTo(3);
+        assertThat(fixture.query("SELECT COUNT(*) AS n FROM information_schema.indexes "
+                + "WHERE LOWER(table_name) = 'user_table' AND index_type_name <> 'PRIMARY KEY'"))
+                .extracting(row -> ((Number) row.get("N")).intValue())
+                .containsExactly(1);
+    }
+
+    @Test
+    void keyColumnChangeOnADiffTableRebuildsTheTable() {
+        load(UserTableYaml.table("user_table").diffOn("userid").users(3).build());
+
+        LoadReport.FileResult reload = load(UserTableYaml.table("user_table").diffOn("deviceid").users(3).build());
+
+        assertThat(reload.rowsLoaded()).isEqualTo(3);
+        assertThat(passwords()).hasSize(3);
+    }
+
+    @Test
+    void fileDeclaringATableTwiceIsRejectedAndLeavesTheTableAlone() {
+        load(UserTableYaml.table("user_table").users(2).build());
+
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(5).and("USER_TABLE").users(1).build());
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).singleElement().satisfies(file -> {
+            assertThat(file.success()).isFalse();
+            assertThat(file.error()).contains("USER_TABLE", "more than once");
+        });
+        assertThat(passwords()).hasSize(2);
+    }
+
+    @Test
+    void filesDeclaringTheSameTableLoadItOneAfterTheOther() throws Exception {
+        fixture.close();
+        fixture = new RuleLoadFixture(changeLogDirectory, 4);
+        for (int round = 0; round < 5; round++) {
+            for (int file = 1; file <= 4; file++) {
+                UserTableYaml yaml = UserTableYaml.table("user_table");
+                for (int user = 1; user <= 300; user++) {
+                    yaml.user("f" + file + "-u" + user, "round" + round);
+                }
+                fixture.storage.put("users" + file + ".yaml", yaml.build());
+            }
+
+            LoadReport report = fixture.ruleCacheManager.loadRules();
+
+            assertThat(report.failureCount()).isZero();
+            List<Map<String, Object>> rows = fixture.query("SELECT userid, password FROM user_table");
+            assertThat(rows).hasSize(300);
+            // Every row comes from the same file, whichever of them loaded last
+            assertThat(rows).extracting(row -> row.get("USERID").toString().substring(0, 2)).containsOnly(
+                    rows.get(0).get("USERID").toString().substring(0, 2));
+        }
+    }
+
+    @Test
+    void aFailingFileIsReportedWithoutBlockingTheOthers() {
+        String broken = fixture.storage.put("broken.yaml", "tables: [");
+        String users = fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(2).build());
+        String orders = fixture.storage.put("orders.yaml", UserTableYaml.table("order_table").users(3).build());
+
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).extracting(LoadReport.FileResult::fileKey).containsExactly(broken, orders, users);
+        assertThat(report.failureCount()).isEqualTo(1);
+        assertThat(report.changedCount()).isEqualTo(2);
+        assertThat(report.files()).filteredOn(LoadReport.FileResult::success)
+                .extracting(LoadReport.FileResult::tables, LoadReport.FileResult::rowsLoaded)
+                .containsExactly(tuple(List.of("order_table"), 3L), tuple(List.of("user_table"), 2L));
+        assertThat(fixture.ruleCacheManager.getLastLoadReport()).isSameAs(report);
+        assertThat(passwords()).hasSize(2);
+        assertThat(fixture.query("SELECT userid FROM order_table")).hasSize(3);
+    }
+
+    @Test
+    void changedFileIsFetchedOnceAndUnchangedFilesNotAtAll() {
+        String key = fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(3).build());
+        fixture.ruleCacheManager.loadRules();
+        assertThat(fixture.storage.reads(key)).isEqualTo(1);
+
+        fixture.ruleCacheManager.loadRules();
+        assertThat(fixture.storage.reads(key)).isEqualTo(1);
+
+        load(UserTableYaml.table("user_table").users(4).build());
+        assertThat(fixture.storage.reads(key)).isEqualTo(2);
+        assertThat(passwords()).hasSize(4);
+    }
+
+    @Test
+    void reuploadedIdenticalContentIsFetchedButNotReloaded() throws Exception {
+        String yaml = UserTableYaml.table("user_table").users(3).build();
+        String key = fixture.storage.put("users.yaml", yaml);
+        fixture.ruleCacheManager.loadRules();
+        fixture.execute("INSERT INTO user_table (userid, password) VALUES ('marker', 'kept')");
+
+        fixture.storage.put("users.yaml", yaml);
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).singleElement().satisfies(file -> {
+            assertThat(file.changed()).isFalse();
+            assertThat(file.tables()).containsExactly("user_table");
+        });
+        assertThat(report.changedCount()).isZero();
+        assertThat(fixture.storage.reads(key)).isEqualTo(2);
+        assertThat(passwords()).hasSize(4);
+
+        // The new ETag was recorded, so the next refresh does not fetch the file again
+        fixture.ruleCacheManager.loadRules();
+        assertThat(fixture.storage.reads(key)).isEqualTo(2);
+    }
+
+    @Test
+    void aFileThatFailedToLoadIsRetriedOnTheNextRefresh() {
+        String key = fixture.storage.put("users.yaml", "tables: [");
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isEqualTo(1);
+
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isEqualTo(1);
+        assertThat(fixture.storage.reads(key)).isEqualTo(2);
+
+        load(UserTableYaml.table("user_table").users(2).build());
+        assertThat(passwords()).hasSize(2);
+    }
+
+    @Test
+    void reloadingNamedFilesSkipsThoseThatNoLongerExist() {
+        String key = fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(2).build());
+
+        LoadReport report = fixture.ruleCacheManager.reloadFiles(List.of(fixture.storage.key("gone.yaml"), key));
+
+        assertThat(report.files()).extracting(LoadReport.FileResult::fileKey).containsExactly(key);
+        assertThat(report.changedCount()).isEqualTo(1);
+        assertThat(passwords()).hasSize(2);
+    }
+
+    @Test
+    void definitionsAreBoundToTypedTablesAndRules() {
+        load(UserTableYaml.table("user_table").diffOn("userid").index("password").cacheFindUser(30, 5).users(1).build());
+
+        TableDefinition table = fixture.ruleCacheManager.getTableDefinition("user_table");
+        assertThat(table.getReloadMode()).isEqualTo("diff");
+        assertThat(table.getKeyColumn()).isEqualTo("userid");
+        assertThat(table.getColumns()).extracting(ColumnDefinition::getName).startsWith("userid", "password");
+        assertThat(table.getColumns().get(0).isPrimaryKey()).isTrue();
+        assertThat(table.getIndexes()).singleElement().extracting(IndexDefinition::getColumns).isEqualTo(List.of("password"));
+        assertThat(table.getRules()).extracting(Rule::getAction)
+                .containsExactly("findUser", "findDevice", "addUser", "registerUser", "changePassword");
+
+        Rule findUser = fixture.ruleCacheManager.getRule("user_table", "findUser");
+        assertThat(findUser.getCache().getTtlSeconds()).isEqualTo(30);
+        assertThat(findUser.getExecutionQuery().getSuccessMessage()).isEqualTo("Found.");
+        assertThat(fixture.ruleCacheManager.getRule("user_table", "findDevice").getValidations())
+                .singleElement().satisfies(validation -> {
+                    assertThat(validation.getType()).isEqualTo("query");
+                    assertThat(validation.getError()).containsEntry("statusCode", 404);
+                });
+    }
+
+    @Test
+    void definitionsFailingTheSchemaAreRejectedAndLeaveTheTableAlone() {
+        load(UserTableYaml.table("user_table").users(2).build());
+
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(3).build()
+                .replace("- name: \"user_table\"\n", "- name: \"user_table\"\n  owner: \"ops\"\n"));
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).singleElement().extracting(LoadReport.FileResult::error)
+                .asString().startsWith("Schema validation failed");
+        assertThat(passwords()).hasSize(2);
+    }
+
+    @Test
+    void aStreamedRowFailingTheSchemaFailsTheLoadAndLeavesTheTableAlone() {
+        load(UserTableYaml.table("user_table").users(2).build());
+
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(3).build()
+                .replace("    password: \"secret3\"\n", "    password: \"secret3\"\n    nickname: \"three\"\n"));
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.failureCount()).isEqualTo(1);
+        assertThat(report.files().get(0).error()).contains("Schema validation failed for a row of table user_table");
+        assertThat(passwords()).hasSize(2);
+    }
+
+    private void addUser(String userid, String password) {
+        CompiledRule rule = fixture.ruleCacheManager.getCompiledRule("user_table", "addUser");
+        assertThat(fixture.ruleExecutor.execute(rule, Map.of("userid", userid, "password", password,
+                "deviceid", UserTableYaml.deviceId(userid))).getStatusCode().value()).isEqualTo(200);
+    }
+
+    private List<String> transientTables() {
+        return fixture.query("SELECT table_name FROM information_schema.tables "
+                        + "WHERE LOWER(table_name) LIKE 'user_table__%'").stream()
+                .map(row -> row.get("TABLE_NAME").toString())
+                .toList();
+    }
+
+    @Test
+    void rebuildReplaysWritesLoggedSinceTheFilesSequence() {
+        load(UserTableYaml.table("user_table").users(2).build());
+        addUser("user3", "added");
+
+        load(UserTableYaml.table("user_table").changeLogSequence(0).user("user1", "rotated").user("user2", "secret2")
+                .build());
+
+        assertThat(passwords()).extracting(row -> row.get("PASSWORD")).containsExactly("rotated", "secret2", "added");
+    }
+
+    @Test
+    void failedReplayOfARebuildKeepsThePreviousTable() {
+        load(UserTableYaml.table("user_table").users(2).build());
+        addUser("user3", "added");
+
+        // The file already holds user3, so replaying the logged INSERT violates the primary key
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").changeLogSequence(0).users(3).build());
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).singleElement().satisfies(file -> {
+            assertThat(file.success()).isFalse();
+            assertThat(file.error()).contains("user_table", "Failed to replay change log entry");
+        });
+        assertThat(passwords()).extracting(row -> row.get("PASSWORD")).containsExactly("secret1", "secret2", "added");
+        assertThat(transientTables()).isEmpty();
+        assertThat(fixture.ruleCacheManager.getCompiledRule("user_table", "addUser")).isNotNull();
+    }
+
+    @Test
+    void failedReplayOfADiffKeepsThePreviousRows() {
+        load(UserTableYaml.table("user_table").diffOn("userid").users(2).build());
+        addUser("user3", "added");
+
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").diffOn("userid").changeLogSequence(0)
+                .user("user1", "rotated").user("user2", "secret2").user("user3", "secret3").build());
+        LoadReport report = fixture.ruleCacheManager.loadRules();
+
+        assertThat(report.files()).singleElement().satisfies(file -> {
+            assertThat(file.success()).isFalse();
+            assertThat(file.error()).contains("Failed to replay change log entry");
+        });
+        assertThat(passwords()).extracting(row -> row.get("PASSWORD")).containsExactly("secret1", "secret2", "added");
+
+        // The table's writers are not left blocked behind the failed load
+        addUser("user4", "after");
+        assertThat(passwords()).hasSize(4);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.ResultFormat;
+import com.example.micko.data.TableVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class RuleCoalescerTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+    private final TableVersions tableVersions = new TableVersions();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RuleCoalescer coalescer = new RuleCoalescer(tableVersions, meterRegistry);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.close();
+    }
+
+    private CompiledRule rule(boolean coalesce) {
+        ExecutionQuery query = new ExecutionQuery();
+        query.setQuery("SELECT * FROM orders WHERE customer_id = :customerId");
+        Rule rule = new Rule();
+        rule.setAction("customerOrders");
+        rule.setExecutionQuery(query);
+        rule.setCoalesce(coalesce);
+        return compiler.compile("orders", rule);
+    }
+
+    private ResponseEntity<Object> blockingExecution() {
+        int run = executions.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return ResponseEntity.ok(Map.of("run", run));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> call(CompiledRule rule, Map<String, Object> inputs,
+                                                           ResultFormat format) {
+        return CompletableFuture.supplyAsync(
+                () -> coalescer.execute(rule, inputs, format, this::blockingExecution), executor);
+    }
+
+    private double meter(String name) {
+        return meterRegistry.get(name).functionCounter().count();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() {
+        CompiledRule rule = rule(true);
+        List<CompletableFuture<ResponseEntity<Object>>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(call(rule, Map.of("customerId", 42), ResultFormat.ROWS));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> meter("micko.rule.coalesce.shared") == 19);
+        release.countDown();
+
+        assertThat(calls).allSatisfy(call -> assertThat(call.join().getBody()).isEqualTo(Map.of("run", 1)));
+        assertThat(executions).hasValue(1);
+        assertThat(meter("micko.rule.coalesce.executions")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("micko.rule.coalesce.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void callAfterAWriteToTheRulesTablesDoesNotJoinTheEarlierExecution() {
+        CompiledRule rule = rule(true);
+        CompletableFuture<ResponseEntity<Object>> beforeWrite = call(rule, Map.of("customerId", 42), ResultFormat.ROWS);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+
+        tableVersions.bump(rule.tables());
+        CompletableFuture<ResponseEntity<Object>> afterWrite = call(rule, Map.of("customerId", 42), ResultFormat.ROWS);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 2);
+        release.countDown();
+
+        assertThat(beforeWrite.join().getBody()).isEqualTo(Map.of("run", 1));
+        assertThat(afterWrite.join().getBody()).isEqualTo(Map.of("run", 2));
+        assertThat(meter("micko.rule.coalesce.shared")).isZero();
+    }
+
+    @Test
+    void reloadedRuleDoesNotJoinAnExecutionOfThePreviousDefinition() {
+        CompiledRule previous = rule(true);
+        CompiledRule reloaded = rule(true);
+        call(previous, Map.of("customerId", 42), ResultFormat.ROWS);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+
+        call(reloaded, Map.of("customerId", 42), ResultFormat.ROWS);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 2);
+        assertThat(meter("micko.rule.coalesce.shared")).isZero();
+    }
+
+    @Test
+    void differentInputsOrFormatRunSeparately() {
+        CompiledRule rule = rule(true);
+        call(rule, Map.of("customerId", 42), ResultFormat.ROWS);
+        call(rule, Map.of("customerId", 43), ResultFormat.ROWS);
+        call(rule, Map.of("customerId", 42), ResultFormat.COLUMNAR);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 3);
+        assertThat(meter("micko.rule.coalesce.shared")).isZero();
+    }
+
+    @Test
+    void everySharedCallReceivesTheExecutionsException() {
+        CompiledRule rule = rule(true);
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        List<CompletableFuture<ResponseEntity<Object>>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> coalescer.execute(rule, Map.of("customerId", 42),
+                    ResultFormat.ROWS, () -> {
+                        blockingExecution();
+                        throw failure;
+                    }), executor));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> meter("micko.rule.coalesce.shared") == 4);
+        release.countDown();
+
+        assertThat(calls).allSatisfy(call -> assertThatThrownBy(call::join)
+                .isInstanceOf(CompletionException.class)
+                .cause().isSameAs(failure));
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void ruleWithoutCoalescingAlwaysRunsItsOwnExecution() {
+        CompiledRule rule = rule(false);
+        for (int i = 0; i < 3; i++) {
+            call(rule, Map.of("customerId", 42), ResultFormat.ROWS);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executions.get() == 3);
+        assertThat(meter("micko.rule.coalesce.executions")).isZero();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.micko.rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleCompilerTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+
+    private static Rule rule(String query, Validation... validations) {
+        ExecutionQuery executionQuery = new ExecutionQuery();
+        executionQuery.setQuery(query);
+        Rule rule = new Rule();
+        rule.setAction("act");
+        rule.setExecutionQuery(executionQuery);
+        rule.setValidations(List.of(validations));
+        return rule;
+    }
+
+    private static Validation queryValidation(String query, Boolean independent) {
+        Validation validation = new Validation();
+        validation.setType("Query");
+        validation.setQuery(query);
+        validation.setIndependent(independent);
+        return validation;
+    }
+
+    @Test
+    void collectsTablesFromTheRuleTableValidationsAndExecutionQuery() {
+        CompiledRule compiled = compiler.compile("Users", rule(
+                "SELECT * FROM orders o JOIN items i ON i.order_id = o.id",
+                queryValidation("SELECT COUNT(*) FROM customers WHERE id = :id", null)));
+
+        assertThat(compiled.tables()).containsExactly("customers", "items", "orders", "users");
+        assertThat(compiled.isSelect()).isTrue();
+        assertThat(compiled.hasQueryValidations()).isTrue();
+    }
+
+    @Test
+    void fillsInDefaultMessagesAndCacheSettings() {
+        Rule rule = rule("SELECT * FROM users");
+        rule.setCache(new CacheDefinition());
+
+        CompiledRule compiled = compiler.compile("users", rule);
+
+        assertThat(compiled.successMessage()).isEqualTo("Operation successful.");
+        assertThat(compiled.errorMessage()).isEqualTo("Operation failed.");
+        assertThat(compiled.cache()).isEqualTo(new CompiledRule.CacheSettings(60, 1000));
+    }
+
+    @Test
+    void ignoresCacheAndCoalesceOnWrites() {
+        Rule rule = rule("UPDATE users SET password = :password WHERE userid = :userid");
+        rule.setCache(new CacheDefinition());
+        rule.setCoalesce(true);
+
+        CompiledRule compiled = compiler.compile("users", rule);
+
+        assertThat(compiled.cache()).isNull();
+        assertThat(compiled.coalesce()).isFalse();
+        assertThat(compiled.isSelect()).isFalse();
+
+        Rule read = rule("SELECT * FROM users");
+        read.setCoalesce(true);
+        assertThat(compiler.compile("users", read).coalesce()).isTrue();
+    }
+
+    @Test
+    void runsValidationsConcurrentlyOnlyWithSeveralQueriesAndAnIndependentOne() {
+        Validation regex = new Validation();
+        regex.setType("regex");
+        regex.setField("userid");
+        regex.setPattern("\\w+");
+        regex.setIndependent(true);
+
+        assertThat(compiler.compile("users", rule("SELECT 1",
+                queryValidation("SELECT 1 FROM users", true), regex)).concurrentValidations()).isFalse();
+        assertThat(compiler.compile("users", rule("SELECT 1",
+                queryValidation("SELECT 1 FROM users", null),
+                queryValidation("SELECT 2 FROM users", false))).concurrentValidations()).isFalse();
+        assertThat(compiler.compile("users", rule("SELECT 1",
+                queryValidation("SELECT 1 FROM users", null),
+                queryValidation("SELECT 2 FROM users", true))).concurrentValidations()).isTrue();
+    }
+
+    @Test
+    void compilesValidationSettings() {
+        Validation regex = new Validation();
+        regex.setType("REGEX");
+        regex.setPattern("[unclosed");
+        regex.setIndependent(true);
+        Validation range = new Validation();
+        range.setType("range");
+        range.setMinValue(1);
+        range.setMaxValue(2.5);
+        range.setError(Map.of("statusCode", 422, "message", "Out of range."));
+        Validation unknown = new Validation();
+        unknown.setType("checksum");
+
+        List<CompiledValidation> validations = compiler.compile("users", rule("SELECT 1", regex, range, unknown))
+                .validations();
+
+        assertThat(validations.get(0).type()).isEqualTo(CompiledValidation.Type.REGEX);
+        assertThat(validations.get(0).pattern()).isNull();
+        assertThat(validations.get(0).independent()).isFalse();
+        assertThat(validations.get(0).errorStatus()).isEqualTo(400);
+        assertThat(validations.get(0).errorMessage()).isEqualTo("Validation failed. Check your input.");
+        assertThat(validations.get(1).minValue()).isEqualTo(new BigDecimal("1"));
+        assertThat(validations.get(1).maxValue()).isEqualTo(new BigDecimal("2.5"));
+        assertThat(validations.get(1).errorStatus()).isEqualTo(422);
+        assertThat(validations.get(1).errorMessage()).isEqualTo("Out of range.");
+        assertThat(validations.get(2).type()).isEqualTo(CompiledValidation.Type.UNSUPPORTED);
+    }
+
+    @Test
+    void leavesNonNumericBoundsAsGiven() {
+        assertThat(RuleCompiler.coerceBound("2024-01-01")).isEqualTo("2024-01-01");
+        assertThat(RuleCompiler.coerceBound(null)).isNull();
+        assertThat(RuleCompiler.coerceBound(7L)).isEqualTo(new BigDecimal("7"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.DatabaseService;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleExecutorBatchTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+
+    @BeforeEach
+    void loadUsers() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(2).build());
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isZero();
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    /** The executor behind the transactional proxy Spring would put in front of it */
+    private RuleExecutor transactional(RuleExecutor target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(
+                new DataSourceTransactionManager(fixture.dataSource), new AnnotationTransactionAttributeSource()));
+        return (RuleExecutor) proxyFactory.getProxy();
+    }
+
+    private ResponseEntity<Object> batch(String action, List<Map<String, Object>> inputs) {
+        return transactional(fixture.ruleExecutor)
+                .executeBatch(fixture.ruleCacheManager.getCompiledRule("user_table", action), inputs);
+    }
+
+    private static Map<String, Object> user(String userid, String password) {
+        return Map.of("userid", userid, "password", password, "deviceid", UserTableYaml.deviceId(userid));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> statuses(ResponseEntity<Object> response) {
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        return ((List<Map<String, Object>>) body.get("results")).stream()
+                .map(item -> (Integer) item.get("status"))
+                .toList();
+    }
+
+    private List<String> userids() {
+        return fixture.query("SELECT userid FROM user_table ORDER BY userid").stream()
+                .map(row -> row.get("USERID").toString())
+                .toList();
+    }
+
+    @Test
+    void queryValidationSeesTheWritesOfEarlierItems() {
+        ResponseEntity<Object> response = batch("registerUser",
+                List.of(user("user3", "a"), user("user3", "b"), user("user1", "c"), user("user4", "d")));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(statuses(response)).containsExactly(200, 409, 409, 200);
+        assertThat(userids()).containsExactly("user1", "user2", "user3", "user4");
+        assertThat(fixture.query("SELECT password FROM user_table WHERE userid = 'user3'"))
+                .extracting(row -> row.get("PASSWORD")).containsExactly("a");
+    }
+
+    @Test
+    void itemsWithoutQueryValidationsRunAsOneBatchAndRollBackTogether() {
+        ResponseEntity<Object> response = batch("addUser", List.of(user("user3", "a"), user("user4", "b")));
+        assertThat(statuses(response)).containsExactly(200, 200);
+        assertThat(userids()).containsExactly("user1", "user2", "user3", "user4");
+
+        ResponseEntity<Object> failed = batch("addUser", List.of(user("user5", "a"), user("user1", "b")));
+        assertThat(failed.getStatusCode().value()).isEqualTo(500);
+        assertThat(userids()).containsExactly("user1", "user2", "user3", "user4");
+    }
+
+    @Test
+    void missingParametersAreRejectedPerItem() {
+        ResponseEntity<Object> response = batch("addUser", List.of(user("user3", "a"), Map.of("userid", "user4")));
+
+        assertThat(statuses(response)).containsExactly(200, 400);
+        assertThat(userids()).containsExactly("user1", "user2", "user3");
+    }
+
+    @Test
+    void selectItemsRunOnTheConfiguredEngine() {
+        // No entity manager behind this service: any JPA query would fail the batch
+        DatabaseService jpaOnly = new DatabaseService(fixture.dataSource, fixture.tableVersions,
+                fixture.meterRegistry, 16, 100, 100);
+        RuleExecutor executor = new RuleExecutor(jpaOnly, fixture.jdbcExecutor, fixture.tableLocks,
+                fixture.tableVersions, fixture.objectMapper, new RuleMetrics(fixture.meterRegistry),
+                fixture.changeLog, 100, 100, "jdbc", true);
+
+        ResponseEntity<Object> response = transactional(executor).executeBatch(
+                fixture.ruleCacheManager.getCompiledRule("user_table", "findUser"),
+                List.of(Map.of("userid", "user1"), Map.of("userid", "nobody")));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(statuses(response)).containsExactly(200, 200);
+    }
+}
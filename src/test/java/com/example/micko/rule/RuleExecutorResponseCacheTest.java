@@ -0,0 +1,97 @@
+package com.example.micko.rule;
+
+import com.example.micko.cache.CacheStats;
+import com.example.micko.data.ResultFormat;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleExecutorResponseCacheTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+
+    @BeforeEach
+    void loadUsers() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+        load(UserTableYaml.table("user_table").users(3).cacheFindUser(60, 100).build());
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private void load(String yaml) {
+        fixture.storage.put("users.yaml", yaml);
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isZero();
+    }
+
+    private ResponseEntity<Object> execute(String action, Map<String, Object> inputs, ResultFormat format) {
+        return fixture.ruleExecutor.execute(fixture.ruleCacheManager.getCompiledRule("user_table", action), inputs, format);
+    }
+
+    private ResponseEntity<Object> findUser(String userid) {
+        return execute("findUser", Map.of("userid", userid), ResultFormat.ROWS);
+    }
+
+    private CacheStats stats(String format) {
+        return fixture.ruleExecutor.getResponseCacheStats().get("user_table.findUser:" + format);
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCacheUntilTheTableIsWritten() {
+        Object first = findUser("user1").getBody();
+        assertThat(findUser("user1").getBody()).isEqualTo(first);
+        assertThat(stats("rows")).isEqualTo(new CacheStats(1, 1, 0, 1, 100));
+
+        ResponseEntity<Object> changed = execute("changePassword", Map.of("userid", "user1", "password", "rotated"),
+                ResultFormat.ROWS);
+        assertThat(changed.getStatusCode().value()).isEqualTo(200);
+
+        assertThat(findUser("user1").getBody().toString()).contains("rotated");
+        assertThat(stats("rows").misses()).isEqualTo(2);
+    }
+
+    @Test
+    void eachResultFormatIsCachedSeparately() {
+        findUser("user1");
+        execute("findUser", Map.of("userid", "user1"), ResultFormat.COLUMNAR);
+        execute("findUser", Map.of("userid", "user1"), ResultFormat.COLUMNAR);
+
+        assertThat(stats("rows")).isEqualTo(new CacheStats(0, 1, 0, 1, 100));
+        assertThat(stats("columnar")).isEqualTo(new CacheStats(1, 1, 0, 1, 100));
+    }
+
+    @Test
+    void failedLookupsAreNotCached() {
+        assertThat(execute("findUser", Map.of(), ResultFormat.ROWS).getStatusCode().value()).isEqualTo(500);
+        assertThat(execute("findUser", Map.of(), ResultFormat.ROWS).getStatusCode().value()).isEqualTo(500);
+
+        assertThat(stats("rows")).isEqualTo(new CacheStats(0, 2, 0, 0, 100));
+    }
+
+    @Test
+    void reloadingWithNewSettingsReplacesTheCacheAndWithoutSettingsDropsIt() {
+        findUser("user1");
+        findUser("user1");
+
+        load(UserTableYaml.table("user_table").users(3).cacheFindUser(60, 10).build());
+        findUser("user1");
+        assertThat(stats("rows")).isEqualTo(new CacheStats(0, 1, 0, 1, 10));
+
+        load(UserTableYaml.table("user_table").users(3).build());
+        assertThat(fixture.ruleExecutor.getResponseCacheStats()).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.ResultFormat;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleExecutorStreamingTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+
+    @BeforeEach
+    void loadUsers() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+        fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(3).build());
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isZero();
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String action, String userid) {
+        return fixture.ruleExecutor.executeStreaming(fixture.ruleCacheManager.getCompiledRule("user_table", action),
+                Map.of("userid", userid), ResultFormat.ROWS);
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private long executions(String outcome) {
+        return fixture.meterRegistry.get("micko.rule.execution")
+                .tags("action", "findDevice", "outcome", outcome).timer().count();
+    }
+
+    @Test
+    void streamRecordsExecutionQueryAndRowMetrics() throws IOException {
+        String body = write(stream("findDevice", "user1"));
+
+        assertThat(body).contains(UserTableYaml.deviceId("user1"));
+        assertThat(executions(RuleMetrics.SUCCESS)).isEqualTo(1);
+        assertThat(fixture.meterRegistry.get("micko.rule.query").tags("action", "findDevice").timer().count())
+                .isEqualTo(1);
+        assertThat(fixture.meterRegistry.get("micko.rule.rows").tags("action", "findDevice", "kind", "fetched")
+                .summary().totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void failedValidationIsRecordedAsRejected() {
+        ResponseEntity<StreamingResponseBody> response = stream("findDevice", "nobody");
+
+        assertThat(response.getStatusCode().value()).isEqualTo(404);
+        assertThat(executions(RuleMetrics.REJECTED)).isEqualTo(1);
+    }
+
+    @Test
+    void streamRevalidatesAfterAWriteAndFailsWhenValidationNoLongerPasses() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = stream("findDevice", "user1");
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+
+        fixture.execute("DELETE FROM user_table WHERE userid = 'user1'");
+        fixture.tableVersions.bump(List.of("user_table"));
+
+        assertThatThrownBy(() -> write(response)).isInstanceOf(IOException.class).hasMessageContaining("findDevice");
+        assertThat(executions(RuleMetrics.REJECTED)).isEqualTo(1);
+    }
+
+    @Test
+    void streamRunsWhenAnInterveningWriteLeavesValidationPassing() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = stream("findDevice", "user1");
+
+        fixture.execute("DELETE FROM user_table WHERE userid = 'user2'");
+        fixture.tableVersions.bump(List.of("user_table"));
+
+        assertThat(write(response)).contains(UserTableYaml.deviceId("user1"));
+        assertThat(executions(RuleMetrics.SUCCESS)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.micko.rule;
+
+import com.example.micko.data.ResultFormat;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleMetricsTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+    private MeterRegistry registry;
+    private String fileKey;
+
+    @BeforeEach
+    void loadUsers() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+        registry = fixture.meterRegistry;
+        fileKey = fixture.storage.put("users.yaml", UserTableYaml.table("user_table").users(3).cacheFindUser(60, 100).build());
+        assertThat(fixture.ruleCacheManager.loadRules().failureCount()).isZero();
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private void execute(String action, Map<String, Object> inputs) {
+        fixture.ruleExecutor.execute(fixture.ruleCacheManager.getCompiledRule("user_table", action), inputs, ResultFormat.ROWS);
+    }
+
+    private long executions(String action, String outcome) {
+        return registry.get("micko.rule.execution")
+                .tags("table", "user_table", "action", action, "outcome", outcome).timer().count();
+    }
+
+    @Test
+    void recordsExecutionsByOutcomeWithValidationAndQueryTimings() {
+        execute("changePassword", Map.of("userid", "user1", "password", "rotated"));
+        execute("changePassword", Map.of("userid", "nobody", "password", "rotated"));
+
+        assertThat(executions("changePassword", RuleMetrics.SUCCESS)).isEqualTo(1);
+        assertThat(executions("changePassword", RuleMetrics.REJECTED)).isEqualTo(1);
+        assertThat(registry.get("micko.rule.validation").tags("action", "changePassword").timer().count()).isEqualTo(2);
+        assertThat(registry.get("micko.rule.query").tags("action", "changePassword").timer().count()).isEqualTo(1);
+        assertThat(registry.get("micko.rule.validation.failures")
+                .tags("action", "changePassword", "type", "query").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsRowsFetchedAndAffected() {
+        execute("findUser", Map.of("userid", "user1"));
+        execute("findUser", Map.of("userid", "nobody"));
+        execute("addUser", Map.of("userid", "user9", "password", "p", "deviceid", UserTableYaml.deviceId("user9")));
+
+        assertThat(registry.get("micko.rule.rows").tags("action", "findUser", "kind", "fetched").summary())
+                .satisfies(rows -> {
+                    assertThat(rows.count()).isEqualTo(2);
+                    assertThat(rows.totalAmount()).isEqualTo(1.0);
+                });
+        assertThat(registry.get("micko.rule.rows").tags("action", "addUser", "kind", "affected").summary().totalAmount())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void publishesResponseCacheCountersPerRuleAndFormat() {
+        execute("findUser", Map.of("userid", "user1"));
+        execute("findUser", Map.of("userid", "user1"));
+
+        assertThat(registry.get("micko.cache.hits")
+                .tags("cache", "response", "rule", "user_table.findUser", "format", "rows").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("micko.cache.misses").tags("cache", "response").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("micko.cache.size").tags("cache", "response").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("micko.cache.hit.ratio").tags("cache", "response").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.find("micko.cache.hits").tags("cache", "validation").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void recordsEachReloadAndItsFilesByOutcome() {
+        fixture.ruleCacheManager.loadRules();
+        fixture.storage.put("broken.yaml", "tables: [");
+        fixture.ruleCacheManager.loadRules();
+
+        assertThat(registry.get("micko.reload").timer().count()).isEqualTo(3);
+        assertThat(registry.get("micko.reload.file").tags("file", fileKey, "outcome", "loaded").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("micko.reload.file").tags("file", fileKey, "outcome", "unchanged").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("micko.reload.file").tags("outcome", "failed").timer().count()).isEqualTo(1);
+        assertThat(registry.get("micko.reload.rows").tags("file", fileKey).counter().count()).isEqualTo(3.0);
+    }
+}
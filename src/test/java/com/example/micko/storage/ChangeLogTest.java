@@ -0,0 +1,172 @@
+package com.example.micko.storage;
+
+import com.example.micko.data.SqlStatement;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogTest {
+
+    private static final SqlStatement INSERT_ORDER = SqlStatement.parse("INSERT INTO orders (id, status) VALUES (:id, :status)");
+    private static final SqlStatement UPDATE_CUSTOMER = SqlStatement.parse("UPDATE customers SET region = :region WHERE id = :id");
+
+    @TempDir
+    Path directory;
+
+    private final List<ChangeLog> opened = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void closeLogs() throws Exception {
+        for (ChangeLog changeLog : opened) {
+            changeLog.destroy();
+        }
+    }
+
+    private ChangeLog open(int maxGroupSize) {
+        meterRegistry = new SimpleMeterRegistry();
+        ChangeLog changeLog = new ChangeLog(meterRegistry, true, directory.toString(), maxGroupSize);
+        opened.add(changeLog);
+        return changeLog;
+    }
+
+    private List<ChangeLog.Entry> replay(ChangeLog changeLog, String table, long afterSequence) throws Exception {
+        List<ChangeLog.Entry> entries = new ArrayList<>();
+        changeLog.replay(table, afterSequence, entries::add);
+        return entries;
+    }
+
+    @Test
+    void replaysOneTableInLogOrderAfterTheGivenSequence() throws Exception {
+        ChangeLog changeLog = open(16);
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 1, "status", "OPEN")));
+        changeLog.append(UPDATE_CUSTOMER, List.of(Map.of("id", 7, "region", "EU")));
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 2, "status", "OPEN"), Map.of("id", 3, "status", "HELD")));
+
+        List<ChangeLog.Entry> orders = replay(changeLog, "ORDERS", 0);
+        assertThat(orders).extracting(ChangeLog.Entry::sequence).containsExactly(1L, 3L);
+        assertThat(orders.get(1).params()).containsExactly(
+                Map.of("id", 2, "status", "OPEN"), Map.of("id", 3, "status", "HELD"));
+        assertThat(replay(changeLog, "orders", 1)).extracting(ChangeLog.Entry::sequence).containsExactly(3L);
+        assertThat(replay(changeLog, "customers", 0)).extracting(ChangeLog.Entry::table).containsExactly("customers");
+        assertThat(changeLog.dirtyTables()).containsExactlyInAnyOrder("orders", "customers");
+    }
+
+    @Test
+    void logsOnlyTheStatementsOwnParameters() throws Exception {
+        ChangeLog changeLog = open(16);
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 1, "status", "OPEN", "note", "not a parameter")));
+
+        assertThat(replay(changeLog, "orders", 0).get(0).params()).containsExactly(Map.of("id", 1, "status", "OPEN"));
+    }
+
+    @Test
+    void groupsConcurrentAppendsUnderContiguousSequenceNumbers() throws Exception {
+        ChangeLog changeLog = open(8);
+        int appends = 200;
+        List<Future<Long>> sequences = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < appends; i++) {
+                int id = i;
+                sequences.add(executor.submit(() -> changeLog.append(INSERT_ORDER, List.of(Map.of("id", id, "status", "OPEN")))));
+            }
+        }
+
+        List<Long> assigned = new ArrayList<>();
+        for (Future<Long> sequence : sequences) {
+            assigned.add(sequence.get());
+        }
+        assertThat(assigned).doesNotHaveDuplicates().allMatch(sequence -> sequence >= 1 && sequence <= appends);
+        assertThat(changeLog.lastSequence()).isEqualTo(appends);
+
+        DistributionSummary groupSizes = meterRegistry.get("micko.changelog.group.size").summary();
+        assertThat(groupSizes.totalAmount()).isEqualTo((double) appends);
+        assertThat(groupSizes.max()).isLessThanOrEqualTo(8);
+
+        // Each caller's entry is durable under the sequence it was handed
+        List<ChangeLog.Entry> entries = replay(changeLog, "orders", 0);
+        assertThat(entries).extracting(ChangeLog.Entry::sequence).isSorted().hasSize(appends);
+        for (int i = 0; i < appends; i++) {
+            assertThat(entries.get((int) (assigned.get(i) - 1)).params().get(0).get("id")).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void ignoresATornTailAndContinuesNumberingAfterTheLastValidEntry() throws Exception {
+        ChangeLog changeLog = open(16);
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 1, "status", "OPEN")));
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 2, "status", "OPEN")));
+        changeLog.destroy();
+        opened.remove(changeLog);
+
+        Path segment = segments().get(0);
+        Files.write(segment, "1a2b3c4d {\"sequence\":3,\"table\":\"ord".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        ChangeLog reopened = open(16);
+        assertThat(reopened.lastSequence()).isEqualTo(2);
+        assertThat(replay(reopened, "orders", 0)).extracting(ChangeLog.Entry::sequence).containsExactly(1L, 2L);
+
+        assertThat(reopened.append(INSERT_ORDER, List.of(Map.of("id", 3, "status", "OPEN")))).isEqualTo(3);
+        assertThat(replay(reopened, "orders", 0)).extracting(ChangeLog.Entry::sequence).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void stopsReadingASegmentAtARecordWithABadChecksum() throws Exception {
+        ChangeLog changeLog = open(16);
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 1, "status", "OPEN")));
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 2, "status", "OPEN")));
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 3, "status", "OPEN")));
+        changeLog.destroy();
+        opened.remove(changeLog);
+
+        Path segment = segments().get(0);
+        List<String> lines = new ArrayList<>(Files.readAllLines(segment, StandardCharsets.UTF_8));
+        lines.set(1, lines.get(1).replace("\"id\":2", "\"id\":9"));
+        Files.write(segment, lines, StandardCharsets.UTF_8);
+
+        ChangeLog reopened = open(16);
+        assertThat(replay(reopened, "orders", 0)).extracting(ChangeLog.Entry::sequence).containsExactly(1L);
+    }
+
+    @Test
+    void truncateDropsOnlySegmentsCoveredByTheCheckpoint() throws Exception {
+        ChangeLog changeLog = open(16);
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 1, "status", "OPEN")));
+        long boundary = changeLog.rotate();
+        changeLog.append(INSERT_ORDER, List.of(Map.of("id", 2, "status", "OPEN")));
+
+        changeLog.markCheckpoint("orders", boundary);
+        changeLog.truncate(boundary);
+
+        assertThat(boundary).isEqualTo(1);
+        assertThat(segments()).hasSize(1);
+        assertThat(replay(changeLog, "orders", 0)).extracting(ChangeLog.Entry::sequence).containsExactly(2L);
+        assertThat(changeLog.dirtyTables()).containsExactly("orders");
+
+        changeLog.markCheckpoint("orders", changeLog.lastSequence());
+        assertThat(changeLog.dirtyTables()).isEmpty();
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.micko.storage;
+
+import com.example.micko.rule.LoadReport;
+import com.example.micko.support.RuleLoadFixture;
+import com.example.micko.support.UserTableYaml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabasePersistenceServiceTest {
+
+    @TempDir
+    Path changeLogDirectory;
+
+    private RuleLoadFixture fixture;
+
+    @BeforeEach
+    void createFixture() {
+        fixture = new RuleLoadFixture(changeLogDirectory);
+    }
+
+    @AfterEach
+    void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    @Test
+    void exportIsRecordedUnderTheKeyItWasWrittenTo() throws Exception {
+        String key = fixture.storage.put("user_table.yaml", UserTableYaml.table("user_table").users(2).build());
+        fixture.ruleCacheManager.loadRules();
+        String loaded = fixture.storage.content(key);
+
+        fixture.persistenceService.destroy();
+
+        assertThat(fixture.storage.content(key)).isNotEqualTo(loaded);
+        LoadReport reload = fixture.ruleCacheManager.reloadFiles(List.of(key));
+        assertThat(reload.files()).singleElement().satisfies(file -> {
+            assertThat(file.fileKey()).isEqualTo(key);
+            assertThat(file.success()).isTrue();
+            assertThat(file.changed()).isFalse();
+        });
+    }
+
+    @Test
+    void diffTableKeepsItsReloadSettingsThroughExportAndReload() throws Exception {
+        String key = fixture.storage.put("user_table.yaml",
+                UserTableYaml.table("user_table").diffOn("userid").users(3).build());
+        fixture.ruleCacheManager.loadRules();
+
+        fixture.persistenceService.destroy();
+        String exported = fixture.storage.content(key);
+        assertThat(exported).contains("reloadMode: \"diff\"", "keyColumn: \"userid\"");
+
+        fixture.storage.put("user_table.yaml", exported.replace("secret2", "rotated"));
+        LoadReport reload = fixture.ruleCacheManager.loadRules();
+
+        // Only the edited row is written, so the exported table was diffed rather than rebuilt
+        assertThat(reload.files()).singleElement().satisfies(file -> {
+            assertThat(file.error()).isNull();
+            assertThat(file.rowsLoaded()).isEqualTo(1);
+        });
+        assertThat(fixture.query("SELECT password FROM user_table ORDER BY userid"))
+                .extracting(row -> row.get("PASSWORD"))
+                .containsExactly("secret1", "rotated", "secret3");
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.micko.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultipartUploadStreamTest {
+
+    private final S3Client s3Client = mock(S3Client.class);
+    private final List<String> partContents = new ArrayList<>();
+    private final List<UploadPartRequest> partRequests = new ArrayList<>();
+
+    @BeforeEach
+    void stubUploads() {
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            try (InputStream content = invocation.getArgument(1, RequestBody.class).contentStreamProvider().newStream()) {
+                partContents.add(new String(content.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            partRequests.add(request);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+    }
+
+    private CompleteMultipartUploadRequest completed() {
+        ArgumentCaptor<CompleteMultipartUploadRequest> request = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(request.capture());
+        return request.getValue();
+    }
+
+    @Test
+    void splitsTheContentIntoFullPartsAndAShorterLastOne() throws Exception {
+        MultipartUploadStream upload = new MultipartUploadStream(s3Client, "bucket", "rules/users.yaml", 4);
+
+        upload.write("abcdefghij".getBytes(StandardCharsets.UTF_8));
+        upload.write('k');
+        upload.complete();
+
+        assertThat(partContents).containsExactly("abcd", "efgh", "ijk");
+        assertThat(partRequests).extracting(UploadPartRequest::partNumber).containsExactly(1, 2, 3);
+        assertThat(partRequests).extracting(UploadPartRequest::contentLength).containsExactly(4L, 4L, 3L);
+        assertThat(partRequests).allSatisfy(request -> {
+            assertThat(request.bucket()).isEqualTo("bucket");
+            assertThat(request.key()).isEqualTo("rules/users.yaml");
+            assertThat(request.uploadId()).isEqualTo("upload-1");
+        });
+
+        CompleteMultipartUploadRequest complete = completed();
+        assertThat(complete.uploadId()).isEqualTo("upload-1");
+        assertThat(complete.multipartUpload().parts()).extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag-1"),
+                        tuple(2, "etag-2"),
+                        tuple(3, "etag-3"));
+    }
+
+    @Test
+    void contentFillingTheLastPartExactlyAddsNoEmptyPart() throws Exception {
+        MultipartUploadStream upload = new MultipartUploadStream(s3Client, "bucket", "key", 4);
+
+        upload.write("abcd".getBytes(StandardCharsets.UTF_8));
+        for (byte b : "efgh".getBytes(StandardCharsets.UTF_8)) {
+            upload.write(b);
+        }
+        upload.complete();
+
+        assertThat(partContents).containsExactly("abcd", "efgh");
+        assertThat(completed().multipartUpload().parts()).hasSize(2);
+    }
+
+    @Test
+    void anEmptyObjectIsUploadedAsOneEmptyPart() {
+        MultipartUploadStream upload = new MultipartUploadStream(s3Client, "bucket", "key", 4);
+
+        upload.complete();
+
+        assertThat(partContents).containsExactly("");
+        assertThat(completed().multipartUpload().parts()).hasSize(1);
+    }
+
+    @Test
+    void abortingDiscardsTheUploadWithoutCompletingIt() throws Exception {
+        MultipartUploadStream upload = new MultipartUploadStream(s3Client, "bucket", "key", 4);
+        upload.write("abcdef".getBytes(StandardCharsets.UTF_8));
+
+        upload.abort();
+
+        ArgumentCaptor<AbortMultipartUploadRequest> request = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3Client).abortMultipartUpload(request.capture());
+        assertThat(request.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(request.getValue().key()).isEqualTo("key");
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertThat(partContents).containsExactly("abcd");
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.micko.storage;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3StorageServiceTest {
+
+    private final S3Client s3Client = mock(S3Client.class);
+    private final S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+    private final List<String> written = new ArrayList<>();
+
+    private S3StorageService storage(String folder) {
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class))).thenAnswer(invocation -> {
+            written.add(invocation.getArgument(0, CreateMultipartUploadRequest.class).key());
+            return CreateMultipartUploadResponse.builder().uploadId("upload-1").build();
+        });
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("part-etag").build());
+        when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            written.add(invocation.getArgument(0, PutObjectRequest.class).key());
+            return null;
+        });
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenAnswer(invocation ->
+                new ListObjectsV2Iterable(s3Client, invocation.getArgument(0)));
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            String prefix = invocation.getArgument(0, ListObjectsV2Request.class).prefix();
+            return ListObjectsV2Response.builder()
+                    .contents(written.stream()
+                            .filter(key -> key.startsWith(prefix))
+                            .map(key -> S3Object.builder().key(key).size(1L).lastModified(Instant.EPOCH).eTag("e").build())
+                            .toList())
+                    .isTruncated(false)
+                    .build();
+        });
+        return new S3StorageService(s3Client, s3AsyncClient, "rules-bucket", folder);
+    }
+
+    @Test
+    void writeReturnsTheKeyTheListingReports() {
+        S3StorageService storage = storage("local-storage");
+
+        String key = storage.writeYamlFile("user_table.yaml",
+                outputStream -> outputStream.write("tables: []\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(key).isEqualTo("local-storage/user_table.yaml");
+        assertThat(written).containsExactly(key);
+        assertThat(storage.listYamlFiles("local-storage")).containsExactly(key);
+    }
+
+    @Test
+    void folderWithATrailingSlashDoesNotDoubleTheSeparator() {
+        S3StorageService storage = storage("local-storage/");
+
+        String key = storage.writeYamlFile("user_table.yaml",
+                outputStream -> outputStream.write("tables: []\n".getBytes(StandardCharsets.UTF_8)));
+        storage.saveYamlFile("orders.yaml", "tables: []\n");
+
+        assertThat(key).isEqualTo("local-storage/user_table.yaml");
+        assertThat(written).containsExactly(key, "local-storage/orders.yaml");
+        assertThat(storage.listYamlFiles(null)).containsExactly(key, "local-storage/orders.yaml");
+        assertThat(storage.listYamlFiles("local-storage")).allMatch(listed -> !listed.contains("//"));
+    }
+
+    @Test
+    void aFailingWriterAbortsTheUpload() {
+        S3StorageService storage = storage("local-storage");
+
+        assertThatThrownBy(() -> storage.writeYamlFile("user_table.yaml", outputStream -> {
+            outputStream.write("tables:".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("row query failed");
+        })).isInstanceOf(RuntimeException.class)
+                .hasMessage("Failed to save file: user_table.yaml")
+                .hasRootCauseMessage("row query failed");
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void listingFollowsContinuationTokensAcrossPages() {
+        S3StorageService storage = storage("rules");
+        doAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            assertThat(request.prefix()).isEqualTo("rules/");
+            if (request.continuationToken() == null) {
+                return ListObjectsV2Response.builder()
+                        .contents(object("rules/a.yaml", 10), object("rules/notes.txt", 20))
+                        .isTruncated(true)
+                        .nextContinuationToken("page-2")
+                        .build();
+            }
+            assertThat(request.continuationToken()).isEqualTo("page-2");
+            return ListObjectsV2Response.builder()
+                    .contents(object("rules/b.yaml", 30))
+                    .isTruncated(false)
+                    .build();
+        }).when(s3Client).listObjectsV2(any(ListObjectsV2Request.class));
+
+        assertThat(storage.listYamlFiles(" ")).containsExactly("rules/a.yaml", "rules/b.yaml");
+        assertThat(storage.listYamlFileMetadata("rules")).containsExactly(
+                new FileMetadata("rules/a.yaml", 10, 10_000, "etag-rules/a.yaml"),
+                new FileMetadata("rules/b.yaml", 30, 30_000, "etag-rules/b.yaml"));
+    }
+
+    @Test
+    void conditionalReadReturnsNullWhenNotModifiedAndTheBodyOtherwise() throws Exception {
+        S3StorageService storage = storage("rules");
+        List<GetObjectRequest> requests = new ArrayList<>();
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenAnswer(invocation -> {
+                    GetObjectRequest request = invocation.getArgument(0);
+                    requests.add(request);
+                    if ("current".equals(request.ifNoneMatch())) {
+                        return CompletableFuture.failedFuture(S3Exception.builder().statusCode(304).build());
+                    }
+                    return CompletableFuture.completedFuture(new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                            AbortableInputStream.create(new ByteArrayInputStream("tables: []".getBytes(StandardCharsets.UTF_8)))));
+                });
+
+        assertThat(storage.readYamlFileIfChanged("rules/a.yaml", "current")).isNull();
+        try (InputStream changed = storage.readYamlFileIfChanged("rules/a.yaml", "stale")) {
+            assertThat(new String(changed.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("tables: []");
+        }
+        assertThat(requests).extracting(GetObjectRequest::bucket, GetObjectRequest::key, GetObjectRequest::ifNoneMatch)
+                .containsExactly(tuple("rules-bucket", "rules/a.yaml", "current"), tuple("rules-bucket", "rules/a.yaml", "stale"));
+    }
+
+    @Test
+    void readFailuresSurfaceAsTheS3Exception() {
+        S3StorageService storage = storage("rules");
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(403).message("denied").build()));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThatThrownBy(() -> storage.readYamlFile("rules/a.yaml"))
+                .isInstanceOf(S3Exception.class)
+                .hasMessageContaining("denied");
+        assertThatThrownBy(() -> storage.readYamlFileIfChanged("rules/a.yaml", "stale"))
+                .isInstanceOf(S3Exception.class);
+        assertThat(storage.readYamlFileMetadata("rules/a.yaml")).isNull();
+    }
+
+    private static S3Object object(String key, long size) {
+        return S3Object.builder().key(key).size(size).lastModified(Instant.ofEpochSecond(size)).eTag("etag-" + key).build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.micko.support;
+
+import com.example.micko.storage.FileMetadata;
+import com.example.micko.storage.StorageService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage Fake Keyed Like S3: Every Object Lives Under {@code <folder>/<file name>}
+ * Each write gets a new ETag, and every read of an object's content is counted.
+ */
+public class InMemoryStorageService implements StorageService {
+
+    private record StoredFile(byte[] content, long lastModified, String eTag) {
+    }
+
+    private final String folder;
+    private final Map<String, StoredFile> files = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    public InMemoryStorageService(String folder) {
+        this.folder = folder;
+    }
+
+    /** Key a file name is stored under */
+    public String key(String fileName) {
+        return folder + "/" + fileName;
+    }
+
+    /** Store a file as if it were uploaded from outside the application */
+    public String put(String fileName, String content) {
+        String key = key(fileName);
+        long version = versions.incrementAndGet();
+        files.put(key, new StoredFile(content.getBytes(StandardCharsets.UTF_8), version, "etag-" + version));
+        return key;
+    }
+
+    public String content(String key) {
+        StoredFile file = files.get(key);
+        return file == null ? null : new String(file.content(), StandardCharsets.UTF_8);
+    }
+
+    /** Content reads of a key so far */
+    public int reads(String key) {
+        return reads.getOrDefault(key, new AtomicInteger()).get();
+    }
+
+    @Override
+    public List<String> listYamlFiles(String folderPath) {
+        return listYamlFileMetadata(folderPath).stream().map(FileMetadata::key).toList();
+    }
+
+    @Override
+    public List<FileMetadata> listYamlFileMetadata(String folderPath) {
+        return files.keySet().stream()
+                .filter(key -> key.startsWith(folderPath + "/") && key.endsWith(".yaml"))
+                .map(this::readYamlFileMetadata)
+                .toList();
+    }
+
+    @Override
+    public InputStream readYamlFile(String fileKey) {
+        StoredFile file = files.get(fileKey);
+        if (file == null) {
+            throw new RuntimeException("Failed to read file: " + fileKey);
+        }
+        reads.computeIfAbsent(fileKey, k -> new AtomicInteger()).incrementAndGet();
+        return new ByteArrayInputStream(file.content());
+    }
+
+    @Override
+    public FileMetadata readYamlFileMetadata(String fileKey) {
+        StoredFile file = files.get(fileKey);
+        return file == null ? null : new FileMetadata(fileKey, file.content().length, file.lastModified(), file.eTag());
+    }
+
+    @Override
+    public InputStream readYamlFileIfChanged(String fileKey, String eTag) {
+        StoredFile file = files.get(fileKey);
+        if (file != null && file.eTag().equals(eTag)) {
+            return null;
+        }
+        return readYamlFile(fileKey);
+    }
+
+    @Override
+    public void saveYamlFile(String fileName, String content) {
+        put(fileName, content);
+    }
+
+    @Override
+    public String writeYamlFile(String fileName, ContentWriter writer) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            writer.write(outputStream);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save file: " + fileName, e);
+        }
+        return put(fileName, outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.micko.support;
+
+import com.example.micko.data.DatabaseService;
+import com.example.micko.data.JdbcQueryExecutor;
+import com.example.micko.data.SqlStatement;
+import com.example.micko.data.TableLocks;
+import com.example.micko.data.TableVersions;
+import com.example.micko.rule.IndexAdvisor;
+import com.example.micko.rule.RuleCacheManager;
+import com.example.micko.rule.RuleExecutor;
+import com.example.micko.rule.RuleMetrics;
+import com.example.micko.storage.ChangeLog;
+import com.example.micko.storage.DatabasePersistenceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The Load and Execution Path Wired by Hand over a Private In-Memory H2 Database
+ * Rules run on the JDBC engine and the metadata queries of {@link DatabaseService} are routed to it as well,
+ * so nothing here needs JPA.
+ */
+public class RuleLoadFixture implements AutoCloseable {
+
+    public static final String FOLDER = "local-storage";
+
+    public final InMemoryStorageService storage = new InMemoryStorageService(FOLDER);
+    public final JdbcDataSource dataSource = new JdbcDataSource();
+    public final TableLocks tableLocks = new TableLocks();
+    public final TableVersions tableVersions = new TableVersions();
+    public final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    public final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    public final ChangeLog changeLog;
+    public final DatabaseService dbService;
+    public final JdbcQueryExecutor jdbcExecutor;
+    public final RuleExecutor ruleExecutor;
+    public final RuleCacheManager ruleCacheManager;
+    public final DatabasePersistenceService persistenceService;
+
+    public RuleLoadFixture(Path changeLogDirectory) {
+        this(changeLogDirectory, 4);
+    }
+
+    public RuleLoadFixture(Path changeLogDirectory, int parallelism) {
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        changeLog = new ChangeLog(meterRegistry, true, changeLogDirectory.toString(), 16);
+        jdbcExecutor = new JdbcQueryExecutor(dataSource, tableVersions);
+        dbService = new DatabaseService(dataSource, tableVersions, meterRegistry, 256, 1000, 1000) {
+            @Override
+            public List<Map<String, Object>> executeSelectQuery(String query, Map<String, Object> params) {
+                return jdbcExecutor.executeSelect(SqlStatement.parse(query), params);
+            }
+        };
+        ruleExecutor = new RuleExecutor(dbService, jdbcExecutor, tableLocks, tableVersions, objectMapper,
+                new RuleMetrics(meterRegistry), changeLog, 100, 100, "jdbc", true);
+        ruleCacheManager = new RuleCacheManager(storage, dataSource, tableLocks, tableVersions, meterRegistry,
+                new IndexAdvisor(dataSource, tableLocks, "off"), ruleExecutor, changeLog, objectMapper,
+                2, parallelism, FOLDER);
+        persistenceService = new DatabasePersistenceService(dbService, storage, ruleCacheManager, tableLocks,
+                changeLog, 2, 10);
+    }
+
+    /** Rows of a query, read outside any rule */
+    public List<Map<String, Object>> query(String sql) {
+        return jdbcExecutor.executeSelect(SqlStatement.parse(sql), Map.of());
+    }
+
+    /** Run a statement directly against the database, bypassing rules and the change log */
+    public void execute(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        changeLog.destroy();
+        execute("SHUTDOWN");
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.micko.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds Rule Files for Tables Shaped Like {@code user_table}, the Row Shape the Schema Accepts
+ * Every table gets a {@code findUser} SELECT, a {@code findDevice} SELECT that first checks the user
+ * exists, an {@code addUser} INSERT, a {@code registerUser} INSERT
+ * that first checks the user does not exist yet, and a {@code changePassword} UPDATE that first checks
+ * the user exists.
+ */
+public class UserTableYaml {
+
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private Table current;
+
+    private static final class Table {
+        final String name;
+        String reloadMode;
+        String keyColumn;
+        Long changeLogSequence;
+        String findUserCache = "";
+        final List<String> indexes = new ArrayList<>();
+        final Map<String, String> passwords = new LinkedHashMap<>();
+
+        Table(String name) {
+            this.name = name;
+        }
+    }
+
+    public static UserTableYaml table(String name) {
+        return new UserTableYaml().and(name);
+    }
+
+    /** Start another table in the same file */
+    public UserTableYaml and(String name) {
+        current = new Table(name);
+        tables.put(name, current);
+        return this;
+    }
+
+    /** Opt the current table into row-level diff reloads */
+    public UserTableYaml diffOn(String keyColumn) {
+        current.reloadMode = "diff";
+        current.keyColumn = keyColumn;
+        return this;
+    }
+
+    public UserTableYaml keyColumn(String keyColumn) {
+        current.keyColumn = keyColumn;
+        return this;
+    }
+
+    public UserTableYaml changeLogSequence(long sequence) {
+        current.changeLogSequence = sequence;
+        return this;
+    }
+
+    /** Cache the results of the current table's {@code findUser} rule */
+    public UserTableYaml cacheFindUser(int ttlSeconds, int maxEntries) {
+        current.findUserCache = """
+                    cache:
+                      ttlSeconds: %d
+                      maxEntries: %d
+                """.formatted(ttlSeconds, maxEntries);
+        return this;
+    }
+
+    public UserTableYaml index(String... columns) {
+        current.indexes.add(String.join(", ", columns));
+        return this;
+    }
+
+    public UserTableYaml user(String userid, String password) {
+        current.passwords.put(userid, password);
+        return this;
+    }
+
+    public UserTableYaml users(int count) {
+        for (int i = 1; i <= count; i++) {
+            user("user" + i, "secret" + i);
+        }
+        return this;
+    }
+
+    public static String deviceId(String userid) {
+        return UUID.nameUUIDFromBytes(userid.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    public String build() {
+        StringBuilder yaml = new StringBuilder("tables:\n");
+        for (Table table : tables.values()) {
+            yaml.append("- name: \"").append(table.name).append("\"\n");
+            if (table.reloadMode != null) {
+                yaml.append("  reloadMode: \"").append(table.reloadMode).append("\"\n");
+            }
+            if (table.keyColumn != null) {
+                yaml.append("  keyColumn: \"").append(table.keyColumn).append("\"\n");
+            }
+            if (table.changeLogSequence != null) {
+                yaml.append("  changeLogSequence: ").append(table.changeLogSequence).append("\n");
+            }
+            yaml.append("""
+                      columns:
+                      - name: "userid"
+                        type: "string"
+                        primaryKey: true
+                      - name: "password"
+                        type: "string"
+                      - name: "deviceid"
+                        type: "string"
+                      - name: "firsttimelogin"
+                        type: "boolean"
+                      - name: "termandcondition"
+                        type: "boolean"
+                      - name: "pushnotificationenabled"
+                        type: "boolean"
+                    """);
+            if (!table.indexes.isEmpty()) {
+                yaml.append("  indexes:\n");
+                table.indexes.forEach(columns -> yaml.append("  - columns: [").append(columns).append("]\n"));
+            }
+            yaml.append("  data:").append(table.passwords.isEmpty() ? " []\n" : "\n");
+            table.passwords.forEach((userid, password) -> yaml.append("""
+                      - userid: "%s"
+                        password: "%s"
+                        deviceid: "%s"
+                        firsttimelogin: true
+                        termandcondition: true
+                        pushnotificationenabled: false
+                    """.formatted(userid, password, deviceId(userid))));
+            yaml.append("""
+                      rules:
+                      - action: "findUser"
+                        validations: []
+                        executionQuery:
+                          query: "SELECT userid, password FROM %1$s WHERE userid = :userid"
+                          successMessage: "Found."
+                          errorMessage: "Lookup failed."
+                    %2$s  - action: "findDevice"
+                        validations:
+                        - type: "query"
+                          query: "SELECT COUNT(*) FROM %1$s WHERE userid = :userid"
+                          expectedResult: "1"
+                          error:
+                            statusCode: 404
+                            message: "User not found."
+                        executionQuery:
+                          query: "SELECT deviceid FROM %1$s WHERE userid = :userid"
+                          successMessage: "Found."
+                          errorMessage: "Lookup failed."
+                      - action: "addUser"
+                        validations: []
+                        executionQuery:
+                          query: "INSERT INTO %1$s (userid, password, deviceid, firsttimelogin, termandcondition, pushnotificationenabled) VALUES (:userid, :password, :deviceid, true, true, false)"
+                          successMessage: "Added."
+                          errorMessage: "Add failed."
+                      - action: "registerUser"
+                        validations:
+                        - type: "query"
+                          query: "SELECT COUNT(*) FROM %1$s WHERE userid = :userid"
+                          expectedResult: "0"
+                          error:
+                            statusCode: 409
+                            message: "User exists."
+                        executionQuery:
+                          query: "INSERT INTO %1$s (userid, password, deviceid, firsttimelogin, termandcondition, pushnotificationenabled) VALUES (:userid, :password, :deviceid, true, true, false)"
+                          successMessage: "Registered."
+                          errorMessage: "Registration failed."
+                      - action: "changePassword"
+                        validations:
+                        - type: "query"
+                          query: "SELECT COUNT(*) FROM %1$s WHERE userid = :userid"
+                          expectedResult: "1"
+                          error:
+                            statusCode: 404
+                            message: "User not found."
+                        executionQuery:
+                          query: "UPDATE %1$s SET password = :password WHERE userid = :userid"
+                          successMessage: "Password changed."
+                          errorMessage: "Change failed."
+                    """.formatted(table.name, table.findUserCache));
+        }
+        return yaml.toString();
+    }
+}